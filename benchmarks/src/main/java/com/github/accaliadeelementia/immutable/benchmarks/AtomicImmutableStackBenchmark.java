@@ -0,0 +1,65 @@
+package com.github.accaliadeelementia.immutable.benchmarks;
+
+import com.github.accaliadeelementia.immutable.AtomicImmutableStack;
+import com.github.accaliadeelementia.immutable.ImmutableStack;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+* Scaling of a shared AtomicImmutableStack, with and without elimination.
+*
+* Every thread pushes and then polls the same stack. Run {@link #main} to
+* measure at 1 to 64 threads, or pass {@code -t} to the benchmark jar for a
+* single thread count.
+*
+* @author Accalia de Elementia <accalia.de.elementia@gmail.com>
+*
+* @since 0.7.0
+*/
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AtomicImmutableStackBenchmark {
+
+    /**
+    * Width of the elimination array, 0 for none.
+    */
+    @Param({"0", "16"})
+    public int elimination;
+
+    private final Integer element = 42;
+    private AtomicImmutableStack<Integer> stack;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ImmutableStack<Integer> initial = ImmutableStack.of(1, 2, 3);
+        stack = elimination == 0
+            ? new AtomicImmutableStack<Integer>(initial)
+            : AtomicImmutableStack.withElimination(initial, elimination);
+    }
+
+    @Benchmark
+    public Integer pushPoll() {
+        stack.push(element);
+        return stack.poll();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads = 1; threads <= 64; threads *= 2) {
+            Options options = new OptionsBuilder()
+                .include(AtomicImmutableStackBenchmark.class.getName())
+                .threads(threads)
+                .build();
+            new Runner(options).run();
+        }
+    }
+}
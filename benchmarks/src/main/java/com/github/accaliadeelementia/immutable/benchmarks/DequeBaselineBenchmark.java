@@ -0,0 +1,90 @@
+package com.github.accaliadeelementia.immutable.benchmarks;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+* Baselines for {@link ImmutableQueueBenchmark} and
+* {@link ImmutableStackBenchmark} using the mutable JDK deques.
+*
+* The mutable deques are shared between invocations, so every single element
+* benchmark pairs the update with its inverse to leave the deque at
+* {@link #size} elements.
+*
+* @author Accalia de Elementia <accalia.de.elementia@gmail.com>
+*
+* @since 0.7.0
+*/
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DequeBaselineBenchmark {
+
+    @Param({"ArrayDeque", "LinkedList"})
+    public String implementation;
+
+    @Param({"1", "100", "10000", "1000000", "10000000"})
+    public int size;
+
+    private final Integer element = 42;
+    private Deque<Integer> deque;
+    private List<Integer> source;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        source = new ArrayList<Integer>(size);
+        for (int i = 0; i < size; i += 1) {
+            source.add(i);
+        }
+        deque = create();
+        deque.addAll(source);
+    }
+
+    private Deque<Integer> create() {
+        if ("LinkedList".equals(implementation)) {
+            return new LinkedList<Integer>();
+        }
+        return new ArrayDeque<Integer>();
+    }
+
+    @Benchmark
+    public Integer addFirstPollFirst() {
+        deque.addFirst(element);
+        return deque.pollFirst();
+    }
+
+    @Benchmark
+    public Integer addLastPollLast() {
+        deque.addLast(element);
+        return deque.pollLast();
+    }
+
+    @Benchmark
+    public Integer peekFirst() { return deque.peekFirst(); }
+
+    @Benchmark
+    public Integer peekLast() { return deque.peekLast(); }
+
+    @Benchmark
+    public Deque<Integer> addAll() {
+        Deque<Integer> d = create();
+        d.addAll(source);
+        return d;
+    }
+
+    @Benchmark
+    public void iterator(Blackhole bh) {
+        for (Integer e: deque) {
+            bh.consume(e);
+        }
+    }
+
+    @Benchmark
+    public Object[] toArray() { return deque.toArray(); }
+}
@@ -0,0 +1,122 @@
+package com.github.accaliadeelementia.immutable.benchmarks;
+
+import com.github.accaliadeelementia.immutable.ImmutableQueue;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+* Hot path benchmarks for ImmutableQueue.
+*
+* Every benchmark works against a queue of {@link #size} elements built once
+* per trial, so single element operations measure the cost of deriving one new
+* version from a queue of that size. Run with {@code -prof gc} to get the bytes
+* allocated per operation next to the throughput.
+*
+* The drain benchmarks empty the whole queue from the left, one value at a
+* time or {@value #BATCH} values per batch pop, so they compare the two ways
+* of consuming a queue rather than a single derivation.
+*
+* @author Accalia de Elementia <accalia.de.elementia@gmail.com>
+*
+* @since 0.7.0
+*/
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ImmutableQueueBenchmark {
+
+    static final int BATCH = 64;
+
+    @Param({"1", "100", "10000", "1000000", "10000000"})
+    public int size;
+
+    private final Integer element = 42;
+    private ImmutableQueue<Integer> queue;
+    private List<Integer> source;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        source = new ArrayList<Integer>(size);
+        for (int i = 0; i < size; i += 1) {
+            source.add(i);
+        }
+        queue = new ImmutableQueue<Integer>();
+        for (Integer i: source) {
+            queue = queue.pushLeft(i);
+        }
+    }
+
+    @Benchmark
+    public ImmutableQueue<Integer> pushLeft() { return queue.pushLeft(element); }
+
+    @Benchmark
+    public ImmutableQueue<Integer> pushRight() { return queue.pushRight(element); }
+
+    @Benchmark
+    public ImmutableQueue<Integer> popLeft() { return queue.popLeft(); }
+
+    @Benchmark
+    public ImmutableQueue<Integer> popRight() { return queue.popRight(); }
+
+    @Benchmark
+    public void drainPopLeft(Blackhole bh) {
+        ImmutableQueue<Integer> q = queue;
+        while (!q.isEmpty()) {
+            bh.consume(q.peekLeft());
+            q = q.popLeft();
+        }
+    }
+
+    @Benchmark
+    public void drainPopLeftBatch(Blackhole bh) {
+        ImmutableQueue<Integer> q = queue;
+        while (!q.isEmpty()) {
+            q = q.popLeft(BATCH, bh::consume);
+        }
+    }
+
+    @Benchmark
+    public void drainPopRight(Blackhole bh) {
+        ImmutableQueue<Integer> q = queue;
+        while (!q.isEmpty()) {
+            bh.consume(q.peekRight());
+            q = q.popRight();
+        }
+    }
+
+    @Benchmark
+    public void drainPopRightBatch(Blackhole bh) {
+        ImmutableQueue<Integer> q = queue;
+        while (!q.isEmpty()) {
+            q = q.popRight(BATCH, bh::consume);
+        }
+    }
+
+    @Benchmark
+    public Integer peekLeft() { return queue.peekLeft(); }
+
+    @Benchmark
+    public Integer peekRight() { return queue.peekRight(); }
+
+    @Benchmark
+    public ImmutableQueue<Integer> addAll() {
+        return new ImmutableQueue<Integer>().addAll(source);
+    }
+
+    @Benchmark
+    public void iterator(Blackhole bh) {
+        for (Integer e: queue) {
+            bh.consume(e);
+        }
+    }
+
+    @Benchmark
+    public Object[] toArray() { return queue.toArray(); }
+}
@@ -0,0 +1,78 @@
+package com.github.accaliadeelementia.immutable.benchmarks;
+
+import com.github.accaliadeelementia.immutable.ImmutableStack;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+* Hot path benchmarks for ImmutableStack.
+*
+* push extends a chain of pushes, so each push builds on the newest
+* version, as a stack in use does; the chain is restarted from the base
+* stack every {@value #CHAIN} pushes to bound its memory. pushPop pushes
+* onto and pops the same version repeatedly.
+*
+* Run with {@code -prof gc} to get the bytes allocated per operation next to
+* the throughput.
+*
+* @author Accalia de Elementia <accalia.de.elementia@gmail.com>
+*
+* @since 0.7.0
+*/
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ImmutableStackBenchmark {
+
+    @Param({"1", "100", "10000", "1000000", "10000000"})
+    public int size;
+
+    static final int CHAIN = 1024;
+
+    private final Integer element = 42;
+    private ImmutableStack<Integer> stack;
+    private ImmutableStack<Integer> chain;
+    private int pushes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        stack = new ImmutableStack<Integer>();
+        for (int i = 0; i < size; i += 1) {
+            stack = stack.push(i);
+        }
+        chain = stack;
+    }
+
+    @Benchmark
+    public ImmutableStack<Integer> push() {
+        pushes += 1;
+        if (pushes == CHAIN) {
+            pushes = 0;
+            chain = stack;
+        }
+        chain = chain.push(element);
+        return chain;
+    }
+
+    @Benchmark
+    public ImmutableStack<Integer> pushPop() { return stack.push(element).pop(); }
+
+    @Benchmark
+    public ImmutableStack<Integer> pop() { return stack.pop(); }
+
+    @Benchmark
+    public void iterator(Blackhole bh) {
+        for (Integer e: stack) {
+            bh.consume(e);
+        }
+    }
+
+    @Benchmark
+    public Object[] toArray() { return stack.toArray(); }
+}
@@ -0,0 +1,237 @@
+package com.github.accaliadeelementia.immutable;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+* A thread safe, lock free, holder for a shared {@link ImmutableQueue}.
+*
+* {@link #get} returns the current queue with a single volatile read, so
+* readers always see a consistent snapshot and never wait. Updates build a
+* new version of the queue and install it with a compare and set, retrying
+* with randomized exponential backoff when another thread got in first.
+*
+* The number of installed updates and failed compare and sets are counted,
+* to show how contended the holder is.
+*
+* @author Accalia de Elementia <accalia.de.elementia@gmail.com>
+*
+* @version 0.7.0
+*/
+public final class AtomicImmutableQueue<E> {
+    private final AtomicReference<ImmutableQueue<E>> ref;
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    /**
+    * Create a holder of the empty queue.
+    *
+    * @since 0.7.0
+    */
+    public AtomicImmutableQueue() {
+        this(ImmutableQueue.<E>empty());
+    }
+
+    /**
+    * Create a holder of a queue.
+    *
+    * @param initial The queue to hold
+    *
+    * @since 0.7.0
+    */
+    public AtomicImmutableQueue(ImmutableQueue<E> initial) {
+        if (null == initial) {
+            throw new NullPointerException();
+        }
+        ref = new AtomicReference<ImmutableQueue<E>>(initial);
+    }
+
+    /**
+    * Returns the current queue.
+    *
+    * @return A snapshot of the queue
+    *
+    * @since 0.7.0
+    */
+    public ImmutableQueue<E> get() { return ref.get(); }
+
+    /**
+    * Replace the queue if it is still expected.
+    *
+    * @param expect The queue expected to be held, compared by identity
+    * @param update The queue to hold instead
+    * @return True if the queue was replaced
+    *
+    * @since 0.7.0
+    */
+    public boolean compareAndSet(ImmutableQueue<E> expect, ImmutableQueue<E> update) {
+        if (null == update) {
+            throw new NullPointerException();
+        }
+        if (ref.compareAndSet(expect, update)) {
+            updates.increment();
+            return true;
+        }
+        failures.increment();
+        return false;
+    }
+
+    /**
+    * Atomically replace the queue with the result of f.
+    *
+    * f may be called more than once, so must not have side effects.
+    *
+    * @param f Function computing the new queue from the current one
+    * @return The new queue
+    *
+    * @since 0.7.0
+    */
+    public ImmutableQueue<E> updateAndGet(UnaryOperator<ImmutableQueue<E>> f) {
+        Backoff backoff = null;
+        for (;;) {
+            ImmutableQueue<E> q = ref.get();
+            ImmutableQueue<E> next = f.apply(q);
+            if (compareAndSet(q, next)) {
+                return next;
+            }
+            if (null == backoff) {
+                backoff = new Backoff();
+            }
+            backoff.pause();
+        }
+    }
+
+    /**
+    * Atomically replace the queue with the result of f.
+    *
+    * f may be called more than once, so must not have side effects.
+    *
+    * @param f Function computing the new queue from the current one
+    * @return The queue that was replaced
+    *
+    * @since 0.7.0
+    */
+    public ImmutableQueue<E> getAndUpdate(UnaryOperator<ImmutableQueue<E>> f) {
+        Backoff backoff = null;
+        for (;;) {
+            ImmutableQueue<E> q = ref.get();
+            if (compareAndSet(q, f.apply(q))) {
+                return q;
+            }
+            if (null == backoff) {
+                backoff = new Backoff();
+            }
+            backoff.pause();
+        }
+    }
+
+    /**
+    * Atomically push a data value to the right end of the queue.
+    *
+    * @param e Data value to push
+    * @return The new queue
+    *
+    * @since 0.7.0
+    */
+    public ImmutableQueue<E> pushRight(E e) {
+        Backoff backoff = null;
+        for (;;) {
+            ImmutableQueue<E> q = ref.get();
+            ImmutableQueue<E> next = q.pushRight(e);
+            if (compareAndSet(q, next)) {
+                return next;
+            }
+            if (null == backoff) {
+                backoff = new Backoff();
+            }
+            backoff.pause();
+        }
+    }
+
+    /**
+    * Atomically push a data value to the left end of the queue.
+    *
+    * @param e Data value to push
+    * @return The new queue
+    *
+    * @since 0.7.0
+    */
+    public ImmutableQueue<E> pushLeft(E e) {
+        Backoff backoff = null;
+        for (;;) {
+            ImmutableQueue<E> q = ref.get();
+            ImmutableQueue<E> next = q.pushLeft(e);
+            if (compareAndSet(q, next)) {
+                return next;
+            }
+            if (null == backoff) {
+                backoff = new Backoff();
+            }
+            backoff.pause();
+        }
+    }
+
+    /**
+    * Atomically remove the leftmost data value.
+    *
+    * @return The removed value, or null if the queue was empty
+    *
+    * @since 0.7.0
+    */
+    public E pollLeft() {
+        Backoff backoff = null;
+        for (;;) {
+            ImmutableQueue<E> q = ref.get();
+            if (q.isEmpty()) {
+                return null;
+            }
+            if (compareAndSet(q, q.popLeft())) {
+                return q.peekLeft();
+            }
+            if (null == backoff) {
+                backoff = new Backoff();
+            }
+            backoff.pause();
+        }
+    }
+
+    /**
+    * Atomically remove the rightmost data value.
+    *
+    * @return The removed value, or null if the queue was empty
+    *
+    * @since 0.7.0
+    */
+    public E pollRight() {
+        Backoff backoff = null;
+        for (;;) {
+            ImmutableQueue<E> q = ref.get();
+            if (q.isEmpty()) {
+                return null;
+            }
+            if (compareAndSet(q, q.popRight())) {
+                return q.peekRight();
+            }
+            if (null == backoff) {
+                backoff = new Backoff();
+            }
+            backoff.pause();
+        }
+    }
+
+    /**
+    * Returns the number of updates installed.
+    *
+    * @since 0.7.0
+    */
+    public long updates() { return updates.sum(); }
+
+    /**
+    * Returns the number of compare and sets that failed because another
+    * update was installed first.
+    *
+    * @since 0.7.0
+    */
+    public long failures() { return failures.sum(); }
+}
@@ -0,0 +1,249 @@
+package com.github.accaliadeelementia.immutable;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+* A thread safe, lock free, holder for a shared {@link ImmutableStack}.
+*
+* This is a Treiber stack: push and poll read the top, build the new top
+* and install it with a compare and set, retrying with randomized
+* exponential backoff when another thread got in first. {@link #get} returns
+* the current stack with a single volatile read, so readers always see a
+* consistent snapshot and never wait.
+*
+* The number of installed updates and failed compare and sets are counted,
+* to show how contended the holder is.
+*
+* Under heavy contention an {@link EliminationArray} can be enabled with
+* {@link #withElimination}. A push or poll whose compare and set failed then
+* tries to meet a concurrent poll or push there, so the pair completes
+* without touching the top of the stack at all.
+*
+* @author Accalia de Elementia <accalia.de.elementia@gmail.com>
+*
+* @version 0.7.0
+*/
+public final class AtomicImmutableStack<E> {
+    private final AtomicReference<ImmutableStack<E>> ref;
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder eliminated = new LongAdder();
+    private final EliminationArray<E> elimination;
+
+    /**
+    * Create a holder of the empty stack.
+    *
+    * @since 0.7.0
+    */
+    public AtomicImmutableStack() {
+        this(ImmutableStack.<E>empty());
+    }
+
+    /**
+    * Create a holder of a stack.
+    *
+    * @param initial The stack to hold
+    *
+    * @since 0.7.0
+    */
+    public AtomicImmutableStack(ImmutableStack<E> initial) {
+        this(initial, null);
+    }
+
+    private AtomicImmutableStack(ImmutableStack<E> initial, EliminationArray<E> elimination) {
+        if (null == initial) {
+            throw new NullPointerException();
+        }
+        ref = new AtomicReference<ImmutableStack<E>>(initial);
+        this.elimination = elimination;
+    }
+
+    /**
+    * Create a holder of a stack that eliminates colliding pushes and polls.
+    *
+    * @param initial The stack to hold
+    * @param width Number of slots in the elimination array, around the
+    *        number of threads expected to collide at once
+    * @return A new AtomicImmutableStack
+    *
+    * @since 0.7.0
+    */
+    public static <E> AtomicImmutableStack<E> withElimination(ImmutableStack<E> initial, int width) {
+        return new AtomicImmutableStack<E>(initial, new EliminationArray<E>(width));
+    }
+
+    /**
+    * Returns the current stack.
+    *
+    * @return A snapshot of the stack
+    *
+    * @since 0.7.0
+    */
+    public ImmutableStack<E> get() { return ref.get(); }
+
+    /**
+    * Replace the stack if it is still expected.
+    *
+    * @param expect The stack expected to be held, compared by identity
+    * @param update The stack to hold instead
+    * @return True if the stack was replaced
+    *
+    * @since 0.7.0
+    */
+    public boolean compareAndSet(ImmutableStack<E> expect, ImmutableStack<E> update) {
+        if (null == update) {
+            throw new NullPointerException();
+        }
+        if (ref.compareAndSet(expect, update)) {
+            updates.increment();
+            return true;
+        }
+        failures.increment();
+        return false;
+    }
+
+    /**
+    * Atomically replace the stack with the result of f.
+    *
+    * f may be called more than once, so must not have side effects.
+    *
+    * @param f Function computing the new stack from the current one
+    * @return The new stack
+    *
+    * @since 0.7.0
+    */
+    public ImmutableStack<E> updateAndGet(UnaryOperator<ImmutableStack<E>> f) {
+        Backoff backoff = null;
+        for (;;) {
+            ImmutableStack<E> s = ref.get();
+            ImmutableStack<E> next = f.apply(s);
+            if (compareAndSet(s, next)) {
+                return next;
+            }
+            if (null == backoff) {
+                backoff = new Backoff();
+            }
+            backoff.pause();
+        }
+    }
+
+    /**
+    * Atomically replace the stack with the result of f.
+    *
+    * f may be called more than once, so must not have side effects.
+    *
+    * @param f Function computing the new stack from the current one
+    * @return The stack that was replaced
+    *
+    * @since 0.7.0
+    */
+    public ImmutableStack<E> getAndUpdate(UnaryOperator<ImmutableStack<E>> f) {
+        Backoff backoff = null;
+        for (;;) {
+            ImmutableStack<E> s = ref.get();
+            if (compareAndSet(s, f.apply(s))) {
+                return s;
+            }
+            if (null == backoff) {
+                backoff = new Backoff();
+            }
+            backoff.pause();
+        }
+    }
+
+    /**
+    * Atomically push a data value on top of the stack.
+    *
+    * @param e Data value to push
+    * @return The new stack, or the current stack if the value was handed
+    *         straight to a concurrent poll
+    *
+    * @since 0.7.0
+    */
+    public ImmutableStack<E> push(E e) {
+        ImmutableStack<E> s = ref.get();
+        ImmutableStack<E> next = s.push(e);
+        if (compareAndSet(s, next)) {
+            return next;
+        }
+        Backoff backoff = new Backoff();
+        for (;;) {
+            if (null != elimination && elimination.offer(e)) {
+                eliminated.increment();
+                return ref.get();
+            }
+            backoff.pause();
+            s = ref.get();
+            next = s.push(e);
+            if (compareAndSet(s, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+    * Atomically remove the top of the stack.
+    *
+    * @return The removed value, or null if the stack was empty
+    *
+    * @since 0.7.0
+    */
+    public E poll() {
+        Backoff backoff = null;
+        for (;;) {
+            ImmutableStack<E> s = ref.get();
+            if (s.isEmpty()) {
+                return null;
+            }
+            if (compareAndSet(s, s.pop())) {
+                return s.peek();
+            }
+            if (null != elimination) {
+                EliminationArray.Offer<E> offer = elimination.take();
+                if (null != offer) {
+                    return offer.value;
+                }
+            }
+            if (null == backoff) {
+                backoff = new Backoff();
+            }
+            backoff.pause();
+        }
+    }
+
+    /**
+    * Look at the top of the current stack.
+    *
+    * @return The topmost value, or null if the stack is empty
+    *
+    * @since 0.7.0
+    */
+    public E peek() {
+        ImmutableStack<E> s = ref.get();
+        return s.isEmpty() ? null : s.peek();
+    }
+
+    /**
+    * Returns the number of updates installed.
+    *
+    * @since 0.7.0
+    */
+    public long updates() { return updates.sum(); }
+
+    /**
+    * Returns the number of compare and sets that failed because another
+    * update was installed first.
+    *
+    * @since 0.7.0
+    */
+    public long failures() { return failures.sum(); }
+
+    /**
+    * Returns the number of pushes handed straight to a poll.
+    *
+    * @since 0.7.0
+    */
+    public long eliminated() { return eliminated.sum(); }
+}
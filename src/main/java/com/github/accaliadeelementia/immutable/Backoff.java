@@ -0,0 +1,35 @@
+package com.github.accaliadeelementia.immutable;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+* Randomized exponential backoff for compare and set loops.
+*
+* Each pause spins for a random number of steps up to a limit that doubles
+* after every failed attempt, then yields the thread once the limit is at
+* its maximum. A Backoff belongs to one loop of one thread.
+*
+* @since 0.7.0
+*/
+final class Backoff {
+    private static final int MIN_SPINS = 1 << 2;
+    private static final int MAX_SPINS = 1 << 10;
+
+    private int limit = MIN_SPINS;
+
+    /**
+    * Wait before the next attempt.
+    *
+    * @since 0.7.0
+    */
+    void pause() {
+        if (limit >= MAX_SPINS) {
+            Thread.yield();
+            return;
+        }
+        for (int i = ThreadLocalRandom.current().nextInt(limit); i >= 0; i -= 1) {
+            SpinWait.onSpinWait();
+        }
+        limit <<= 1;
+    }
+}
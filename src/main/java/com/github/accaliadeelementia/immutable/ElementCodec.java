@@ -0,0 +1,112 @@
+package com.github.accaliadeelementia.immutable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+* Writes and reads single elements for {@link ImmutableCollectionCodec}.
+*
+* @author Accalia de Elementia <accalia.de.elementia@gmail.com>
+*
+* @version 0.7.0
+*/
+public interface ElementCodec<E> {
+
+    /**
+    * Codec for non null Integers, four bytes each.
+    *
+    * @since 0.7.0
+    */
+    public static final ElementCodec<Integer> INTEGER = new ElementCodec<Integer>() {
+        public void write(DataOutput out, Integer e) throws IOException { out.writeInt(e); }
+        public Integer read(DataInput in) throws IOException { return in.readInt(); }
+    };
+
+    /**
+    * Codec for non null Longs, eight bytes each.
+    *
+    * @since 0.7.0
+    */
+    public static final ElementCodec<Long> LONG = new ElementCodec<Long>() {
+        public void write(DataOutput out, Long e) throws IOException { out.writeLong(e); }
+        public Long read(DataInput in) throws IOException { return in.readLong(); }
+    };
+
+    /**
+    * Codec for non null Strings, as a byte count and UTF-8 bytes.
+    *
+    * Unlike {@link DataOutput#writeUTF} there is no 64KiB limit.
+    *
+    * @since 0.7.0
+    */
+    public static final ElementCodec<String> STRING = new ElementCodec<String>() {
+        public void write(DataOutput out, String e) throws IOException {
+            byte[] b = e.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(b.length);
+            out.write(b);
+        }
+        public String read(DataInput in) throws IOException {
+            int n = in.readInt();
+            if (n < 0) {
+                throw new StreamCorruptedException("Invalid length " + n);
+            }
+            // Grow as bytes arrive rather than trusting n with a huge array
+            byte[] b = new byte[Math.min(n, 1 << 16)];
+            in.readFully(b);
+            while (b.length < n) {
+                int read = b.length;
+                b = Arrays.copyOf(b, (int) Math.min(n, 2L * read));
+                in.readFully(b, read, b.length - read);
+            }
+            return new String(b, StandardCharsets.UTF_8);
+        }
+    };
+
+    /**
+    * Write one element.
+    *
+    * @param out Where to write
+    * @param e The element
+    * @throws IOException if out does
+    *
+    * @since 0.7.0
+    */
+    public void write(DataOutput out, E e) throws IOException;
+
+    /**
+    * Read one element written by {@link #write}.
+    *
+    * @param in Where to read from
+    * @return The element
+    * @throws IOException if in does
+    *
+    * @since 0.7.0
+    */
+    public E read(DataInput in) throws IOException;
+
+    /**
+    * Wrap this codec to allow null elements, with a leading presence byte.
+    *
+    * @return A codec that also handles null
+    *
+    * @since 0.7.0
+    */
+    public default ElementCodec<E> nullable() {
+        final ElementCodec<E> codec = this;
+        return new ElementCodec<E>() {
+            public void write(DataOutput out, E e) throws IOException {
+                out.writeBoolean(null != e);
+                if (null != e) {
+                    codec.write(out, e);
+                }
+            }
+            public E read(DataInput in) throws IOException {
+                return in.readBoolean() ? codec.read(in) : null;
+            }
+        };
+    }
+}
@@ -0,0 +1,80 @@
+package com.github.accaliadeelementia.immutable;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+* An elimination array, where a push and a poll that collide on a contended
+* stack hand the value over directly instead of both updating the top.
+*
+* A pushing thread parks an Offer in a random slot and spins for a while.
+* A polling thread that finds an Offer in its slot takes it by clearing the
+* slot. Whichever of the two clears the slot decides the outcome, so a push
+* is either taken by exactly one poll or withdrawn. A push and poll paired
+* this way happen together, so the stack is never seen to hold the value.
+*
+* Offers are new objects every time, so slots cannot suffer ABA.
+*
+* @since 0.7.0
+*/
+final class EliminationArray<E> {
+    private static final int SPINS = 1 << 7;
+
+    private final AtomicReferenceArray<Offer<E>> slots;
+
+    EliminationArray(int width) {
+        if (width < 1) {
+            throw new IllegalArgumentException("Width " + width + " is not positive");
+        }
+        slots = new AtomicReferenceArray<Offer<E>>(width);
+    }
+
+    /**
+    * Offer a pushed value to a concurrent poll.
+    *
+    * @return True if a poll took the value
+    *
+    * @since 0.7.0
+    */
+    boolean offer(E e) {
+        int i = ThreadLocalRandom.current().nextInt(slots.length());
+        Offer<E> offer = new Offer<E>(e);
+        if (!slots.compareAndSet(i, null, offer)) {
+            return false;
+        }
+        for (int n = 0; n < SPINS; n += 1) {
+            if (slots.get(i) != offer) {
+                return true;
+            }
+            SpinWait.onSpinWait();
+        }
+        return !slots.compareAndSet(i, offer, null);
+    }
+
+    /**
+    * Take a value offered by a concurrent push, if there is one.
+    *
+    * @return The offer, or null if none was taken
+    *
+    * @since 0.7.0
+    */
+    Offer<E> take() {
+        int i = ThreadLocalRandom.current().nextInt(slots.length());
+        Offer<E> offer = slots.get(i);
+        if (null != offer && slots.compareAndSet(i, offer, null)) {
+            return offer;
+        }
+        return null;
+    }
+
+    /**
+    * A pushed value waiting in a slot.
+    *
+    * @since 0.7.0
+    */
+    static final class Offer<E> {
+        final E value;
+
+        Offer(E value) { this.value = value; }
+    }
+}
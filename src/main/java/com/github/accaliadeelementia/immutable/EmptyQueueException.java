@@ -1 +1,3 @@
+package com.github.accaliadeelementia.immutable;
+
 public class EmptyQueueException extends RuntimeException {}
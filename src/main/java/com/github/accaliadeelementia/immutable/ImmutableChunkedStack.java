@@ -0,0 +1,420 @@
+package com.github.accaliadeelementia.immutable;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+* An implementation of an Immutable Stack that stores its elements in chunks.
+*
+* Behaves like {@link ImmutableStack}, but instead of one node per element
+* the elements are kept in arrays of slots, each chunk linking to the stack
+* below it. A version of the stack is a chunk and the number of its slots in
+* use. Chunks start with {@value #MIN_CHUNK_SIZE} slots and each chunk pushed
+* on a full one has twice as many, up to {@value #CHUNK_SIZE}, so small
+* stacks stay small.
+*
+* Pushing onto the newest version of a chunk fills the next free slot in
+* place. The slot is claimed atomically, and a claimed slot is never written
+* again, so every version stays valid. Pushing onto an older version, such
+* as one just popped, or onto the same version twice, copies the live slots
+* of its chunk, fewer than {@value #CHUNK_SIZE}, into a new chunk of the same
+* size instead. Alternating pushes and pops thus keeps the chunks full, and
+* popped values are not kept reachable by the new version.
+*
+* @author Accalia de Elementia <accalia.de.elementia@gmail.com>
+*
+* @version 0.7.0
+*/
+public final class ImmutableChunkedStack<E> implements ImmutableCollection<E> {
+
+    /**
+    * Number of slots in a chunk.
+    *
+    * @since 0.7.0
+    */
+    static final int CHUNK_SIZE = 32;
+
+    /**
+    * Number of slots in the first chunk of a stack.
+    *
+    * @since 0.7.0
+    */
+    static final int MIN_CHUNK_SIZE = 4;
+
+    /**
+    * The shared empty stack.
+    *
+    * @see #empty
+    */
+    private static final ImmutableChunkedStack<Object> EMPTY = new ImmutableChunkedStack<Object>(null, 0, 0);
+
+    private final Chunk<E> chunk;
+    private final int count;
+    private final int length;
+
+    /**
+    * Cached hash code, 0 until first computed.
+    *
+    * @see #hashCode
+    */
+    private int hash;
+
+    /**
+    * Create a new ImmutableChunkedStack.
+    *
+    * *PRIVATE* constructor.
+    *
+    * @param chunk The top chunk, null when empty
+    * @param count Slots of the top chunk in use by this version
+    * @param length The size of the stack
+    *
+    * @since 0.7.0
+    */
+    private ImmutableChunkedStack (Chunk<E> chunk, int count, int length) {
+        this.chunk = chunk;
+        this.count = count;
+        this.length = length;
+    }
+
+    /**
+    * Returns the shared empty ImmutableChunkedStack.
+    *
+    * @return The empty ImmutableChunkedStack
+    *
+    * @since 0.7.0
+    */
+    @SuppressWarnings("unchecked")
+    public static <E> ImmutableChunkedStack<E> empty() {
+        return (ImmutableChunkedStack<E>) EMPTY;
+    }
+
+    /**
+    * Create an ImmutableChunkedStack holding the given values.
+    *
+    * Pushes the values in argument order, so the last one ends on top.
+    *
+    * @param elements The values to push
+    * @return A new ImmutableChunkedStack holding the values
+    *
+    * @since 0.7.0
+    */
+    @SafeVarargs
+    public static <E> ImmutableChunkedStack<E> of(E... elements) {
+        return ImmutableChunkedStack.<E>empty().addAll(Arrays.asList(elements));
+    }
+
+    /**
+    * Returns the size of the stack.
+    *
+    * @since 0.7.0
+    */
+    public int size() { return length; }
+
+    /**
+    * Returns true if the stack contains no data, false otherwise.
+    *
+    * @since 0.7.0
+    */
+    public boolean isEmpty() { return length == 0; }
+
+    /**
+    * Push a data value on top of the stack.
+    *
+    * @param e Data value to push
+    * @return A new ImmutableChunkedStack with updated state
+    *
+    * @since 0.7.0
+    */
+    public ImmutableChunkedStack<E> push(E e) {
+        Chunk<E> top = chunk;
+        if (null == top) {
+            top = new Chunk<E>(this, MIN_CHUNK_SIZE, 0);
+        } else if (count == top.items.length) {
+            top = new Chunk<E>(this, Math.min(2 * count, CHUNK_SIZE), 0);
+        } else if (top.claim(count)) {
+            top.items[count] = e;
+            return new ImmutableChunkedStack<E>(top, count + 1, length + 1);
+        } else {
+            // Another version already uses the next slot, share the chunk below
+            Chunk<E> copy = new Chunk<E>(top.below, top.items.length, count);
+            System.arraycopy(top.items, 0, copy.items, 0, count);
+            copy.items[count] = e;
+            return new ImmutableChunkedStack<E>(copy, count + 1, length + 1);
+        }
+        top.items[0] = e;
+        return new ImmutableChunkedStack<E>(top, 1, length + 1);
+    }
+
+    /**
+    * Alias for push.
+    *
+    * @param e Data value to push
+    * @return A new ImmutableChunkedStack with updated state
+    *
+    * @see #push
+    *
+    * @since 0.7.0
+    */
+    public ImmutableChunkedStack<E> add(E e) { return push(e); }
+
+    /**
+    * Push a lot of items on the stack.
+    *
+    * Pushes in iteration order, so the last item ends on top.
+    *
+    * @param c An iterable object containing objects to push.
+    * @return A new ImmutableChunkedStack with updated state
+    *
+    * @see #push
+    *
+    * @since 0.7.0
+    */
+    public ImmutableChunkedStack<E> addAll(Iterable<? extends E> c) {
+        ImmutableChunkedStack<E> val = this;
+        for (E e: c) {
+            val = val.push(e);
+        }
+        return val;
+    }
+
+    /**
+    * Look at the top of the stack.
+    *
+    * @return The topmost data value
+    * @throws EmptyStackException if there is no data stored
+    *
+    * @since 0.7.0
+    */
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        if (0 == length) {
+            throw new EmptyStackException();
+        }
+        return (E) chunk.items[count - 1];
+    }
+
+    /**
+    * Remove the top of the stack.
+    *
+    * @return A new ImmutableChunkedStack with updated state
+    * @throws EmptyStackException if there is no data stored
+    *
+    * @since 0.7.0
+    */
+    public ImmutableChunkedStack<E> pop() {
+        if (0 == length) {
+            throw new EmptyStackException();
+        }
+        if (1 == count) {
+            return chunk.below;
+        }
+        return new ImmutableChunkedStack<E>(chunk, count - 1, length - 1);
+    }
+
+    /**
+    * Returns the hash code of the stack.
+    *
+    * Computed like {@link List#hashCode} over the elements, top first, on
+    * first use, then cached.
+    *
+    * @return The hash code of the stack
+    *
+    * @since 0.7.0
+    */
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = 1;
+            for (E e: this) {
+                h = 31 * h + Objects.hashCode(e);
+            }
+            hash = h;
+        }
+        return h;
+    }
+
+    /**
+    * Compares the stack with another ImmutableChunkedStack.
+    *
+    * Stacks are equal when they hold equal values in the same order.
+    *
+    * @param o The object to compare with
+    * @return True if o is an ImmutableChunkedStack with equal values
+    *
+    * @since 0.7.0
+    */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ImmutableChunkedStack)) {
+            return false;
+        }
+        ImmutableChunkedStack<?> s = (ImmutableChunkedStack<?>) o;
+        if (length != s.length) {
+            return false;
+        }
+        if (hash != 0 && s.hash != 0 && hash != s.hash) {
+            return false;
+        }
+        if (chunk == s.chunk && count == s.count) {
+            return true;
+        }
+        Iterator<?> it = s.iterator();
+        for (E e: this) {
+            if (!Objects.equals(e, it.next())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+    * Create an array of items to be found in the stack, top first.
+    *
+    * @return An array of elements to be found in the stack
+    *
+    * @since 0.7.0
+    */
+    public Object[] toArray() {
+        return toArray(new Object[length]);
+    }
+
+    /**
+    * Create an array of items to be found in the stack, top first.
+    *
+    * @param a The array to fill, if it is large enough
+    * @return An array of elements to be found in the stack
+    *
+    * @since 0.7.0
+    */
+    @SuppressWarnings("unchecked")
+    public <T> T[] toArray(T[] a) {
+        if (a.length < length) {
+            a = Arrays.copyOf(a, length);
+        } else if (a.length > length) {
+            a[length] = null;
+        }
+        int i = 0;
+        for (ImmutableChunkedStack<E> s = this; s.length > 0; s = s.chunk.below) {
+            Object[] items = s.chunk.items;
+            for (int j = s.count - 1; j >= 0; j -= 1) {
+                a[i] = (T) items[j];
+                i += 1;
+            }
+        }
+        return a;
+    }
+
+    /**
+    * Returns the number of chunks holding the stack.
+    *
+    * @since 0.7.0
+    */
+    int chunks() {
+        int n = 0;
+        for (ImmutableChunkedStack<E> s = this; s.length > 0; s = s.chunk.below) {
+            n += 1;
+        }
+        return n;
+    }
+
+    /**
+    * Create an iterator to iterate over the items in the stack, top first.
+    *
+    * @return an ImmutableChunkedStackIterator
+    *
+    * @since 0.7.0
+    */
+    public Iterator<E> iterator() { return new ImmutableChunkedStackIterator<E>(this); }
+
+    /**
+    * An iterator for ImmutableChunkedStacks
+    *
+    * Walks each chunk's array downwards, then moves to the chunk below.
+    *
+    * @author Accalia de Elementia <accalia.de.elementia@gmail.com>
+    * @version 0.7.0
+    */
+    private static final class ImmutableChunkedStackIterator<E> implements Iterator<E> {
+        private Object[] items;
+        private ImmutableChunkedStack<E> below;
+        private int index;
+
+        ImmutableChunkedStackIterator(ImmutableChunkedStack<E> stack) {
+            enter(stack);
+        }
+
+        private void enter(ImmutableChunkedStack<E> stack) {
+            if (stack.length == 0) {
+                items = null;
+                below = null;
+                index = 0;
+            } else {
+                items = stack.chunk.items;
+                below = stack.chunk.below;
+                index = stack.count;
+            }
+        }
+
+        public boolean hasNext() { return index > 0; }
+
+        @SuppressWarnings("unchecked")
+        public E next() {
+            if (index == 0) {
+                throw new NoSuchElementException();
+            }
+            index -= 1;
+            E e = (E) items[index];
+            if (index == 0) {
+                enter(below);
+            }
+            return e;
+        }
+
+        public void remove() { throw new UnsupportedOperationException(); }
+    }
+
+    /**
+    * An array of stack slots.
+    *
+    * Slots below {@link #claimed} belong to some version of the stack and
+    * are never written again.
+    *
+    * @since 0.7.0
+    */
+    private static final class Chunk<E> {
+        @SuppressWarnings("rawtypes")
+        private static final AtomicIntegerFieldUpdater<Chunk> CLAIMED =
+            AtomicIntegerFieldUpdater.newUpdater(Chunk.class, "claimed");
+
+        final Object[] items;
+        final ImmutableChunkedStack<E> below;
+        volatile int claimed;
+
+        /**
+        * Create a chunk on top of a stack, with the slots up to and including
+        * index claimed.
+        *
+        * @since 0.7.0
+        */
+        Chunk(ImmutableChunkedStack<E> below, int size, int index) {
+            this.items = new Object[size];
+            this.below = below;
+            this.claimed = index + 1;
+        }
+
+        /**
+        * Claim the slot at index for writing.
+        *
+        * @return true if no version has used the slot yet
+        *
+        * @since 0.7.0
+        */
+        boolean claim(int index) {
+            return claimed == index && CLAIMED.compareAndSet(this, index, index + 1);
+        }
+    }
+}
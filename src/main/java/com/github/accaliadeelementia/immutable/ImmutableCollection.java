@@ -0,0 +1,29 @@
+package com.github.accaliadeelementia.immutable;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+public interface ImmutableCollection<E> extends Iterable<E> {
+    public int hashCode();
+    public boolean equals(Object o);
+    public boolean isEmpty();
+    public int size();
+    //public Object[] toArray();
+    //public <T> T[] toArray(T[] a);
+    public ImmutableCollection<E> add(E e);
+    public ImmutableCollection<E> addAll(Iterable<? extends E> e);
+    public default Spliterator<E> spliterator() {
+        return Spliterators.spliterator(iterator(), size(), Spliterator.ORDERED | Spliterator.IMMUTABLE);
+    }
+    public default Stream<E> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+    public default Stream<E> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+    public default LazyView<E> lazy() {
+        return LazyView.of(this);
+    }
+}
@@ -0,0 +1,188 @@
+package com.github.accaliadeelementia.immutable;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+
+/**
+* A compact binary format for ImmutableQueues and ImmutableStacks.
+*
+* A collection is written as its size, a four byte int, followed by each
+* element in iteration order as written by the {@link ElementCodec}.
+* Reading a queue collects the elements into one array and lays the queue
+* out in a single pass, the same way {@link ImmutableQueue#copyOf} does.
+*
+* The ByteBuffer methods use the buffer's position and byte order is always
+* big endian, as with DataOutput. They throw BufferOverflowException or
+* EOFException when the buffer is too small.
+*
+* @author Accalia de Elementia <accalia.de.elementia@gmail.com>
+*
+* @version 0.7.0
+*/
+public final class ImmutableCollectionCodec<E> {
+    private final ElementCodec<E> codec;
+
+    /**
+    * Create a codec for collections of elements handled by codec.
+    *
+    * @param codec The element codec
+    *
+    * @since 0.7.0
+    */
+    public ImmutableCollectionCodec(ElementCodec<E> codec) {
+        if (null == codec) {
+            throw new NullPointerException();
+        }
+        this.codec = codec;
+    }
+
+    /**
+    * Write a queue, rightmost element first.
+    *
+    * @param out Where to write
+    * @param q The queue
+    * @throws IOException if out does
+    *
+    * @since 0.7.0
+    */
+    public void writeQueue(DataOutput out, ImmutableQueue<? extends E> q) throws IOException {
+        writeAll(out, q);
+    }
+
+    /**
+    * Read a queue written by {@link #writeQueue}.
+    *
+    * @param in Where to read from
+    * @return The queue
+    * @throws IOException if in does, or the size is invalid
+    *
+    * @since 0.7.0
+    */
+    public ImmutableQueue<E> readQueue(DataInput in) throws IOException {
+        Object[] a = readAll(in);
+        return ImmutableQueue.build(a, 0, a.length);
+    }
+
+    /**
+    * Write a stack, top element first.
+    *
+    * @param out Where to write
+    * @param s The stack
+    * @throws IOException if out does
+    *
+    * @since 0.7.0
+    */
+    public void writeStack(DataOutput out, ImmutableStack<? extends E> s) throws IOException {
+        writeAll(out, s);
+    }
+
+    /**
+    * Read a stack written by {@link #writeStack}.
+    *
+    * @param in Where to read from
+    * @return The stack
+    * @throws IOException if in does, or the size is invalid
+    *
+    * @since 0.7.0
+    */
+    @SuppressWarnings("unchecked")
+    public ImmutableStack<E> readStack(DataInput in) throws IOException {
+        Object[] a = readAll(in);
+        ImmutableStack<E> s = ImmutableStack.empty();
+        for (int i = a.length - 1; i >= 0; i -= 1) {
+            s = s.push((E) a[i]);
+        }
+        return s;
+    }
+
+    /**
+    * Write a queue into a ByteBuffer.
+    *
+    * @see #writeQueue(DataOutput, ImmutableQueue)
+    *
+    * @since 0.7.0
+    */
+    public void writeQueue(ByteBuffer out, ImmutableQueue<? extends E> q) throws IOException {
+        writeQueue(output(out), q);
+    }
+
+    /**
+    * Read a queue from a ByteBuffer.
+    *
+    * @see #readQueue(DataInput)
+    *
+    * @since 0.7.0
+    */
+    public ImmutableQueue<E> readQueue(ByteBuffer in) throws IOException {
+        return readQueue(input(in));
+    }
+
+    /**
+    * Write a stack into a ByteBuffer.
+    *
+    * @see #writeStack(DataOutput, ImmutableStack)
+    *
+    * @since 0.7.0
+    */
+    public void writeStack(ByteBuffer out, ImmutableStack<? extends E> s) throws IOException {
+        writeStack(output(out), s);
+    }
+
+    /**
+    * Read a stack from a ByteBuffer.
+    *
+    * @see #readStack(DataInput)
+    *
+    * @since 0.7.0
+    */
+    public ImmutableStack<E> readStack(ByteBuffer in) throws IOException {
+        return readStack(input(in));
+    }
+
+    private void writeAll(DataOutput out, ImmutableCollection<? extends E> c) throws IOException {
+        out.writeInt(c.size());
+        for (E e: c) {
+            codec.write(out, e);
+        }
+    }
+
+    private Object[] readAll(DataInput in) throws IOException {
+        int n = in.readInt();
+        if (n < 0) {
+            throw new StreamCorruptedException("Invalid size " + n);
+        }
+        // Grow as elements arrive rather than trusting n with a huge array
+        Object[] a = new Object[Math.min(n, 1 << 16)];
+        for (int i = 0; i < n; i += 1) {
+            if (i == a.length) {
+                a = java.util.Arrays.copyOf(a, (int) Math.min(n, 2L * a.length));
+            }
+            a[i] = codec.read(in);
+        }
+        return a;
+    }
+
+    static DataOutput output(final ByteBuffer buffer) {
+        return new DataOutputStream(new OutputStream() {
+            public void write(int b) { buffer.put((byte) b); }
+            public void write(byte[] b, int off, int len) { buffer.put(b, off, len); }
+        });
+    }
+
+    static DataInput input(final ByteBuffer buffer) {
+        return new DataInputStream(new InputStream() {
+            public int read() { return buffer.hasRemaining() ? buffer.get() & 0xff : -1; }
+            public int read(byte[] b, int off, int len) {
+                if (len == 0) {
+                    return 0;
+                }
+                if (!buffer.hasRemaining()) {
+                    return -1;
+                }
+                len = Math.min(len, buffer.remaining());
+                buffer.get(b, off, len);
+                return len;
+            }
+        });
+    }
+}
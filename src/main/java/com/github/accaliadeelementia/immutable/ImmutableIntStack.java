@@ -0,0 +1,100 @@
+package com.github.accaliadeelementia.immutable;
+
+import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+//ImmutableStack with int data, so pushing never boxes.
+//  Iterates top first, like ImmutableStack.
+public final class ImmutableIntStack {
+
+    private static final class ImmutableIntStackIterator implements PrimitiveIterator.OfInt {
+        private ImmutableIntStack collection;
+        private ImmutableIntStackIterator(ImmutableIntStack c) {
+            collection = c;
+        }
+        public boolean hasNext() {
+            return ! collection.isEmpty();
+        }
+        public int nextInt() {
+            if (collection.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            int e = collection.data;
+            collection = collection.tail;
+            return e;
+        }
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+    private static final ImmutableIntStack EMPTY = new ImmutableIntStack(null, 0, 0);
+
+    private final ImmutableIntStack tail;
+    private final int data;
+    private final int length;
+    private ImmutableIntStack (ImmutableIntStack c, int e, int length) {
+        tail = c;
+        data = e;
+        this.length = length;
+    }
+
+    public static ImmutableIntStack empty() {
+        return EMPTY;
+    }
+
+    //Pushes the elements in argument order, so the last one ends on top.
+    public static ImmutableIntStack of (int... elements) {
+        ImmutableIntStack val = EMPTY;
+        for (int i = 0; i < elements.length; i += 1) {
+            val = new ImmutableIntStack(val, elements[i], i + 1);
+        }
+        return val;
+    }
+
+    public ImmutableIntStack push (int e) {
+        return new ImmutableIntStack(this, e, length + 1);
+    }
+
+    public ImmutableIntStack pop () {
+        if (null == tail) {
+            throw new EmptyStackException();
+        }
+        return tail;
+    }
+
+    public int peekAsInt () {
+        if (null == tail) {
+            throw new EmptyStackException();
+        }
+        return data;
+    }
+
+    public boolean isEmpty() {
+        return null == tail;
+    }
+
+    public int size() {
+        return length;
+    }
+
+    //Top first, matching iteration order.
+    public int[] toArray() {
+        int[] a = new int[length];
+        ImmutableIntStack s = this;
+        for (int i = 0; i < a.length; i += 1) {
+            a[i] = s.data;
+            s = s.tail;
+        }
+        return a;
+    }
+
+    public PrimitiveIterator.OfInt iterator() {
+        return new ImmutableIntStackIterator(this);
+    }
+
+    public IntStream stream() {
+        return StreamSupport.intStream(
+            Spliterators.spliterator(iterator(), length, Spliterator.ORDERED | Spliterator.IMMUTABLE), false);
+    }
+}
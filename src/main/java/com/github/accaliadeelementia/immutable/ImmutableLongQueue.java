@@ -0,0 +1,540 @@
+package com.github.accaliadeelementia.immutable;
+
+import java.util.*;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+* An implementation of an Immutable Queue of longs.
+*
+* The same finger tree deque as {@link ImmutableQueue}, but the right and
+* left Quelettes keep their values in long fields, so values are never boxed.
+* The mid queue is an ordinary ImmutableQueue of those Quelettes.
+*
+* @author Accalia de Elementia <accalia.de.elementia@gmail.com>
+*
+* @version 0.7.0
+*/
+public final class ImmutableLongQueue {
+
+    /**
+    * The shared empty queue.
+    *
+    * @see #empty
+    */
+    private static final ImmutableLongQueue EMPTY = new ImmutableLongQueue(Zero.INSTANCE, null, Zero.INSTANCE, 0);
+
+    private final Quelette right;
+    private final ImmutableQueue<Quelette> mid;
+    private final Quelette left;
+
+    /**
+    * The size of the queue.
+    *
+    * @since 0.7.0
+    */
+    public final int length;
+
+    /**
+    * True if queue contains no data, false otherwise.
+    *
+    * @since 0.7.0
+    */
+    public final boolean empty;
+
+    /**
+    * Create a new ImmutableLongQueue.
+    *
+    * *PRIVATE* constructor.
+    *
+    * @param right The right Quelette
+    * @param mid The middle ImmutableQueue of Quelettes
+    * @param left The left Quelette
+    * @param length The size of the queue
+    *
+    * @since 0.7.0
+    */
+    private ImmutableLongQueue (Quelette right, ImmutableQueue<Quelette> mid, Quelette left, int length) {
+        this.right = right;
+        this.mid = mid;
+        this.left = left;
+        this.length = length;
+        empty = length == 0;
+    }
+
+    /**
+    * Returns the shared empty ImmutableLongQueue.
+    *
+    * @return The empty ImmutableLongQueue
+    *
+    * @since 0.7.0
+    */
+    public static ImmutableLongQueue empty() { return EMPTY; }
+
+    /**
+    * Create an ImmutableLongQueue holding the given values.
+    *
+    * Iteration order matches argument order.
+    *
+    * @param values The values to store
+    * @return A new ImmutableLongQueue holding the values
+    *
+    * @since 0.7.0
+    */
+    public static ImmutableLongQueue of(long... values) {
+        ImmutableLongQueue q = EMPTY;
+        for (long v: values) {
+            q = q.pushLeft(v);
+        }
+        return q;
+    }
+
+    /**
+    * Returns the size of the queue.
+    *
+    * @see #length
+    *
+    * @since 0.7.0
+    */
+    public int size() { return length; }
+
+    /**
+    * Returns true if the queue contains no data, false otherwise.
+    *
+    * @see #empty
+    *
+    * @since 0.7.0
+    */
+    public boolean isEmpty() { return empty; }
+
+    /**
+    * Push a data value to the right end of the queue.
+    *
+    * @param e Data value to push
+    * @return A new ImmutableLongQueue with updated state
+    *
+    * @since 0.7.0
+    */
+    public ImmutableLongQueue pushRight(long e) {
+        Quelette right = this.right;
+        ImmutableQueue<Quelette> mid = this.mid;
+        Quelette left = this.left;
+        if (right.isFull()) {
+            if (null != mid) {
+                mid = mid.pushRight(right);
+                right = new One(e);
+            } else if (left.isFull()) {
+                mid = ImmutableQueue.<Quelette>empty().pushRight(right);
+                right = new One(e);
+            } else {
+                left = left.pushRight(right.peekLeft());
+                right = right.popLeft().pushRight(e);
+            }
+        } else {
+            right = right.pushRight(e);
+        }
+        return new ImmutableLongQueue(right, mid, left, length + 1);
+    }
+
+    /**
+    * Push a data value to the left end of the queue.
+    *
+    * @param e Data value to push
+    * @return A new ImmutableLongQueue with updated state
+    *
+    * @since 0.7.0
+    */
+    public ImmutableLongQueue pushLeft(long e) {
+        Quelette right = this.right;
+        ImmutableQueue<Quelette> mid = this.mid;
+        Quelette left = this.left;
+        if (left.isFull()) {
+            if (null != mid) {
+                mid = mid.pushLeft(left);
+                left = new One(e);
+            } else if (right.isFull()) {
+                mid = ImmutableQueue.<Quelette>empty().pushLeft(left);
+                left = new One(e);
+            } else {
+                right = right.pushLeft(left.peekRight());
+                left = left.popRight().pushLeft(e);
+            }
+        } else {
+            left = left.pushLeft(e);
+        }
+        return new ImmutableLongQueue(right, mid, left, length + 1);
+    }
+
+    /**
+    * Alias for pushLeft
+    *
+    * @param e Data value to push
+    * @return A new ImmutableLongQueue with updated state
+    *
+    * @see #pushLeft
+    *
+    * @since 0.7.0
+    */
+    public ImmutableLongQueue push(long e) { return pushLeft(e); }
+
+    /**
+    * Look at the first element on the right.
+    *
+    * @return The rightmost data value
+    * @throws EmptyQueueException if there is no data stored
+    *
+    * @since 0.7.0
+    */
+    public long peekRightAsLong() {
+        if (empty) {
+            throw new EmptyQueueException();
+        }
+        if (right.size() == 0) {
+            if (null != mid) {
+                return mid.peekRight().peekRight();
+            }
+            return left.peekRight();
+        } else {
+            return right.peekRight();
+        }
+    }
+
+    /**
+    * Look at the first element on the left.
+    *
+    * @return The leftmost data value
+    * @throws EmptyQueueException if there is no data stored
+    *
+    * @since 0.7.0
+    */
+    public long peekLeftAsLong() {
+        if (empty) {
+            throw new EmptyQueueException();
+        }
+        if (left.size() == 0) {
+            if (null != mid) {
+                return mid.peekLeft().peekLeft();
+            }
+            return right.peekLeft();
+        } else {
+            return left.peekLeft();
+        }
+    }
+
+    /**
+    * Alias for peekRightAsLong.
+    *
+    * @return The rightmost data value
+    * @throws EmptyQueueException if there is no data stored
+    *
+    * @see #peekRightAsLong
+    *
+    * @since 0.7.0
+    */
+    public long peekAsLong() { return peekRightAsLong(); }
+
+    /**
+    * Remove the rightmost element.
+    *
+    * @return a new ImmutableLongQueue with updated state
+    * @throws EmptyQueueException if there is no data stored
+    *
+    * @since 0.7.0
+    */
+    public ImmutableLongQueue popRight() {
+        if (empty) {
+            throw new EmptyQueueException();
+        }
+        if (length == 1) {
+            return EMPTY;
+        }
+        Quelette right = this.right;
+        ImmutableQueue<Quelette> mid = this.mid;
+        Quelette left = this.left;
+        if (right.size() == 0) {
+            if (null == mid) {
+                left = left.popRight();
+            } else {
+                right = mid.peekRight();
+                mid = mid.popRight();
+                right = right.popRight();
+                if (mid.isEmpty()) {
+                    mid = null;
+                }
+            }
+        } else {
+            right = right.popRight();
+        }
+        return new ImmutableLongQueue(right, mid, left, length - 1);
+    }
+
+    /**
+    * Remove the leftmost element.
+    *
+    * @return a new ImmutableLongQueue with updated state
+    * @throws EmptyQueueException if there is no data stored
+    *
+    * @since 0.7.0
+    */
+    public ImmutableLongQueue popLeft() {
+        if (empty) {
+            throw new EmptyQueueException();
+        }
+        if (length == 1) {
+            return EMPTY;
+        }
+        Quelette right = this.right;
+        ImmutableQueue<Quelette> mid = this.mid;
+        Quelette left = this.left;
+        if (left.size() == 0) {
+            if (null == mid) {
+                right = right.popLeft();
+            } else {
+                left = mid.peekLeft();
+                mid = mid.popLeft();
+                left = left.popLeft();
+                if (mid.isEmpty()) {
+                    mid = null;
+                }
+            }
+        } else {
+            left = left.popLeft();
+        }
+        return new ImmutableLongQueue(right, mid, left, length - 1);
+    }
+
+    /**
+    * Alias for popRight.
+    *
+    * @return a new ImmutableLongQueue with updated state
+    * @throws EmptyQueueException if there is no data stored
+    *
+    * @see #popRight
+    *
+    * @since 0.7.0
+    */
+    public ImmutableLongQueue pop() { return popRight(); }
+
+    /**
+    * Create an array of the values in the queue, in iteration order.
+    *
+    * @return An array of the values in the queue
+    *
+    * @since 0.7.0
+    */
+    public long[] toArray() {
+        long[] a = new long[length];
+        PrimitiveIterator.OfLong it = iterator();
+        for (int i = 0; i < a.length; i += 1) {
+            a[i] = it.nextLong();
+        }
+        return a;
+    }
+
+    /**
+    * Create an iterator over the values in the queue, from the right.
+    *
+    * @return an ImmutableLongQueueIterator
+    *
+    * @since 0.7.0
+    */
+    public PrimitiveIterator.OfLong iterator() { return new ImmutableLongQueueIterator(this); }
+
+    /**
+    * Create a stream over the values in the queue, from the right.
+    *
+    * @return a sequential LongStream
+    *
+    * @since 0.7.0
+    */
+    public LongStream stream() {
+        return StreamSupport.longStream(
+            Spliterators.spliterator(iterator(), length, Spliterator.ORDERED | Spliterator.IMMUTABLE), false);
+    }
+
+    /**
+    * An iterator for ImmutableLongQueues
+    *
+    * Walks the Quelettes in place, like the ImmutableQueue iterator.
+    *
+    * @author Accalia de Elementia <accalia.de.elementia@gmail.com>
+    * @version 0.7.0
+    */
+    private static final class ImmutableLongQueueIterator implements PrimitiveIterator.OfLong {
+        private static final int RIGHT = 0;
+        private static final int MID = 1;
+        private static final int LEFT = 2;
+
+        private final ImmutableLongQueue queue;
+        private Iterator<Quelette> mids;
+        private Quelette current;
+        private int stage;
+        private int index;
+
+        ImmutableLongQueueIterator(ImmutableLongQueue queue) {
+            this.queue = queue;
+            current = queue.right;
+            stage = RIGHT;
+            index = 0;
+        }
+
+        public boolean hasNext() {
+            while (index == current.size()) {
+                if (LEFT == stage) {
+                    return false;
+                }
+                index = 0;
+                if (RIGHT == stage && null != queue.mid) {
+                    mids = queue.mid.iterator();
+                    stage = MID;
+                }
+                if (MID == stage && mids.hasNext()) {
+                    current = mids.next();
+                } else {
+                    mids = null;
+                    current = queue.left;
+                    stage = LEFT;
+                }
+            }
+            return true;
+        }
+
+        public long nextLong() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            long e = current.get(index);
+            index += 1;
+            return e;
+        }
+
+        public void remove() { throw new UnsupportedOperationException(); }
+    }
+
+    /**
+    * Base for finite sized quelettes of longs.
+    *
+    * Slot v1 is the rightmost, as in ImmutableQueue.
+    *
+    * @author Accalia de Elementia <accalia.de.elementia@gmail.com>
+    * @version 0.7.0
+    */
+    private abstract static class Quelette {
+        public abstract int size();
+        public abstract boolean isFull();
+        public abstract long peekLeft();
+        public abstract long peekRight();
+        public abstract Quelette pushLeft(long e);
+        public abstract Quelette pushRight(long e);
+        public abstract Quelette popLeft();
+        public abstract Quelette popRight();
+        public abstract long get(int index);
+    }
+    private static final class Zero extends Quelette {
+        private static final Zero INSTANCE = new Zero();
+        private Zero () {}
+        public int size() { return 0; }
+        public boolean isFull() { return false; }
+        public long peekLeft() { throw new EmptyQueueException(); }
+        public long peekRight() { throw new EmptyQueueException(); }
+        public Quelette pushLeft(long e) { return new One(e); }
+        public Quelette pushRight(long e) { return new One(e); }
+        public Quelette popLeft() { throw new EmptyQueueException(); }
+        public Quelette popRight() { throw new EmptyQueueException(); }
+        public long get(int index) { throw new IndexOutOfBoundsException(); }
+    }
+    private static final class One extends Quelette {
+        private final long v1;
+        public One (long v1) { this.v1 = v1; }
+        public int size () { return 1; }
+        public boolean isFull() { return false; }
+        public long peekRight() { return v1; }
+        public long peekLeft() { return v1; }
+        public Quelette pushRight(long e) { return new Two(e, v1); }
+        public Quelette pushLeft(long e) { return new Two(v1, e); }
+        public Quelette popRight() { return Zero.INSTANCE; }
+        public Quelette popLeft() { return Zero.INSTANCE; }
+        public long get(int index) {
+            if (index == 0) { return v1; }
+            throw new IndexOutOfBoundsException();
+        }
+    }
+    private static final class Two extends Quelette {
+        private final long v1;
+        private final long v2;
+        public Two(long v1, long v2) {
+            this.v1 = v1;
+            this.v2 = v2;
+        }
+        public int size () { return 2; }
+        public boolean isFull() { return false; }
+        public long peekRight() { return v1; }
+        public long peekLeft() { return v2; }
+        public Quelette pushRight(long e) { return new Three(e, v1, v2); }
+        public Quelette pushLeft(long e) { return new Three(v1, v2, e); }
+        public Quelette popRight() { return new One(v2); }
+        public Quelette popLeft() { return new One(v1); }
+        public long get(int index) {
+            switch (index) {
+                case 0: return v1;
+                case 1: return v2;
+                default: throw new IndexOutOfBoundsException();
+            }
+        }
+    }
+    private static final class Three extends Quelette {
+        private final long v1;
+        private final long v2;
+        private final long v3;
+        public Three(long v1, long v2, long v3) {
+            this.v1 = v1;
+            this.v2 = v2;
+            this.v3 = v3;
+        }
+        public int size () { return 3; }
+        public boolean isFull() { return false; }
+        public long peekRight() { return v1; }
+        public long peekLeft() { return v3; }
+        public Quelette pushRight(long e) { return new Four(e, v1, v2, v3); }
+        public Quelette pushLeft(long e) { return new Four(v1, v2, v3, e); }
+        public Quelette popRight() { return new Two(v2, v3); }
+        public Quelette popLeft() { return new Two(v1, v2); }
+        public long get(int index) {
+            switch (index) {
+                case 0: return v1;
+                case 1: return v2;
+                case 2: return v3;
+                default: throw new IndexOutOfBoundsException();
+            }
+        }
+    }
+    private static final class Four extends Quelette {
+        private final long v1;
+        private final long v2;
+        private final long v3;
+        private final long v4;
+        public Four(long v1, long v2, long v3, long v4) {
+            this.v1 = v1;
+            this.v2 = v2;
+            this.v3 = v3;
+            this.v4 = v4;
+        }
+        public int size () { return 4; }
+        public boolean isFull() { return true; }
+        public long peekRight() { return v1; }
+        public long peekLeft() { return v4; }
+        public Quelette pushRight(long e) { throw new EmptyQueueException(); }
+        public Quelette pushLeft(long e) { throw new EmptyQueueException(); }
+        public Quelette popRight() { return new Three(v2, v3, v4); }
+        public Quelette popLeft() { return new Three(v1, v2, v3); }
+        public long get(int index) {
+            switch (index) {
+                case 0: return v1;
+                case 1: return v2;
+                case 2: return v3;
+                case 3: return v4;
+                default: throw new IndexOutOfBoundsException();
+            }
+        }
+    }
+}
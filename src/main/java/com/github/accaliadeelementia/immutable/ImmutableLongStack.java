@@ -0,0 +1,100 @@
+package com.github.accaliadeelementia.immutable;
+
+import java.util.*;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+//ImmutableStack with long data, so pushing never boxes.
+//  Iterates top first, like ImmutableStack.
+public final class ImmutableLongStack {
+
+    private static final class ImmutableLongStackIterator implements PrimitiveIterator.OfLong {
+        private ImmutableLongStack collection;
+        private ImmutableLongStackIterator(ImmutableLongStack c) {
+            collection = c;
+        }
+        public boolean hasNext() {
+            return ! collection.isEmpty();
+        }
+        public long nextLong() {
+            if (collection.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            long e = collection.data;
+            collection = collection.tail;
+            return e;
+        }
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+    private static final ImmutableLongStack EMPTY = new ImmutableLongStack(null, 0, 0);
+
+    private final ImmutableLongStack tail;
+    private final long data;
+    private final int length;
+    private ImmutableLongStack (ImmutableLongStack c, long e, int length) {
+        tail = c;
+        data = e;
+        this.length = length;
+    }
+
+    public static ImmutableLongStack empty() {
+        return EMPTY;
+    }
+
+    //Pushes the elements in argument order, so the last one ends on top.
+    public static ImmutableLongStack of (long... elements) {
+        ImmutableLongStack val = EMPTY;
+        for (int i = 0; i < elements.length; i += 1) {
+            val = new ImmutableLongStack(val, elements[i], i + 1);
+        }
+        return val;
+    }
+
+    public ImmutableLongStack push (long e) {
+        return new ImmutableLongStack(this, e, length + 1);
+    }
+
+    public ImmutableLongStack pop () {
+        if (null == tail) {
+            throw new EmptyStackException();
+        }
+        return tail;
+    }
+
+    public long peekAsLong () {
+        if (null == tail) {
+            throw new EmptyStackException();
+        }
+        return data;
+    }
+
+    public boolean isEmpty() {
+        return null == tail;
+    }
+
+    public int size() {
+        return length;
+    }
+
+    //Top first, matching iteration order.
+    public long[] toArray() {
+        long[] a = new long[length];
+        ImmutableLongStack s = this;
+        for (int i = 0; i < a.length; i += 1) {
+            a[i] = s.data;
+            s = s.tail;
+        }
+        return a;
+    }
+
+    public PrimitiveIterator.OfLong iterator() {
+        return new ImmutableLongStackIterator(this);
+    }
+
+    public LongStream stream() {
+        return StreamSupport.longStream(
+            Spliterators.spliterator(iterator(), length, Spliterator.ORDERED | Spliterator.IMMUTABLE), false);
+    }
+}
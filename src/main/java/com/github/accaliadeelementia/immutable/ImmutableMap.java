@@ -0,0 +1,686 @@
+package com.github.accaliadeelementia.immutable;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+* An implementation of an Immutable Map.
+*
+* A Compressed Hash-Array Mapped Prefix-tree (CHAMP): each node consumes
+* five bits of a key's hash and keeps two bitmaps, one for the entries it
+* holds inline and one for its sub nodes, with both packed into a single
+* array. Updates copy the path from the root to the changed node and share
+* everything else, so they take O(log32 n) time and allocation. Keys whose
+* whole hashes collide share a collision node at the bottom of the trie.
+*
+* Removal keeps the trie canonical: a sub node left holding one entry is
+* pulled back into its parent, so equal maps have equal shapes no matter
+* the order of updates.
+*
+* Null keys and values are allowed. {@link #get} returns null both for
+* missing keys and keys mapped to null; use {@link #containsKey} to tell
+* them apart.
+*
+* @author Accalia de Elementia <accalia.de.elementia@gmail.com>
+*
+* @version 0.7.0
+*/
+public final class ImmutableMap<K, V> implements ImmutableCollection<Map.Entry<K, V>> {
+
+    private static final int BITS = 5;
+    private static final int HASH_BITS = 32;
+    private static final Object NOT_FOUND = new Object();
+
+    /**
+    * The shared empty map.
+    *
+    * @see #empty
+    */
+    private static final ImmutableMap<Object, Object> EMPTY = new ImmutableMap<Object, Object>(BitmapNode.EMPTY, 0);
+
+    private final Node root;
+    private final int length;
+
+    /**
+    * Cached hash code, 0 until first computed.
+    *
+    * @see #hashCode
+    */
+    private int hash;
+
+    /**
+    * Create a new ImmutableMap.
+    *
+    * *PRIVATE* constructor.
+    *
+    * @param root The root node of the trie
+    * @param length The number of entries
+    *
+    * @since 0.7.0
+    */
+    private ImmutableMap(Node root, int length) {
+        this.root = root;
+        this.length = length;
+    }
+
+    /**
+    * Returns the shared empty ImmutableMap.
+    *
+    * @return The empty ImmutableMap
+    *
+    * @since 0.7.0
+    */
+    @SuppressWarnings("unchecked")
+    public static <K, V> ImmutableMap<K, V> empty() {
+        return (ImmutableMap<K, V>) EMPTY;
+    }
+
+    /**
+    * Create an ImmutableMap holding the entries of a Map.
+    *
+    * @param m The entries to store
+    * @return A new ImmutableMap holding the entries
+    *
+    * @since 0.7.0
+    */
+    public static <K, V> ImmutableMap<K, V> copyOf(Map<? extends K, ? extends V> m) {
+        return ImmutableMap.<K, V>empty().putAll(m);
+    }
+
+    /**
+    * Returns the number of entries in the map.
+    *
+    * @since 0.7.0
+    */
+    public int size() { return length; }
+
+    /**
+    * Returns true if the map contains no entries, false otherwise.
+    *
+    * @since 0.7.0
+    */
+    public boolean isEmpty() { return length == 0; }
+
+    /**
+    * Look up the value for a key.
+    *
+    * @param key The key to look up
+    * @return The value for key, or null if there is none
+    *
+    * @since 0.7.0
+    */
+    public V get(Object key) {
+        return getOrDefault(key, null);
+    }
+
+    /**
+    * Look up the value for a key.
+    *
+    * @param key The key to look up
+    * @param defaultValue The value to return if key is missing
+    * @return The value for key, or defaultValue if there is none
+    *
+    * @since 0.7.0
+    */
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(Object key, V defaultValue) {
+        Object v = root.find(key, hash(key), 0);
+        return v == NOT_FOUND ? defaultValue : (V) v;
+    }
+
+    /**
+    * Returns true if the map holds an entry for key.
+    *
+    * @param key The key to look for
+    * @return true if key is in the map
+    *
+    * @since 0.7.0
+    */
+    public boolean containsKey(Object key) {
+        return root.find(key, hash(key), 0) != NOT_FOUND;
+    }
+
+    /**
+    * Map a key to a value.
+    *
+    * @param key The key
+    * @param value The value
+    * @return A new ImmutableMap with updated state, or this map if key was
+    *         already mapped to that very value
+    *
+    * @since 0.7.0
+    */
+    public ImmutableMap<K, V> put(K key, V value) {
+        Change change = new Change();
+        Node r = root.put(key, value, hash(key), 0, change);
+        if (r == root) {
+            return this;
+        }
+        return new ImmutableMap<K, V>(r, length + change.delta);
+    }
+
+    /**
+    * Remove the entry for a key.
+    *
+    * @param key The key to remove
+    * @return A new ImmutableMap with updated state, or this map if key was
+    *         missing
+    *
+    * @since 0.7.0
+    */
+    public ImmutableMap<K, V> remove(Object key) {
+        Change change = new Change();
+        Node r = root.remove(key, hash(key), 0, change);
+        if (r == root) {
+            return this;
+        }
+        if (length == 1) {
+            return empty();
+        }
+        return new ImmutableMap<K, V>(r, length + change.delta);
+    }
+
+    /**
+    * Add an entry to the map.
+    *
+    * @param e The entry
+    * @return A new ImmutableMap with updated state
+    *
+    * @see #put
+    *
+    * @since 0.7.0
+    */
+    public ImmutableMap<K, V> add(Map.Entry<K, V> e) {
+        return put(e.getKey(), e.getValue());
+    }
+
+    /**
+    * Add a lot of entries to the map.
+    *
+    * @param c An iterable object containing entries to add
+    * @return A new ImmutableMap with updated state
+    *
+    * @see #put
+    *
+    * @since 0.7.0
+    */
+    public ImmutableMap<K, V> addAll(Iterable<? extends Map.Entry<K, V>> c) {
+        ImmutableMap<K, V> val = this;
+        for (Map.Entry<K, V> e: c) {
+            val = val.put(e.getKey(), e.getValue());
+        }
+        return val;
+    }
+
+    /**
+    * Add all the entries of a Map.
+    *
+    * @param m The entries to add
+    * @return A new ImmutableMap with updated state
+    *
+    * @see #put
+    *
+    * @since 0.7.0
+    */
+    public ImmutableMap<K, V> putAll(Map<? extends K, ? extends V> m) {
+        ImmutableMap<K, V> val = this;
+        for (Map.Entry<? extends K, ? extends V> e: m.entrySet()) {
+            val = val.put(e.getKey(), e.getValue());
+        }
+        return val;
+    }
+
+    /**
+    * Call action for every entry, without creating Entry objects.
+    *
+    * @param action Receives each key and value
+    *
+    * @since 0.7.0
+    */
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        Objects.requireNonNull(action);
+        for (NodeIterator it = new NodeIterator(root); it.advance(); ) {
+            action.accept((K) it.key(), (V) it.value());
+        }
+    }
+
+    /**
+    * Create an iterator over the entries of the map, in no particular order.
+    *
+    * @return an iterator of immutable entries
+    *
+    * @since 0.7.0
+    */
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new Iterator<Map.Entry<K, V>>() {
+            private final NodeIterator it = new NodeIterator(root);
+            public boolean hasNext() { return it.hasNext(); }
+            @SuppressWarnings("unchecked")
+            public Map.Entry<K, V> next() {
+                it.next();
+                return new AbstractMap.SimpleImmutableEntry<K, V>((K) it.key(), (V) it.value());
+            }
+        };
+    }
+
+    /**
+    * Create an iterator over the keys of the map, in no particular order.
+    *
+    * @return an iterator of keys
+    *
+    * @since 0.7.0
+    */
+    public Iterator<K> keyIterator() {
+        return new Iterator<K>() {
+            private final NodeIterator it = new NodeIterator(root);
+            public boolean hasNext() { return it.hasNext(); }
+            @SuppressWarnings("unchecked")
+            public K next() {
+                it.next();
+                return (K) it.key();
+            }
+        };
+    }
+
+    /**
+    * Returns the hash code of the map.
+    *
+    * Computed like {@link Map#hashCode} on first use, then cached.
+    *
+    * @return The hash code of the map
+    *
+    * @since 0.7.0
+    */
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0 && length > 0) {
+            for (NodeIterator it = new NodeIterator(root); it.advance(); ) {
+                h += Objects.hashCode(it.key()) ^ Objects.hashCode(it.value());
+            }
+            hash = h;
+        }
+        return h;
+    }
+
+    /**
+    * Compares the map with another ImmutableMap.
+    *
+    * Maps are equal when they hold equal values for the same keys.
+    *
+    * @param o The object to compare with
+    * @return True if o is an ImmutableMap with equal entries
+    *
+    * @since 0.7.0
+    */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ImmutableMap)) {
+            return false;
+        }
+        ImmutableMap<?, ?> m = (ImmutableMap<?, ?>) o;
+        if (length != m.length || hashCode() != m.hashCode()) {
+            return false;
+        }
+        for (NodeIterator it = new NodeIterator(root); it.advance(); ) {
+            Object v = m.root.find(it.key(), hash(it.key()), 0);
+            if (v == NOT_FOUND || !Objects.equals(v, it.value())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+    * Spread the higher bits of a key's hash code into the lower ones, which
+    * pick the slots near the root.
+    *
+    * @since 0.7.0
+    */
+    static int hash(Object key) {
+        int h = Objects.hashCode(key);
+        return h ^ (h >>> 16);
+    }
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & 31);
+    }
+
+    private static int index(int map, int bit) {
+        return Integer.bitCount(map & (bit - 1));
+    }
+
+    /**
+    * Records how an update changed the number of entries.
+    *
+    * @since 0.7.0
+    */
+    private static final class Change {
+        int delta;
+    }
+
+    /**
+    * A trie node, holding entries inline and sub nodes.
+    *
+    * @since 0.7.0
+    */
+    private abstract static class Node {
+        /**
+        * @return the value for key, or NOT_FOUND.
+        */
+        abstract Object find(Object key, int hash, int shift);
+        abstract Node put(Object key, Object value, int hash, int shift, Change change);
+        abstract Node remove(Object key, int hash, int shift, Change change);
+        abstract int dataArity();
+        abstract int nodeArity();
+        abstract Object keyAt(int index);
+        abstract Object valueAt(int index);
+        abstract Node nodeAt(int index);
+
+        /**
+        * @return true if the node holds exactly one entry and no sub nodes,
+        *         so its parent can hold the entry inline instead.
+        */
+        boolean isSingleEntry() { return nodeArity() == 0 && dataArity() == 1; }
+    }
+
+    /**
+    * A node indexed by five bits of the hash.
+    *
+    * content holds the inline entries as key, value pairs in bit order,
+    * followed by the sub nodes in reverse bit order, so both can grow
+    * towards the middle.
+    *
+    * @since 0.7.0
+    */
+    private static final class BitmapNode extends Node {
+        static final BitmapNode EMPTY = new BitmapNode(0, 0, new Object[0]);
+
+        final int dataMap;
+        final int nodeMap;
+        final Object[] content;
+
+        BitmapNode(int dataMap, int nodeMap, Object[] content) {
+            this.dataMap = dataMap;
+            this.nodeMap = nodeMap;
+            this.content = content;
+        }
+
+        int dataArity() { return Integer.bitCount(dataMap); }
+        int nodeArity() { return Integer.bitCount(nodeMap); }
+        Object keyAt(int index) { return content[2 * index]; }
+        Object valueAt(int index) { return content[2 * index + 1]; }
+        Node nodeAt(int index) { return (Node) content[content.length - 1 - index]; }
+
+        Object find(Object key, int hash, int shift) {
+            int bit = bit(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int i = index(dataMap, bit);
+                return Objects.equals(content[2 * i], key) ? content[2 * i + 1] : NOT_FOUND;
+            }
+            if ((nodeMap & bit) != 0) {
+                return nodeAt(index(nodeMap, bit)).find(key, hash, shift + BITS);
+            }
+            return NOT_FOUND;
+        }
+
+        Node put(Object key, Object value, int hash, int shift, Change change) {
+            int bit = bit(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int i = index(dataMap, bit);
+                Object k = content[2 * i];
+                if (Objects.equals(k, key)) {
+                    if (content[2 * i + 1] == value) {
+                        return this;
+                    }
+                    Object[] c = content.clone();
+                    c[2 * i + 1] = value;
+                    return new BitmapNode(dataMap, nodeMap, c);
+                }
+                Node sub = merge(k, content[2 * i + 1], ImmutableMap.hash(k), key, value, hash, shift + BITS);
+                change.delta = 1;
+                return inlineToNode(bit, i, sub);
+            }
+            if ((nodeMap & bit) != 0) {
+                int i = index(nodeMap, bit);
+                Node sub = nodeAt(i);
+                Node n = sub.put(key, value, hash, shift + BITS, change);
+                if (n == sub) {
+                    return this;
+                }
+                Object[] c = content.clone();
+                c[c.length - 1 - i] = n;
+                return new BitmapNode(dataMap, nodeMap, c);
+            }
+            change.delta = 1;
+            int i = index(dataMap, bit);
+            Object[] c = new Object[content.length + 2];
+            System.arraycopy(content, 0, c, 0, 2 * i);
+            c[2 * i] = key;
+            c[2 * i + 1] = value;
+            System.arraycopy(content, 2 * i, c, 2 * i + 2, content.length - 2 * i);
+            return new BitmapNode(dataMap | bit, nodeMap, c);
+        }
+
+        Node remove(Object key, int hash, int shift, Change change) {
+            int bit = bit(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int i = index(dataMap, bit);
+                if (!Objects.equals(content[2 * i], key)) {
+                    return this;
+                }
+                change.delta = -1;
+                if (shift > 0 && nodeMap == 0 && dataArity() == 2) {
+                    // Left with one entry, for the parent to hold inline. The
+                    // bit is for the root, in case it is pulled up that far.
+                    int other = 1 - i;
+                    return new BitmapNode(bit(hash, 0), 0, new Object[] {content[2 * other], content[2 * other + 1]});
+                }
+                Object[] c = new Object[content.length - 2];
+                System.arraycopy(content, 0, c, 0, 2 * i);
+                System.arraycopy(content, 2 * i + 2, c, 2 * i, content.length - 2 * i - 2);
+                return new BitmapNode(dataMap ^ bit, nodeMap, c);
+            }
+            if ((nodeMap & bit) != 0) {
+                int i = index(nodeMap, bit);
+                Node sub = nodeAt(i);
+                Node n = sub.remove(key, hash, shift + BITS, change);
+                if (n == sub) {
+                    return this;
+                }
+                if (n.isSingleEntry()) {
+                    if (dataMap == 0 && nodeArity() == 1) {
+                        return n;
+                    }
+                    return nodeToInline(bit, i, n.keyAt(0), n.valueAt(0));
+                }
+                Object[] c = content.clone();
+                c[c.length - 1 - i] = n;
+                return new BitmapNode(dataMap, nodeMap, c);
+            }
+            return this;
+        }
+
+        /**
+        * Replace the inline entry at data index i with a sub node.
+        */
+        private Node inlineToNode(int bit, int i, Node sub) {
+            int dataEnd = 2 * dataArity();
+            int k = index(nodeMap, bit);
+            int nodes = nodeArity();
+            Object[] c = new Object[content.length - 1];
+            System.arraycopy(content, 0, c, 0, 2 * i);
+            System.arraycopy(content, 2 * i + 2, c, 2 * i, dataEnd - 2 * i - 2);
+            System.arraycopy(content, dataEnd, c, dataEnd - 2, nodes - k);
+            c[c.length - 1 - k] = sub;
+            System.arraycopy(content, content.length - k, c, c.length - k, k);
+            return new BitmapNode(dataMap ^ bit, nodeMap | bit, c);
+        }
+
+        /**
+        * Replace the sub node at node index k with an inline entry.
+        */
+        private Node nodeToInline(int bit, int k, Object key, Object value) {
+            int dataEnd = 2 * dataArity();
+            int i = index(dataMap, bit);
+            int nodes = nodeArity();
+            Object[] c = new Object[content.length + 1];
+            System.arraycopy(content, 0, c, 0, 2 * i);
+            c[2 * i] = key;
+            c[2 * i + 1] = value;
+            System.arraycopy(content, 2 * i, c, 2 * i + 2, dataEnd - 2 * i);
+            System.arraycopy(content, dataEnd, c, dataEnd + 2, nodes - 1 - k);
+            System.arraycopy(content, content.length - k, c, c.length - k, k);
+            return new BitmapNode(dataMap | bit, nodeMap ^ bit, c);
+        }
+
+        /**
+        * Build the smallest sub trie holding two entries.
+        */
+        private static Node merge(Object k1, Object v1, int h1, Object k2, Object v2, int h2, int shift) {
+            if (shift >= HASH_BITS) {
+                return new CollisionNode(h1, new Object[] {k1, v1, k2, v2});
+            }
+            int b1 = bit(h1, shift);
+            int b2 = bit(h2, shift);
+            if (b1 != b2) {
+                Object[] c = Integer.compareUnsigned(b1, b2) < 0
+                    ? new Object[] {k1, v1, k2, v2}
+                    : new Object[] {k2, v2, k1, v1};
+                return new BitmapNode(b1 | b2, 0, c);
+            }
+            return new BitmapNode(0, b1, new Object[] {merge(k1, v1, h1, k2, v2, h2, shift + BITS)});
+        }
+    }
+
+    /**
+    * A node for keys whose whole hashes are equal, searched linearly.
+    *
+    * @since 0.7.0
+    */
+    private static final class CollisionNode extends Node {
+        final int hash;
+        final Object[] content;
+
+        CollisionNode(int hash, Object[] content) {
+            this.hash = hash;
+            this.content = content;
+        }
+
+        int dataArity() { return content.length / 2; }
+        int nodeArity() { return 0; }
+        Object keyAt(int index) { return content[2 * index]; }
+        Object valueAt(int index) { return content[2 * index + 1]; }
+        Node nodeAt(int index) { throw new IndexOutOfBoundsException(); }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < content.length; i += 2) {
+                if (Objects.equals(content[i], key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        Object find(Object key, int hash, int shift) {
+            int i = hash == this.hash ? indexOf(key) : -1;
+            return i < 0 ? NOT_FOUND : content[i + 1];
+        }
+
+        Node put(Object key, Object value, int hash, int shift, Change change) {
+            int i = indexOf(key);
+            if (i >= 0) {
+                if (content[i + 1] == value) {
+                    return this;
+                }
+                Object[] c = content.clone();
+                c[i + 1] = value;
+                return new CollisionNode(hash, c);
+            }
+            change.delta = 1;
+            Object[] c = Arrays.copyOf(content, content.length + 2);
+            c[content.length] = key;
+            c[content.length + 1] = value;
+            return new CollisionNode(hash, c);
+        }
+
+        Node remove(Object key, int hash, int shift, Change change) {
+            int i = hash == this.hash ? indexOf(key) : -1;
+            if (i < 0) {
+                return this;
+            }
+            change.delta = -1;
+            if (content.length == 4) {
+                int other = 2 - i;
+                return new BitmapNode(bit(hash, 0), 0, new Object[] {content[other], content[other + 1]});
+            }
+            Object[] c = new Object[content.length - 2];
+            System.arraycopy(content, 0, c, 0, i);
+            System.arraycopy(content, i + 2, c, i, content.length - i - 2);
+            return new CollisionNode(hash, c);
+        }
+    }
+
+    /**
+    * Walks the entries of a trie depth first, keeping the nodes still to
+    * visit on a stack.
+    *
+    * @since 0.7.0
+    */
+    private static final class NodeIterator {
+        private final ArrayDeque<Node> pending = new ArrayDeque<Node>();
+        private Node current;
+        private int index;
+
+        NodeIterator(Node root) {
+            enter(root);
+            index = -1;
+        }
+
+        private void enter(Node n) {
+            current = n;
+            index = 0;
+            for (int i = n.nodeArity() - 1; i >= 0; i -= 1) {
+                pending.push(n.nodeAt(i));
+            }
+        }
+
+        boolean hasNext() {
+            while (index + 1 >= current.dataArity()) {
+                if (pending.isEmpty()) {
+                    return false;
+                }
+                enter(pending.pop());
+                index = -1;
+            }
+            return true;
+        }
+
+        void next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            index += 1;
+        }
+
+        /**
+        * Move to the next entry.
+        *
+        * @return false if there is none
+        */
+        boolean advance() {
+            if (!hasNext()) {
+                return false;
+            }
+            index += 1;
+            return true;
+        }
+
+        Object key() { return current.keyAt(index); }
+        Object value() { return current.valueAt(index); }
+    }
+}
@@ -0,0 +1,486 @@
+package com.github.accaliadeelementia.immutable;
+
+import java.util.*;
+
+/**
+* An implementation of an Immutable Priority Queue.
+*
+* The values live in a skew binomial heap: a list of heap ordered trees of
+* increasing rank, where at most the two smallest trees share a rank.
+* Inserting links those two trees with the new value, touching no more than
+* three nodes, so push takes O(1) time in the worst case, and the lowest
+* value is cached so peek does too. Pop and merge take O(log n) time.
+*
+* Values are ordered by a {@link Comparator}, or by their natural ordering
+* when none is given. Values that compare equal pop in no particular order.
+*
+* @author Accalia de Elementia <accalia.de.elementia@gmail.com>
+*
+* @version 0.7.0
+*/
+public final class ImmutablePriorityQueue<E> implements ImmutableCollection<E> {
+
+    /**
+    * The shared empty priority queue with natural ordering.
+    *
+    * @see #empty
+    */
+    private static final ImmutablePriorityQueue<Object> EMPTY = new ImmutablePriorityQueue<Object>(null, null, 0, null);
+
+    private final Comparator<? super E> comparator;
+    private final Trees<E> trees;
+    private final int length;
+    private final E min;
+
+    /**
+    * Cached hash code, 0 until first computed.
+    *
+    * @see #hashCode
+    */
+    private int hash;
+
+    /**
+    * Create a new ImmutablePriorityQueue.
+    *
+    * *PRIVATE* constructor.
+    *
+    * @param comparator The ordering of the values, null for natural ordering
+    * @param trees The trees of the heap, in increasing rank
+    * @param length The number of values
+    * @param min The lowest value
+    *
+    * @since 0.7.0
+    */
+    private ImmutablePriorityQueue(Comparator<? super E> comparator, Trees<E> trees, int length, E min) {
+        this.comparator = comparator;
+        this.trees = trees;
+        this.length = length;
+        this.min = min;
+    }
+
+    /**
+    * Returns the shared empty ImmutablePriorityQueue, ordered by the natural
+    * ordering of its values.
+    *
+    * @return The empty ImmutablePriorityQueue
+    *
+    * @since 0.7.0
+    */
+    @SuppressWarnings("unchecked")
+    public static <E extends Comparable<? super E>> ImmutablePriorityQueue<E> empty() {
+        return (ImmutablePriorityQueue<E>) (ImmutablePriorityQueue<?>) EMPTY;
+    }
+
+    /**
+    * Returns an empty ImmutablePriorityQueue ordered by a Comparator.
+    *
+    * @param comparator The ordering of the values, null for natural ordering
+    * @return An empty ImmutablePriorityQueue
+    *
+    * @since 0.7.0
+    */
+    @SuppressWarnings("unchecked")
+    public static <E> ImmutablePriorityQueue<E> empty(Comparator<? super E> comparator) {
+        if (null == comparator) {
+            return (ImmutablePriorityQueue<E>) EMPTY;
+        }
+        return new ImmutablePriorityQueue<E>(comparator, null, 0, null);
+    }
+
+    /**
+    * Create an ImmutablePriorityQueue holding the given values, in natural
+    * ordering.
+    *
+    * @param elements The values to store
+    * @return A new ImmutablePriorityQueue holding the values
+    *
+    * @since 0.7.0
+    */
+    @SafeVarargs
+    public static <E extends Comparable<? super E>> ImmutablePriorityQueue<E> of(E... elements) {
+        return ImmutablePriorityQueue.<E>empty().addAll(Arrays.asList(elements));
+    }
+
+    /**
+    * Returns the comparator ordering the values, null for natural ordering.
+    *
+    * @since 0.7.0
+    */
+    public Comparator<? super E> comparator() { return comparator; }
+
+    /**
+    * Returns the size of the priority queue.
+    *
+    * @since 0.7.0
+    */
+    public int size() { return length; }
+
+    /**
+    * Returns true if the priority queue contains no data, false otherwise.
+    *
+    * @since 0.7.0
+    */
+    public boolean isEmpty() { return length == 0; }
+
+    @SuppressWarnings("unchecked")
+    private int compare(E a, E b) {
+        if (null == comparator) {
+            return ((Comparable<? super E>) a).compareTo(b);
+        }
+        return comparator.compare(a, b);
+    }
+
+    /**
+    * Peek at the lowest value.
+    *
+    * @return The lowest value
+    * @throws EmptyQueueException if the priority queue is empty
+    *
+    * @since 0.7.0
+    */
+    public E peek() {
+        if (isEmpty()) {
+            throw new EmptyQueueException();
+        }
+        return min;
+    }
+
+    /**
+    * Add a value to the priority queue.
+    *
+    * @param e Data value to add
+    * @return A new ImmutablePriorityQueue with updated state
+    *
+    * @since 0.7.0
+    */
+    public ImmutablePriorityQueue<E> push(E e) {
+        if (isEmpty()) {
+            compare(e, e);
+            return new ImmutablePriorityQueue<E>(comparator, new Trees<E>(new Tree<E>(e), null), 1, e);
+        }
+        Trees<E> ts;
+        if (null != trees.tail && trees.head.rank == trees.tail.head.rank) {
+            ts = new Trees<E>(skewLink(e, trees.head, trees.tail.head), trees.tail.tail);
+        } else {
+            ts = new Trees<E>(new Tree<E>(e), trees);
+        }
+        return new ImmutablePriorityQueue<E>(comparator, ts, length + 1, compare(e, min) < 0 ? e : min);
+    }
+
+    /**
+    * Alias for push.
+    *
+    * @param e Data value to add
+    * @return A new ImmutablePriorityQueue with updated state
+    *
+    * @see #push
+    *
+    * @since 0.7.0
+    */
+    public ImmutablePriorityQueue<E> add(E e) { return push(e); }
+
+    /**
+    * Add a lot of values.
+    *
+    * @param c An iterable object containing values to add
+    * @return A new ImmutablePriorityQueue with updated state
+    *
+    * @see #push
+    *
+    * @since 0.7.0
+    */
+    public ImmutablePriorityQueue<E> addAll(Iterable<? extends E> c) {
+        ImmutablePriorityQueue<E> val = this;
+        for (E e: c) {
+            val = val.push(e);
+        }
+        return val;
+    }
+
+    /**
+    * Remove the lowest value.
+    *
+    * @return A new ImmutablePriorityQueue with updated state
+    * @throws EmptyQueueException if the priority queue is empty
+    *
+    * @since 0.7.0
+    */
+    public ImmutablePriorityQueue<E> pop() {
+        if (isEmpty()) {
+            throw new EmptyQueueException();
+        }
+        if (length == 1) {
+            return empty(comparator);
+        }
+        Tree<E> lowest = trees.head;
+        for (Trees<E> t = trees.tail; null != t; t = t.tail) {
+            if (compare(t.head.root, lowest.root) < 0) {
+                lowest = t.head;
+            }
+        }
+        Trees<E> rest = null;
+        for (Trees<E> t = trees; null != t; t = t.tail) {
+            if (t.head != lowest) {
+                rest = new Trees<E>(t.head, rest);
+            }
+        }
+        // The children are in decreasing rank, as are the remaining trees now
+        Trees<E> ts = merge(normalize(reverse(lowest.children)), normalize(reverse(rest)));
+        for (Values<E> v = lowest.values; null != v; v = v.tail) {
+            ts = insert(v.head, ts);
+        }
+        return new ImmutablePriorityQueue<E>(comparator, ts, length - 1, lowest(ts));
+    }
+
+    /**
+    * Merge another priority queue with the same ordering into this one.
+    *
+    * @param q The priority queue to merge
+    * @return A new ImmutablePriorityQueue holding the values of both
+    * @throws IllegalArgumentException if q has a different comparator
+    *
+    * @since 0.7.0
+    */
+    public ImmutablePriorityQueue<E> merge(ImmutablePriorityQueue<E> q) {
+        if (q.comparator != comparator) {
+            throw new IllegalArgumentException("Priority queues have different comparators");
+        }
+        if (q.isEmpty()) {
+            return this;
+        }
+        if (isEmpty()) {
+            return q;
+        }
+        Trees<E> ts = merge(normalize(trees), normalize(q.trees));
+        return new ImmutablePriorityQueue<E>(comparator, ts, length + q.length, compare(q.min, min) < 0 ? q.min : min);
+    }
+
+    private E lowest(Trees<E> ts) {
+        E m = ts.head.root;
+        for (Trees<E> t = ts.tail; null != t; t = t.tail) {
+            if (compare(t.head.root, m) < 0) {
+                m = t.head.root;
+            }
+        }
+        return m;
+    }
+
+    private static <E> Trees<E> reverse(Trees<E> ts) {
+        Trees<E> r = null;
+        for (; null != ts; ts = ts.tail) {
+            r = new Trees<E>(ts.head, r);
+        }
+        return r;
+    }
+
+    private Tree<E> link(Tree<E> a, Tree<E> b) {
+        if (compare(b.root, a.root) < 0) {
+            Tree<E> t = a;
+            a = b;
+            b = t;
+        }
+        return new Tree<E>(a.rank + 1, a.root, a.values, new Trees<E>(b, a.children));
+    }
+
+    private Tree<E> skewLink(E e, Tree<E> a, Tree<E> b) {
+        Tree<E> t = link(a, b);
+        if (compare(e, t.root) < 0) {
+            return new Tree<E>(t.rank, e, new Values<E>(t.root, t.values), t.children);
+        }
+        return new Tree<E>(t.rank, t.root, new Values<E>(e, t.values), t.children);
+    }
+
+    private Trees<E> insert(Tree<E> t, Trees<E> ts) {
+        while (null != ts && t.rank >= ts.head.rank) {
+            t = link(t, ts.head);
+            ts = ts.tail;
+        }
+        return new Trees<E>(t, ts);
+    }
+
+    private Trees<E> insert(E e, Trees<E> ts) {
+        if (null != ts && null != ts.tail && ts.head.rank == ts.tail.head.rank) {
+            return new Trees<E>(skewLink(e, ts.head, ts.tail.head), ts.tail.tail);
+        }
+        return new Trees<E>(new Tree<E>(e), ts);
+    }
+
+    /**
+    * @return ts, in increasing rank, with the first two trees linked if
+    *         they share a rank.
+    */
+    private Trees<E> normalize(Trees<E> ts) {
+        return null == ts ? null : insert(ts.head, ts.tail);
+    }
+
+    /**
+    * Merge two lists of trees of increasing and unique rank.
+    */
+    private Trees<E> merge(Trees<E> a, Trees<E> b) {
+        if (null == a) {
+            return b;
+        }
+        if (null == b) {
+            return a;
+        }
+        if (a.head.rank < b.head.rank) {
+            return new Trees<E>(a.head, merge(a.tail, b));
+        }
+        if (b.head.rank < a.head.rank) {
+            return new Trees<E>(b.head, merge(a, b.tail));
+        }
+        return insert(link(a.head, b.head), merge(a.tail, b.tail));
+    }
+
+    /**
+    * Create an array of the values, in priority order.
+    *
+    * @return An array of the values
+    *
+    * @since 0.7.0
+    */
+    public Object[] toArray() {
+        Object[] a = new Object[length];
+        int i = 0;
+        for (E e: this) {
+            a[i++] = e;
+        }
+        return a;
+    }
+
+    /**
+    * Create an iterator over the values, in priority order.
+    *
+    * Each step pops the priority queue, taking O(log n) time.
+    *
+    * @return an iterator of the values
+    *
+    * @since 0.7.0
+    */
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private ImmutablePriorityQueue<E> q = ImmutablePriorityQueue.this;
+
+            public boolean hasNext() { return !q.isEmpty(); }
+
+            public E next() {
+                if (q.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                E e = q.min;
+                q = q.pop();
+                return e;
+            }
+
+            public void remove() { throw new UnsupportedOperationException(); }
+        };
+    }
+
+    /**
+    * Returns the hash code of the priority queue.
+    *
+    * The sum of the hash codes of the values, so it does not depend on the
+    * order of equal values; computed on first use, then cached.
+    *
+    * @return The hash code of the priority queue
+    *
+    * @since 0.7.0
+    */
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0 && length > 0) {
+            for (Trees<E> t = trees; null != t; t = t.tail) {
+                h += t.head.hash();
+            }
+            hash = h;
+        }
+        return h;
+    }
+
+    /**
+    * Compares the priority queue with another ImmutablePriorityQueue.
+    *
+    * Priority queues are equal when they pop equal values in the same order.
+    *
+    * @param o The object to compare with
+    * @return True if o is an ImmutablePriorityQueue with equal values
+    *
+    * @since 0.7.0
+    */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ImmutablePriorityQueue)) {
+            return false;
+        }
+        ImmutablePriorityQueue<?> q = (ImmutablePriorityQueue<?>) o;
+        if (length != q.length || hashCode() != q.hashCode()) {
+            return false;
+        }
+        Iterator<?> it = q.iterator();
+        for (E e: this) {
+            if (!Objects.equals(e, it.next())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+    * A skew binomial tree, holding its root, up to rank extra values and
+    * its children in decreasing rank.
+    *
+    * @since 0.7.0
+    */
+    private static final class Tree<E> {
+        final int rank;
+        final E root;
+        final Values<E> values;
+        final Trees<E> children;
+
+        Tree(E root) {
+            this(0, root, null, null);
+        }
+
+        Tree(int rank, E root, Values<E> values, Trees<E> children) {
+            this.rank = rank;
+            this.root = root;
+            this.values = values;
+            this.children = children;
+        }
+
+        int hash() {
+            int h = Objects.hashCode(root);
+            for (Values<E> v = values; null != v; v = v.tail) {
+                h += Objects.hashCode(v.head);
+            }
+            for (Trees<E> t = children; null != t; t = t.tail) {
+                h += t.head.hash();
+            }
+            return h;
+        }
+    }
+
+    private static final class Trees<E> {
+        final Tree<E> head;
+        final Trees<E> tail;
+
+        Trees(Tree<E> head, Trees<E> tail) {
+            this.head = head;
+            this.tail = tail;
+        }
+    }
+
+    private static final class Values<E> {
+        final E head;
+        final Values<E> tail;
+
+        Values(E head, Values<E> tail) {
+            this.head = head;
+            this.tail = tail;
+        }
+    }
+}
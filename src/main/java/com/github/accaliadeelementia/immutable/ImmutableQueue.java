@@ -0,0 +1,2085 @@
+package com.github.accaliadeelementia.immutable;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+* An implementation of an Immutable Queue
+*
+* Inspired by work featured on Fabulous Adventures In Coding by Eric Lippert
+* published 2008.02.12
+* http://blogs.msdn.com/b/ericlippert/archive/2008/02/12/immutability-in-c-part-eleven-a-working-double-ended-queue.aspx
+*
+* @author Accalia de Elementia <accalia.de.elementia@gmail.com>
+*
+* @version 0.5.0
+*/
+public final class ImmutableQueue<E> implements ImmutableCollection<E>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+    * The shared empty queue.
+    *
+    * @see #empty
+    */
+    private static final ImmutableQueue<Object> EMPTY = new ImmutableQueue<Object>();
+
+    private static final Object[] NO_VALUES = new Object[0];
+
+    private final Quelette<E> right;
+    private final ImmutableQueue<Quelette<E>> mid;
+    private final Quelette<E> left;
+
+    /**
+    * The size of the queue.
+    *
+    * For a mid queue this counts the values held inside its Quelettes
+    * rather than the Quelettes themselves.
+    *
+    * @since 0.5.0
+    */
+    public final int length;
+
+    /**
+    * True if queue contains no data, false otherwise.
+    * 
+    * @since 0.5.0
+    */
+    public final boolean empty;
+
+    /**
+    * Cached hash code, 0 until first computed.
+    *
+    * @see #hashCode
+    */
+    private int hash;
+
+    /**
+    * Create a new, empty, ImmutableQueue.
+    * 
+    * @since 0.5.0
+    */
+    public ImmutableQueue () {
+        right = Zero.instance();
+        mid = null;
+        left = Zero.instance();
+        length = 0;
+        empty = true;
+    }
+
+    /**
+    * Returns the shared empty ImmutableQueue.
+    *
+    * Prefer this over the constructor, it does not allocate.
+    *
+    * @return The empty ImmutableQueue
+    *
+    * @since 0.7.0
+    */
+    @SuppressWarnings("unchecked")
+    public static <E> ImmutableQueue<E> empty() {
+        return (ImmutableQueue<E>) EMPTY;
+    }
+
+    /**
+    * Create a new ImmutableQueue with data.
+    *
+    * *PRIVATE* constructor.
+    *
+    * @param right The right Quelette
+    * @param mid The middle ImmutableQueue of Quelettes
+    * @param left The left Quelette
+    *
+    * @since 0.5.0
+    */
+    private ImmutableQueue (Quelette<E> right, ImmutableQueue<Quelette<E>> mid, Quelette<E> left) {
+        this.right = right;
+        this.mid = mid;
+        this.left = left;
+        length = right.weight + (null == mid ? 0 : mid.length) + left.weight;
+        empty = length == 0;
+    }
+
+    /**
+    * Create a queue from parts that may be empty.
+    *
+    * @param right The right Quelette
+    * @param mid The middle ImmutableQueue of Quelettes, may be null or empty
+    * @param left The left Quelette
+    * @return A new ImmutableQueue, or the empty one
+    *
+    * @since 0.7.0
+    */
+    private static <T> ImmutableQueue<T> make(Quelette<T> right, ImmutableQueue<Quelette<T>> mid, Quelette<T> left) {
+        if (null != mid && mid.empty) {
+            mid = null;
+        }
+        ImmutableQueue<T> q = new ImmutableQueue<T>(right, mid, left);
+        return q.empty ? ImmutableQueue.<T>empty() : q;
+    }
+
+    /**
+    * Returns the size of the queue.
+    *
+    * @see #length
+    *
+    * @since 0.5.0
+    */
+    public int size() { return length; }
+    
+    /**
+    * Returns true if the queue contains no data, false otherwise.
+    *
+    * @see #empty
+    * 
+    * @since 0.5.0
+    */
+    public boolean isEmpty() { return empty; }
+
+    /**
+    * Push a data value to the right end of the queue.
+    *
+    * @param e Data value to push
+    * @return A new ImmutableQueue with updated state
+    *
+    * @since 0.1.0
+    */
+    public ImmutableQueue<E> pushRight(E e) {
+        Quelette<E> right = this.right;
+        ImmutableQueue<Quelette<E>> mid = this.mid;
+        Quelette<E> left = this.left;
+        if (right.isFull()) {
+            if (null != mid) {
+                // Mid already used
+                mid = mid.pushRight(right);
+                right = new One<E>(e);
+            } else if (left.isFull()) {
+                // no mid, and left is full too
+                mid = ImmutableQueue.<Quelette<E>>empty().pushRight(right);
+                right = new One<E>(e);
+            } else {
+                // no mid, and left has room
+                left = left.pushRight(right.peekLeft());
+                right = right.popLeft().pushRight(e);
+            }
+        } else {
+            right = right.pushRight(e);
+        }
+        return new ImmutableQueue<E>(right, mid, left);
+    }
+
+    /**
+    * Push a data value to the left end of the queue.
+    *
+    * @param e Data value to push
+    * @return A new ImmutableQueue with updated state
+    *
+    * @since 0.1.0
+    */
+    public ImmutableQueue<E> pushLeft(E e) {
+        Quelette<E> right = this.right;
+        ImmutableQueue<Quelette<E>> mid = this.mid;
+        Quelette<E> left = this.left;
+        if (left.isFull()) {
+            if (null != mid) {
+                mid = mid.pushLeft(left);
+                left = new One<E>(e);
+            } else if (right.isFull()) {
+                mid = ImmutableQueue.<Quelette<E>>empty().pushLeft(left);
+                left = new One<E>(e);
+            } else {
+                right = right.pushLeft(left.peekRight());
+                left = left.popRight().pushLeft(e);
+            }
+        } else {
+            left = left.pushLeft(e);
+        }
+        return new ImmutableQueue<E>(right, mid, left);
+    }
+
+    /**
+    * Alias for pushLeft
+    *
+    * @param e Data value to push
+    * @return A new ImmutableQueue with updated state
+    *
+    * @see #pushLeft
+    *
+    * @since 0.5.0
+    */
+    public ImmutableQueue<E> push(E e) { return pushLeft(e); }
+
+    /**
+    * Alias for pushLeft
+    *
+    * @param e Data value to push
+    * @return A new ImmutableQueue with updated state
+    *
+    * @see #pushLeft
+    *
+    * @since 0.5.0
+    */
+    public ImmutableQueue<E> add(E e) { return pushLeft(e); }
+
+    /**
+    * Look at the first element on the right.
+    *
+    * @return The rightmost data value
+    * @throws EmptyQueueException if there is no data stored
+    *
+    * @since 0.2.0
+    */
+    public E peekRight() {
+        if (empty) {
+            throw new EmptyQueueException();
+        }
+        if (right.size() == 0) {
+            if (null != mid) {
+                return mid.peekRight().peekRight();
+            }
+            return left.peekRight();
+        } else {
+            return right.peekRight();
+        }
+    }
+
+    
+    /**
+    * Look at the first element on the left.
+    *
+    * @return The leftmost data value
+    * @throws EmptyQueueException if there is no data stored
+    *
+    * @since 0.2.0
+    */
+    public E peekLeft() {
+        if (empty) {
+            throw new EmptyQueueException();
+        }
+        if (left.size() == 0) {
+            if (null != mid) {
+                return mid.peekLeft().peekLeft();
+            }
+            return right.peekLeft();
+        } else {
+            return left.peekLeft();
+        }
+    }
+    
+    /**
+    * Alias for peekRight.
+    *
+    * @return The rightmost data value
+    * @throws EmptyQueueException if there is no data stored
+    *
+    * @see #peekRight
+    *
+    * @since 0.5.0
+    */
+    public E peek() { return peekRight(); }
+
+    /**
+    * Remove the rightmost element.
+    *
+    * @return a new ImmutableQueue with updated state
+    * @throws EmptyQueueException if there is no data stored
+    *
+    * @since 0.3.0
+    */
+    public ImmutableQueue<E> popRight() {
+        if (empty) {
+            throw new EmptyQueueException();
+        }
+        if (length == 1) {
+            return empty();
+        }
+        Quelette<E> right = this.right;
+        ImmutableQueue<Quelette<E>> mid = this.mid;
+        Quelette<E> left = this.left;
+        if (right.size() == 0) {
+            if (null == mid) {
+                left = left.popRight();
+            } else {
+                right = mid.peekRight();
+                mid = mid.popRight();
+                right = right.popRight();
+                if (mid.size() == 0) {
+                    mid = null;
+                }
+            }
+        } else {
+            right = right.popRight();
+        }
+        return new ImmutableQueue<E> (right, mid, left);
+     }
+
+    /**
+    * Remove the leftmost element.
+    *
+    * @return a new ImmutableQueue with updated state
+    * @throws EmptyQueueException if there is no data stored
+    *
+    * @since 0.3.0
+    */
+     public ImmutableQueue<E> popLeft() {
+        if (empty) {
+            throw new EmptyQueueException();
+        }
+        if (length == 1) {
+            return empty();
+        }
+        Quelette<E> right = this.right;
+        ImmutableQueue<Quelette<E>> mid = this.mid;
+        Quelette<E> left = this.left;
+        if (left.size() == 0) {
+            if (null == mid) {
+                right = right.popLeft();
+            } else {
+                left = mid.peekLeft();
+                mid = mid.popLeft();
+                left = left.popLeft();
+                if (mid.size() == 0) {
+                    mid = null;
+                }
+            }
+        } else {
+            left = left.popLeft();
+        }
+        return new ImmutableQueue<E> (right, mid, left);
+    }
+
+    /**
+    * Alias for popRight.
+    *
+    * @return a new ImmutableQueue with updated state
+    * @throws EmptyQueueException if there is no data stored
+    *
+    * @see #popRight
+    *
+    * @since 0.3.0
+    */
+    public ImmutableQueue<E> pop() { return popRight(); }
+
+    /**
+    * Add a lot of items to the queue.
+    *
+    * Inserts in iteration order as if through calls to {@link #add}. When c
+    * is a Collection it is built into a queue directly and joined to this
+    * one, see {@link #copyOf} and {@link #concat}.
+    *
+    * @param c An iterable object containingobjects to add.
+    * @return A new ImmutableQueue with updated state
+    *
+    * @see #add
+    *
+    * @since 0.5.0
+    */
+    public ImmutableQueue<E> addAll (Iterable<? extends E> c) {
+        if (c instanceof Collection) {
+            return concat(copyOf((Collection<? extends E>) c));
+        }
+        ImmutableQueue<E> q = this;
+        for(E e: c) {
+            q = q.add(e);
+        }
+        return q;
+    }
+
+    /**
+    * Join another queue to the left end of this one.
+    *
+    * The result iterates over this queue and then over q. The right end of
+    * this queue and the left end of q are kept, the ends where the queues
+    * meet are regrouped into the mid queue one level at a time, so this
+    * takes logarithmic time and shares almost all of both queues.
+    *
+    * @param q The queue to join
+    * @return A new ImmutableQueue with updated state
+    *
+    * @since 0.7.0
+    */
+    @SuppressWarnings("unchecked")
+    public ImmutableQueue<E> concat(ImmutableQueue<? extends E> q) {
+        return concat(this, NO_VALUES, (ImmutableQueue<E>) q);
+    }
+
+    /**
+    * Join two queues with some values between them.
+    *
+    * @param a The queue that comes first in iteration order
+    * @param ts Values that come after a and before b, in iteration order
+    * @param b The queue that comes last in iteration order
+    * @return A new ImmutableQueue holding all the values
+    *
+    * @since 0.7.0
+    */
+    @SuppressWarnings("unchecked")
+    private static <T> ImmutableQueue<T> concat(ImmutableQueue<T> a, Object[] ts, ImmutableQueue<T> b) {
+        if (a.empty || null == a.mid) {
+            // a holds at most eight values, push them onto b
+            for (int i = ts.length - 1; i >= 0; i -= 1) {
+                b = b.pushRight((T) ts[i]);
+            }
+            for (int i = a.left.size() - 1; i >= 0; i -= 1) {
+                b = b.pushRight(a.left.get(i));
+            }
+            for (int i = a.right.size() - 1; i >= 0; i -= 1) {
+                b = b.pushRight(a.right.get(i));
+            }
+            return b;
+        }
+        if (b.empty || null == b.mid) {
+            for (int i = 0; i < ts.length; i += 1) {
+                a = a.pushLeft((T) ts[i]);
+            }
+            for (int i = 0; i < b.right.size(); i += 1) {
+                a = a.pushLeft(b.right.get(i));
+            }
+            for (int i = 0; i < b.left.size(); i += 1) {
+                a = a.pushLeft(b.left.get(i));
+            }
+            return a;
+        }
+        Object[] values = new Object[a.left.size() + ts.length + b.right.size()];
+        int n = 0;
+        for (int i = 0; i < a.left.size(); i += 1) {
+            values[n] = a.left.get(i);
+            n += 1;
+        }
+        System.arraycopy(ts, 0, values, n, ts.length);
+        n += ts.length;
+        for (int i = 0; i < b.right.size(); i += 1) {
+            values[n] = b.right.get(i);
+            n += 1;
+        }
+        ImmutableQueue<Quelette<T>> mid = concat(a.mid, Quelettes.group(values), b.mid);
+        return new ImmutableQueue<T>(a.right, mid, b.left);
+    }
+
+    /**
+    * Look at a value by position.
+    *
+    * Descends through the cached weights of the mid queue, so this takes
+    * logarithmic time.
+    *
+    * @param index Position of the value in iteration order
+    * @return The data value at index
+    * @throws IndexOutOfBoundsException if index is negative or not less than the size
+    *
+    * @since 0.7.0
+    */
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        Preconditions.checkIndex(index, length);
+        return (E) lookup(index);
+    }
+
+    /**
+    * Find a value by position, descending into the Quelettes of mid queues.
+    *
+    * @param index Position of the value, 0 &lt;= index &lt; length
+    * @return The value at index
+    *
+    * @since 0.7.0
+    */
+    private Object lookup(int index) {
+        if (index < right.weight) {
+            return right.lookup(index);
+        }
+        index -= right.weight;
+        if (null != mid) {
+            if (index < mid.length) {
+                return mid.lookup(index);
+            }
+            index -= mid.length;
+        }
+        return left.lookup(index);
+    }
+
+    /**
+    * Keep the first values in iteration order.
+    *
+    * @param n The number of values to keep
+    * @return A new ImmutableQueue of the first n values, or this queue if it is no larger
+    * @throws IllegalArgumentException if n is negative
+    *
+    * @since 0.7.0
+    */
+    public ImmutableQueue<E> take(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException();
+        }
+        if (n >= length) {
+            return this;
+        }
+        if (n == 0) {
+            return empty();
+        }
+        return this.<E>split(n).before;
+    }
+
+    /**
+    * Remove the first values in iteration order.
+    *
+    * @param n The number of values to remove
+    * @return A new ImmutableQueue without the first n values, empty if it is no larger
+    * @throws IllegalArgumentException if n is negative
+    *
+    * @since 0.7.0
+    */
+    public ImmutableQueue<E> drop(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException();
+        }
+        if (n == 0) {
+            return this;
+        }
+        if (n >= length) {
+            return empty();
+        }
+        Division<E> d = split(n);
+        return d.after.pushRight(d.value);
+    }
+
+    /**
+    * Split the queue in two by position.
+    *
+    * Takes logarithmic time and shares the structure of this queue.
+    *
+    * @param index Number of values, in iteration order, that go to the first part
+    * @return The two parts, see {@link Split}
+    * @throws IndexOutOfBoundsException if index is negative or larger than the size
+    *
+    * @since 0.7.0
+    */
+    public Split<E> splitAt(int index) {
+        if (index < 0 || index > length) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + length);
+        }
+        if (index == 0) {
+            return new Split<E>(ImmutableQueue.<E>empty(), this);
+        }
+        if (index == length) {
+            return new Split<E>(this, ImmutableQueue.<E>empty());
+        }
+        Division<E> d = split(index);
+        return new Split<E>(d.before, d.after.pushRight(d.value));
+    }
+
+    /**
+    * Remove up to n values from the right end in one step.
+    *
+    * The values are handed to action in the order repeated calls to
+    * {@link #popRight} would remove them. Whole Quelettes of the right end
+    * and of the mid queue are handed over as they are removed, and only the
+    * last one is sliced, so the queue is rebuilt once rather than per value.
+    *
+    * @param n The most values to remove
+    * @param action Receives each removed value
+    * @return A new ImmutableQueue without the removed values
+    * @throws IllegalArgumentException if n is negative
+    *
+    * @since 0.7.0
+    */
+    public ImmutableQueue<E> popRight(int n, Consumer<? super E> action) {
+        if (n < 0) {
+            throw new IllegalArgumentException();
+        }
+        Objects.requireNonNull(action);
+        if (n >= length) {
+            for (E e: this) {
+                action.accept(e);
+            }
+            return empty();
+        }
+        Quelette<E> right = this.right;
+        ImmutableQueue<Quelette<E>> mid = this.mid;
+        Quelette<E> left = this.left;
+        while (n > 0) {
+            Quelette<E> node;
+            if (right.size() > 0) {
+                node = right;
+            } else if (null != mid) {
+                node = mid.peekRight();
+                mid = mid.popRight();
+                if (mid.empty) {
+                    mid = null;
+                }
+            } else {
+                node = left;
+                left = Zero.instance();
+            }
+            int k = Math.min(n, node.size());
+            for (int i = 0; i < k; i += 1) {
+                action.accept(node.get(i));
+            }
+            // What is left of the last Quelette becomes the right end
+            right = Quelettes.slice(node, k, node.size());
+            n -= k;
+        }
+        return make(right, mid, left);
+    }
+
+    /**
+    * Remove up to n values from the left end in one step.
+    *
+    * The values are handed to action in the order repeated calls to
+    * {@link #popLeft} would remove them. Whole Quelettes of the left end and
+    * of the mid queue are handed over as they are removed, and only the last
+    * one is sliced, so the queue is rebuilt once rather than per value.
+    *
+    * @param n The most values to remove
+    * @param action Receives each removed value
+    * @return A new ImmutableQueue without the removed values
+    * @throws IllegalArgumentException if n is negative
+    *
+    * @since 0.7.0
+    */
+    public ImmutableQueue<E> popLeft(int n, Consumer<? super E> action) {
+        if (n < 0) {
+            throw new IllegalArgumentException();
+        }
+        Objects.requireNonNull(action);
+        if (n >= length) {
+            for (Iterator<E> it = descendingIterator(); it.hasNext(); ) {
+                action.accept(it.next());
+            }
+            return empty();
+        }
+        Quelette<E> right = this.right;
+        ImmutableQueue<Quelette<E>> mid = this.mid;
+        Quelette<E> left = this.left;
+        while (n > 0) {
+            Quelette<E> node;
+            if (left.size() > 0) {
+                node = left;
+            } else if (null != mid) {
+                node = mid.peekLeft();
+                mid = mid.popLeft();
+                if (mid.empty) {
+                    mid = null;
+                }
+            } else {
+                node = right;
+                right = Zero.instance();
+            }
+            int size = node.size();
+            int k = Math.min(n, size);
+            for (int i = size - 1; i >= size - k; i -= 1) {
+                action.accept(node.get(i));
+            }
+            // What is left of the last Quelette becomes the left end
+            left = Quelettes.slice(node, 0, size - k);
+            n -= k;
+        }
+        return make(right, mid, left);
+    }
+
+    /**
+    * Move up to n values from the left end into a collection.
+    *
+    * @param c Collection to add the values to, leftmost first
+    * @param n The most values to move
+    * @return A new ImmutableQueue without the moved values
+    * @throws IllegalArgumentException if n is negative
+    *
+    * @see #popLeft(int, Consumer)
+    *
+    * @since 0.7.0
+    */
+    public ImmutableQueue<E> drainLeftTo(Collection<? super E> c, int n) {
+        return popLeft(n, c::add);
+    }
+
+    /**
+    * Push values to the right end in one step.
+    *
+    * Equivalent to calling {@link #pushRight} with each value in array
+    * order, so the last value ends up rightmost, but the values are built
+    * into a queue directly and joined to this one.
+    *
+    * @param values The values to push
+    * @return A new ImmutableQueue with updated state
+    *
+    * @since 0.7.0
+    */
+    @SafeVarargs
+    public final ImmutableQueue<E> pushRightAll(E... values) {
+        Object[] a = new Object[values.length];
+        for (int i = 0, j = values.length - 1; j >= 0; i += 1, j -= 1) {
+            a[i] = values[j];
+        }
+        return ImmutableQueue.<E>build(a, 0, a.length).concat(this);
+    }
+
+    /**
+    * Split the queue around the value holding a position.
+    *
+    * @param index Position, 0 &lt;= index &lt; length
+    * @return The division, with value being the Quelette or queue value holding index
+    *
+    * @since 0.7.0
+    */
+    @SuppressWarnings("unchecked")
+    private <T> Division<T> split(int index) {
+        ImmutableQueue<T> q = (ImmutableQueue<T>) this;
+        if (index < right.weight) {
+            int k = position(right, index);
+            return new Division<T>(
+                make(Quelettes.<T>slice(q.right, 0, k), null, Zero.<T>instance()),
+                q.right.get(k),
+                make(Quelettes.<T>slice(q.right, k + 1, right.size()), q.mid, q.left),
+                index - before(right, k));
+        }
+        index -= right.weight;
+        if (null != mid && index < mid.length) {
+            Division<Quelette<T>> m = q.mid.split(index);
+            Quelette<T> node = m.value;
+            int k = position(node, m.offset);
+            return new Division<T>(
+                make(q.right, m.before, Quelettes.<T>slice(node, 0, k)),
+                node.get(k),
+                make(Quelettes.<T>slice(node, k + 1, node.size()), m.after, q.left),
+                m.offset - before(node, k));
+        }
+        if (null != mid) {
+            index -= mid.length;
+        }
+        int k = position(left, index);
+        return new Division<T>(
+            make(q.right, q.mid, Quelettes.<T>slice(q.left, 0, k)),
+            q.left.get(k),
+            make(Quelettes.<T>slice(q.left, k + 1, left.size()), null, Zero.<T>instance()),
+            index - before(left, k));
+    }
+
+    /**
+    * @return the slot of a Quelette holding a position.
+    *
+    * @since 0.7.0
+    */
+    private static int position(Quelette<?> q, int index) {
+        int k = 0;
+        for (int w = Quelette.weightOf(q.get(0)); index >= w; w = Quelette.weightOf(q.get(k))) {
+            index -= w;
+            k += 1;
+        }
+        return k;
+    }
+
+    /**
+    * @return the weight of the slots of a Quelette before slot k.
+    *
+    * @since 0.7.0
+    */
+    private static int before(Quelette<?> q, int k) {
+        int w = 0;
+        for (int i = 0; i < k; i += 1) {
+            w += Quelette.weightOf(q.get(i));
+        }
+        return w;
+    }
+
+    /**
+    * A queue split in two by {@link #splitAt}.
+    *
+    * @since 0.7.0
+    */
+    public static final class Split<E> {
+        /**
+        * The values before the split point, in iteration order.
+        *
+        * @since 0.7.0
+        */
+        public final ImmutableQueue<E> taken;
+
+        /**
+        * The values from the split point on, in iteration order.
+        *
+        * @since 0.7.0
+        */
+        public final ImmutableQueue<E> dropped;
+
+        private Split(ImmutableQueue<E> taken, ImmutableQueue<E> dropped) {
+            this.taken = taken;
+            this.dropped = dropped;
+        }
+    }
+
+    /**
+    * A queue divided around one value, see {@link #split}.
+    *
+    * @since 0.7.0
+    */
+    private static final class Division<T> {
+        final ImmutableQueue<T> before;
+        final T value;
+        final ImmutableQueue<T> after;
+        /**
+        * The position searched for, relative to value.
+        */
+        final int offset;
+
+        Division(ImmutableQueue<T> before, T value, ImmutableQueue<T> after, int offset) {
+            this.before = before;
+            this.value = value;
+            this.after = after;
+            this.offset = offset;
+        }
+    }
+
+    /**
+    * Create an ImmutableQueue holding the given values.
+    *
+    * The values are laid out as a balanced queue in one pass, without
+    * pushing them one at a time. Iteration order matches argument order.
+    *
+    * @param elements The values to store
+    * @return A new ImmutableQueue holding the values
+    *
+    * @since 0.7.0
+    */
+    @SafeVarargs
+    public static <E> ImmutableQueue<E> of(E... elements) {
+        return build(elements, 0, elements.length);
+    }
+
+    /**
+    * Create an ImmutableQueue holding the contents of a Collection.
+    *
+    * The values are laid out as a balanced queue in one pass, without
+    * pushing them one at a time. Iteration order matches the Collection's.
+    *
+    * @param c The values to store
+    * @return A new ImmutableQueue holding the values
+    *
+    * @since 0.7.0
+    */
+    public static <E> ImmutableQueue<E> copyOf(Collection<? extends E> c) {
+        Object[] a = c.toArray();
+        return build(a, 0, a.length);
+    }
+
+    /**
+    * Build a queue directly from values in iteration order.
+    *
+    * Four values go to the right Quelette, one to four to the left one and
+    * the rest are grouped into full Quelettes that are built into the mid
+    * queue the same way. This is the shape repeated pushes converge to.
+    *
+    * @param a Values in iteration order, not retained
+    * @param from First index to use
+    * @param to Index after the last one to use
+    * @return A new ImmutableQueue holding the values
+    *
+    * @since 0.7.0
+    */
+    static <E> ImmutableQueue<E> build(Object[] a, int from, int to) {
+        int n = to - from;
+        if (n == 0) {
+            return empty();
+        }
+        if (n <= 4) {
+            return new ImmutableQueue<E>(Quelettes.<E>of(a, from, to), null, Zero.<E>instance());
+        }
+        if (n <= 8) {
+            return new ImmutableQueue<E>(Quelettes.<E>of(a, from, from + 4), null, Quelettes.<E>of(a, from + 4, to));
+        }
+        int leftCount = ((n - 5) % 4) + 1;
+        int midEnd = to - leftCount;
+        Object[] nodes = new Object[(midEnd - from - 4) / 4];
+        for (int i = from + 4, j = 0; i < midEnd; i += 4, j += 1) {
+            nodes[j] = Quelettes.of(a, i, i + 4);
+        }
+        ImmutableQueue<Quelette<E>> mid = build(nodes, 0, nodes.length);
+        return new ImmutableQueue<E>(Quelettes.<E>of(a, from, from + 4), mid, Quelettes.<E>of(a, midEnd, to));
+    }
+
+    /**
+    * Create a Builder starting from this queue.
+    *
+    * @return a new Builder holding the values of this queue
+    *
+    * @see Builder
+    *
+    * @since 0.7.0
+    */
+    public Builder<E> toBuilder() { return new Builder<E>(this); }
+
+    /**
+    * Create a Builder starting from an empty queue.
+    *
+    * @return a new, empty, Builder
+    *
+    * @see Builder
+    *
+    * @since 0.7.0
+    */
+    public static <E> Builder<E> builder() { return new Builder<E>(ImmutableQueue.<E>empty()); }
+
+    /**
+    * A mutable, single owner, queue for batches of updates.
+    *
+    * Values pushed to either end are kept in plain arrays owned by the
+    * Builder, around the queue it was started from. Pops take from those
+    * arrays first. {@link #build} lays out each array as a queue in one pass
+    * and joins them to the starting queue, so a batch of pushes costs one
+    * queue's worth of allocations instead of one version per push.
+    *
+    * Nothing shared with any ImmutableQueue is ever written to. A Builder is
+    * not thread safe.
+    *
+    * @author Accalia de Elementia <accalia.de.elementia@gmail.com>
+    * @version 0.7.0
+    */
+    public static final class Builder<E> {
+        private ImmutableQueue<E> base;
+        // Values pushed right, the rightmost last
+        private Object[] rights = NO_VALUES;
+        private int rightStart;
+        private int rightEnd;
+        // Values pushed left, the leftmost last
+        private Object[] lefts = NO_VALUES;
+        private int leftStart;
+        private int leftEnd;
+
+        private Builder(ImmutableQueue<E> base) {
+            this.base = base;
+        }
+
+        /**
+        * @return the number of values in the Builder.
+        *
+        * @since 0.7.0
+        */
+        public int size() {
+            return (rightEnd - rightStart) + base.length + (leftEnd - leftStart);
+        }
+
+        /**
+        * @return true if the Builder holds no values.
+        *
+        * @since 0.7.0
+        */
+        public boolean isEmpty() { return size() == 0; }
+
+        /**
+        * Push a data value to the right end.
+        *
+        * @param e Data value to push
+        * @return this Builder
+        *
+        * @since 0.7.0
+        */
+        public Builder<E> pushRight(E e) {
+            if (rightEnd == rights.length) {
+                rights = grow(rights, rightEnd);
+            }
+            rights[rightEnd] = e;
+            rightEnd += 1;
+            return this;
+        }
+
+        /**
+        * Push a data value to the left end.
+        *
+        * @param e Data value to push
+        * @return this Builder
+        *
+        * @since 0.7.0
+        */
+        public Builder<E> pushLeft(E e) {
+            if (leftEnd == lefts.length) {
+                lefts = grow(lefts, leftEnd);
+            }
+            lefts[leftEnd] = e;
+            leftEnd += 1;
+            return this;
+        }
+
+        /**
+        * Alias for pushLeft, as {@link ImmutableQueue#add}.
+        *
+        * @param e Data value to push
+        * @return this Builder
+        *
+        * @since 0.7.0
+        */
+        public Builder<E> add(E e) { return pushLeft(e); }
+
+        /**
+        * Add a lot of items, as {@link ImmutableQueue#addAll}.
+        *
+        * @param c An iterable object containing objects to add
+        * @return this Builder
+        *
+        * @since 0.7.0
+        */
+        public Builder<E> addAll(Iterable<? extends E> c) {
+            for (E e: c) {
+                pushLeft(e);
+            }
+            return this;
+        }
+
+        /**
+        * Look at the rightmost value.
+        *
+        * @return The rightmost data value
+        * @throws EmptyQueueException if there is no data stored
+        *
+        * @since 0.7.0
+        */
+        @SuppressWarnings("unchecked")
+        public E peekRight() {
+            if (rightEnd > rightStart) {
+                return (E) rights[rightEnd - 1];
+            }
+            if (!base.empty) {
+                return base.peekRight();
+            }
+            if (leftEnd > leftStart) {
+                return (E) lefts[leftStart];
+            }
+            throw new EmptyQueueException();
+        }
+
+        /**
+        * Look at the leftmost value.
+        *
+        * @return The leftmost data value
+        * @throws EmptyQueueException if there is no data stored
+        *
+        * @since 0.7.0
+        */
+        @SuppressWarnings("unchecked")
+        public E peekLeft() {
+            if (leftEnd > leftStart) {
+                return (E) lefts[leftEnd - 1];
+            }
+            if (!base.empty) {
+                return base.peekLeft();
+            }
+            if (rightEnd > rightStart) {
+                return (E) rights[rightStart];
+            }
+            throw new EmptyQueueException();
+        }
+
+        /**
+        * Remove the rightmost value.
+        *
+        * @return this Builder
+        * @throws EmptyQueueException if there is no data stored
+        *
+        * @since 0.7.0
+        */
+        public Builder<E> popRight() {
+            if (rightEnd > rightStart) {
+                rightEnd -= 1;
+                rights[rightEnd] = null;
+            } else if (!base.empty) {
+                base = base.popRight();
+            } else if (leftEnd > leftStart) {
+                lefts[leftStart] = null;
+                leftStart += 1;
+                if (leftStart == leftEnd) {
+                    leftStart = leftEnd = 0;
+                }
+            } else {
+                throw new EmptyQueueException();
+            }
+            return this;
+        }
+
+        /**
+        * Remove the leftmost value.
+        *
+        * @return this Builder
+        * @throws EmptyQueueException if there is no data stored
+        *
+        * @since 0.7.0
+        */
+        public Builder<E> popLeft() {
+            if (leftEnd > leftStart) {
+                leftEnd -= 1;
+                lefts[leftEnd] = null;
+            } else if (!base.empty) {
+                base = base.popLeft();
+            } else if (rightEnd > rightStart) {
+                rights[rightStart] = null;
+                rightStart += 1;
+                if (rightStart == rightEnd) {
+                    rightStart = rightEnd = 0;
+                }
+            } else {
+                throw new EmptyQueueException();
+            }
+            return this;
+        }
+
+        /**
+        * Freeze the Builder into an ImmutableQueue.
+        *
+        * The Builder stays usable and carries on from the returned queue.
+        *
+        * @return An ImmutableQueue holding the values of the Builder
+        *
+        * @since 0.7.0
+        */
+        public ImmutableQueue<E> build() {
+            Object[] a = new Object[rightEnd - rightStart];
+            for (int i = 0, j = rightEnd - 1; j >= rightStart; i += 1, j -= 1) {
+                a[i] = rights[j];
+            }
+            ImmutableQueue<E> q = ImmutableQueue.<E>build(a, 0, a.length)
+                .concat(base)
+                .concat(ImmutableQueue.<E>build(lefts, leftStart, leftEnd));
+            Arrays.fill(rights, rightStart, rightEnd, null);
+            Arrays.fill(lefts, leftStart, leftEnd, null);
+            rightStart = rightEnd = leftStart = leftEnd = 0;
+            base = q;
+            return q;
+        }
+
+        private static Object[] grow(Object[] a, int size) {
+            return Arrays.copyOf(a, Math.max(16, size + (size >> 1)));
+        }
+    }
+
+    /**
+    * Returns the hash code of the queue.
+    *
+    * Computed like {@link List#hashCode} over the iteration order on first
+    * use, then cached.
+    *
+    * @return The hash code of the queue
+    *
+    * @since 0.7.0
+    */
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = 1;
+            for (E e: this) {
+                h = 31 * h + Objects.hashCode(e);
+            }
+            hash = h;
+        }
+        return h;
+    }
+
+    /**
+    * Compares the queue with another ImmutableQueue.
+    *
+    * Queues are equal when they hold equal values in the same order. Size,
+    * any cached hash codes and a shared mid queue are checked before the
+    * values are compared.
+    *
+    * @param o The object to compare with
+    * @return True if o is an ImmutableQueue with equal values
+    *
+    * @since 0.7.0
+    */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ImmutableQueue)) {
+            return false;
+        }
+        ImmutableQueue<?> q = (ImmutableQueue<?>) o;
+        if (length != q.length) {
+            return false;
+        }
+        if (hash != 0 && q.hash != 0 && hash != q.hash) {
+            return false;
+        }
+        if ((Object) mid == q.mid && right.size() == q.right.size()) {
+            // Only the fingers can differ
+            return sameValues(right, q.right) && sameValues(left, q.left);
+        }
+        Iterator<?> it = q.iterator();
+        for (E e: this) {
+            if (!Objects.equals(e, it.next())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+    * Compare the values of two Quelettes of the same size.
+    *
+    * @since 0.7.0
+    */
+    private static boolean sameValues(Quelette<?> a, Quelette<?> b) {
+        if (a == b) {
+            return true;
+        }
+        for (int i = 0, n = a.size(); i < n; i += 1) {
+            if (!Objects.equals(a.get(i), b.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+    * Serialize as a SerializedCollection holding the values in order.
+    *
+    * @since 0.7.0
+    */
+    private Object writeReplace() {
+        return new SerializedCollection(SerializedCollection.QUEUE, toArray());
+    }
+
+    /**
+    * ImmutableQueues are only ever serialized through SerializedCollection.
+    *
+    * @since 0.7.0
+    */
+    private void readObject(ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("Serialization proxy required");
+    }
+
+    /**
+    * Create an array of items to be found in the ImmutableQueue.
+    *
+    * @return And array of elements to be found in the ImmutableQueue
+    *
+    * @since 0.6.0
+    */
+    public Object[] toArray() {
+        Object[] a = new Object[length];
+        copyTo(a, 0);
+        return a;
+    }
+
+     /**
+    * Create an array of items to be found in the ImmutableQueue.
+    *
+    * If a is too short a new array of the same type is allocated. If a is
+    * longer than the queue the element after the last value is set to null.
+    *
+    * @return And array of elements to be found in the ImmutableQueue
+    *
+    * @since 0.6.0
+    */
+    public <T> T[] toArray(T[] a) {
+        if (a.length < length) {
+            a = Arrays.copyOf(a, length);
+        } else if (a.length > length) {
+            a[length] = null;
+        }
+        copyTo(a, 0);
+        return a;
+    }
+
+    /**
+    * Create an array of items to be found in the ImmutableQueue.
+    *
+    * @param generator Allocates an array of the given length
+    * @return An array of elements to be found in the ImmutableQueue
+    *
+    * @see #toArray(Object[])
+    *
+    * @since 0.7.0
+    */
+    public <T> T[] toArray(IntFunction<T[]> generator) {
+        return toArray(generator.apply(length));
+    }
+
+    /**
+    * Copy the values of the queue into an existing array, in iteration order.
+    *
+    * @param dest The array to copy into
+    * @param offset Index in dest of the first value
+    * @return The index in dest after the last value
+    * @throws IndexOutOfBoundsException if the values do not fit dest at offset
+    * @throws ArrayStoreException if a value cannot be stored in dest
+    *
+    * @since 0.7.0
+    */
+    public <T> int copyInto(T[] dest, int offset) {
+        if (offset < 0 || offset > dest.length - length) {
+            throw new IndexOutOfBoundsException("Cannot copy " + length + " values to offset " + offset + " of length " + dest.length);
+        }
+        return copyTo(dest, offset);
+    }
+
+    /**
+    * Copy the values into an array by walking the Quelettes directly.
+    *
+    * @param a The array, known to be large enough
+    * @param i Index of the first value
+    * @return The index after the last value
+    *
+    * @since 0.7.0
+    */
+    private int copyTo(Object[] a, int i) {
+        i = right.copyTo(a, i);
+        if (null != mid) {
+            i = mid.copyTo(a, i);
+        }
+        return left.copyTo(a, i);
+    }
+
+    /**
+    * Create an iterator to iterate over the items in the collection.
+    *
+    * @return an ImmutableQueueIterator
+    *
+    * @since 0.4.0
+    */
+    public Iterator<E> iterator() { return new ImmutableQueueIterator<E>(this); }
+
+    /**
+    * Create an iterator over the items in the collection in reverse order.
+    *
+    * Walks from the left end, in the order repeated calls to
+    * {@link #popLeft} would remove the values, without copying the queue.
+    *
+    * @return a DescendingQueueIterator
+    *
+    * @since 0.7.0
+    */
+    public Iterator<E> descendingIterator() { return new DescendingQueueIterator<E>(this); }
+
+    /**
+    * Create a queue holding the same values in the opposite order.
+    *
+    * The result has the mirror image of this queue's shape: the fingers
+    * swap places and every Quelette, including those in the mid queues, is
+    * flipped. That copies the Quelettes, about a third as many objects as
+    * there are values, but never moves a value between Quelettes.
+    *
+    * @return A new ImmutableQueue, iterating as this one's descendingIterator
+    *
+    * @since 0.7.0
+    */
+    public ImmutableQueue<E> reverse() {
+        if (length < 2) {
+            return this;
+        }
+        return new ImmutableQueue<E>(left.flip(), null == mid ? null : mid.reverse(), right.flip());
+    }
+
+    /**
+    * Apply a function to every value, keeping the shape of the queue.
+    *
+    * Every Quelette, including those in the mid queues, is rebuilt with the
+    * mapped values in the same slots, so no values are moved and nothing is
+    * rebalanced. The function is applied once per value, in iteration order.
+    *
+    * @param f The function to apply
+    * @return A new ImmutableQueue of the mapped values, in the same order
+    *
+    * @since 0.7.0
+    */
+    @SuppressWarnings("unchecked")
+    public <R> ImmutableQueue<R> map(Function<? super E, ? extends R> f) {
+        if (null == f) {
+            throw new NullPointerException();
+        }
+        if (empty) {
+            return empty();
+        }
+        return (ImmutableQueue<R>) mapValues((Function<Object, Object>) (Function<?, ?>) f);
+    }
+
+    /**
+    * Apply a function to every value in parallel, keeping the shape of the
+    * queue.
+    *
+    * Works like {@link #map}, but runs in the common ForkJoinPool: the
+    * fingers and the mid queue of a large queue, and the slots of heavy
+    * Quelettes within them, are mapped as separate tasks. Small queues are
+    * mapped on the calling thread. The function is applied once per value,
+    * in no particular order, so it should not depend on shared state.
+    *
+    * @param f The function to apply
+    * @return A new ImmutableQueue of the mapped values, in the same order
+    *
+    * @since 0.7.0
+    */
+    @SuppressWarnings("unchecked")
+    public <R> ImmutableQueue<R> parallelMap(Function<? super E, ? extends R> f) {
+        if (null == f) {
+            throw new NullPointerException();
+        }
+        if (length <= MapTask.THRESHOLD) {
+            return map(f);
+        }
+        Function<Object, Object> g = (Function<Object, Object>) (Function<?, ?>) f;
+        return (ImmutableQueue<R>) ForkJoinPool.commonPool().invoke(new MapTask(this, g));
+    }
+
+    @SuppressWarnings("unchecked")
+    private ImmutableQueue<Object> mapValues(Function<Object, Object> f) {
+        Quelette<Object> r = right.map(f);
+        ImmutableQueue<Quelette<Object>> m = null == mid ? null : (ImmutableQueue<Quelette<Object>>) (ImmutableQueue<?>) mid.mapValues(f);
+        return new ImmutableQueue<Object>(r, m, left.map(f));
+    }
+
+    /**
+    * Create a spliterator over the items in the collection.
+    *
+    * Splitting divides the queue in halves with {@link #splitAt}, so
+    * parallel streams over large queues split in logarithmic time.
+    *
+    * @return an ImmutableQueueSpliterator
+    *
+    * @since 0.7.0
+    */
+    public Spliterator<E> spliterator() { return new ImmutableQueueSpliterator<E>(this); }
+
+    /**
+    * Maps a queue or a Quelette for {@link #parallelMap}, forking on the
+    * parts that hold more than {@link #THRESHOLD} values.
+    *
+    * @since 0.7.0
+    */
+    @SuppressWarnings({"serial", "unchecked"})
+    private static final class MapTask extends RecursiveTask<Object> {
+        /**
+        * The number of values worth a task of their own.
+        */
+        static final int THRESHOLD = 1 << 12;
+
+        private final Object node;
+        private final Function<Object, Object> f;
+
+        MapTask(Object node, Function<Object, Object> f) {
+            this.node = node;
+            this.f = f;
+        }
+
+        protected Object compute() {
+            if (node instanceof ImmutableQueue) {
+                ImmutableQueue<Object> q = (ImmutableQueue<Object>) node;
+                if (q.length <= THRESHOLD) {
+                    return q.mapValues(f);
+                }
+                MapTask right = new MapTask(q.right, f);
+                MapTask left = new MapTask(q.left, f);
+                if (null == q.mid) {
+                    invokeAll(right, left);
+                    return new ImmutableQueue<Object>((Quelette<Object>) right.join(), null, (Quelette<Object>) left.join());
+                }
+                MapTask mid = new MapTask(q.mid, f);
+                invokeAll(right, mid, left);
+                return new ImmutableQueue<Object>((Quelette<Object>) right.join(),
+                    (ImmutableQueue<Quelette<Object>>) mid.join(), (Quelette<Object>) left.join());
+            }
+            Quelette<Object> q = (Quelette<Object>) node;
+            if (q.weight <= THRESHOLD) {
+                return q.map(f);
+            }
+            // Heavy Quelettes only hold Quelettes
+            MapTask[] tasks = new MapTask[q.size()];
+            for (int k = 0; k < tasks.length; k += 1) {
+                tasks[k] = new MapTask(q.get(k), f);
+            }
+            invokeAll(tasks);
+            Object[] slots = new Object[tasks.length];
+            for (int k = 0; k < tasks.length; k += 1) {
+                slots[k] = tasks[k].join();
+            }
+            return Quelettes.of(slots, 0, slots.length);
+        }
+    }
+
+    /**
+    * A spliterator for ImmutableQueues
+    *
+    * Splits by position until traversal starts, then traverses with an
+    * ImmutableQueueIterator.
+    *
+    * @author Accalia de Elementia <accalia.de.elementia@gmail.com>
+    * @version 0.7.0
+    */
+    private static final class ImmutableQueueSpliterator<E> implements Spliterator<E> {
+        private ImmutableQueue<E> queue;
+        private Iterator<E> iterator;
+        private int remaining;
+
+        ImmutableQueueSpliterator(ImmutableQueue<E> queue) {
+            this.queue = queue;
+            remaining = queue.length;
+        }
+
+        public boolean tryAdvance(Consumer<? super E> action) {
+            Objects.requireNonNull(action);
+            if (remaining == 0) {
+                return false;
+            }
+            if (null == iterator) {
+                iterator = queue.iterator();
+            }
+            remaining -= 1;
+            action.accept(iterator.next());
+            return true;
+        }
+
+        public void forEachRemaining(Consumer<? super E> action) {
+            Objects.requireNonNull(action);
+            if (null == iterator) {
+                iterator = queue.iterator();
+            }
+            for (; remaining > 0; remaining -= 1) {
+                action.accept(iterator.next());
+            }
+        }
+
+        public Spliterator<E> trySplit() {
+            if (null != iterator || remaining < 2) {
+                return null;
+            }
+            Split<E> s = queue.splitAt(remaining >>> 1);
+            queue = s.dropped;
+            remaining = queue.length;
+            return new ImmutableQueueSpliterator<E>(s.taken);
+        }
+
+        public long estimateSize() { return remaining; }
+
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | IMMUTABLE;
+        }
+    }
+
+    /**
+    * An iterator for ImmutableQueues
+    *
+    * Walks the right Quelette, then the mid queue, then the left Quelette in
+    * place. The mid queue is walked by its own iterator, so a full traversal
+    * allocates one iterator per level of the queue instead of a new queue per
+    * element.
+    *
+    * @author Accalia de Elementia <accalia.de.elementia@gmail.com>
+    * @version 1.1.0
+    */
+    private static final class ImmutableQueueIterator<E> implements Iterator<E> {
+        private static final int RIGHT = 0;
+        private static final int MID = 1;
+        private static final int LEFT = 2;
+
+        private final ImmutableQueue<E> queue;
+        private Iterator<Quelette<E>> mids;
+        private Quelette<E> current;
+        private int stage;
+        private int index;
+
+        /**
+        * Store the collection to iterate.
+        * 
+        * @since 1.0.0
+        */
+        ImmutableQueueIterator(ImmutableQueue<E> queue){
+            this.queue = queue;
+            current = queue.right;
+            stage = RIGHT;
+            index = 0;
+        }
+
+        /**
+        * Moves on to the next Quelette with data if the current one is used up.
+        *
+        * @return true if the queue still has data, false otherwise.
+        *
+        * @since 1.0.0
+        */
+        public boolean hasNext() {
+            while (index == current.size()) {
+                if (LEFT == stage) {
+                    return false;
+                }
+                index = 0;
+                if (RIGHT == stage && null != queue.mid) {
+                    mids = queue.mid.iterator();
+                    stage = MID;
+                }
+                if (MID == stage && mids.hasNext()) {
+                    current = mids.next();
+                } else {
+                    mids = null;
+                    current = queue.left;
+                    stage = LEFT;
+                }
+            }
+            return true;
+        }
+
+        /**
+        * @return the next data value in the queue.
+        * @throws NoSuchElementException if the queue has no data
+        *
+        * @since 1.0.0
+        */
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            E e = current.get(index);
+            index += 1;
+            return e;
+        }
+        /**
+        * Not supported.
+        *
+        * @throws UnsupportedOperationException unconditionally
+        *
+        * @since 1.0.0
+        */
+        public void remove() { throw new UnsupportedOperationException(); }
+    }
+
+    /**
+    * A reverse order iterator for ImmutableQueues
+    *
+    * Walks the left Quelette, then the mid queue with its own descending
+    * iterator, then the right Quelette, each from its left end.
+    *
+    * @author Accalia de Elementia <accalia.de.elementia@gmail.com>
+    * @version 0.7.0
+    */
+    private static final class DescendingQueueIterator<E> implements Iterator<E> {
+        private static final int LEFT = 0;
+        private static final int MID = 1;
+        private static final int RIGHT = 2;
+
+        private final ImmutableQueue<E> queue;
+        private Iterator<Quelette<E>> mids;
+        private Quelette<E> current;
+        private int stage;
+        private int remaining;
+
+        DescendingQueueIterator(ImmutableQueue<E> queue) {
+            this.queue = queue;
+            current = queue.left;
+            stage = LEFT;
+            remaining = current.size();
+        }
+
+        public boolean hasNext() {
+            while (remaining == 0) {
+                if (RIGHT == stage) {
+                    return false;
+                }
+                if (LEFT == stage && null != queue.mid) {
+                    mids = queue.mid.descendingIterator();
+                    stage = MID;
+                }
+                if (MID == stage && mids.hasNext()) {
+                    current = mids.next();
+                } else {
+                    mids = null;
+                    current = queue.right;
+                    stage = RIGHT;
+                }
+                remaining = current.size();
+            }
+            return true;
+        }
+
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            remaining -= 1;
+            return current.get(remaining);
+        }
+
+        public void remove() { throw new UnsupportedOperationException(); }
+    }
+
+    /**
+    * Base for finite sized quelettes to be used to build a big queue.
+    *
+    * @author Accalia de Elementia <accalia.de.elementia@gmail.com>
+    * @version 1.2.0
+    */
+    private abstract static class Quelette<E> {
+        /**
+        * The number of queue values held, counting the values inside nested
+        * Quelettes for Quelettes stored in a mid queue.
+        *
+        * @since 1.2.0
+        */
+        final int weight;
+
+        Quelette(int weight) { this.weight = weight; }
+
+        /**
+        * @return the weight of a Quelette, or 1 for a queue value.
+        *
+        * @since 1.2.0
+        */
+        static int weightOf(Object o) {
+            return o instanceof Quelette ? ((Quelette<?>) o).weight : 1;
+        }
+
+        /**
+        * Find a queue value by position, descending into nested Quelettes.
+        *
+        * @param index Position of the value, counting from the right
+        * @return The queue value at that position
+        *
+        * @since 1.2.0
+        */
+        Object lookup(int index) {
+            for (int i = 0; ; i += 1) {
+                Object o = get(i);
+                int w = weightOf(o);
+                if (index < w) {
+                    return o instanceof Quelette ? ((Quelette<?>) o).lookup(index) : o;
+                }
+                index -= w;
+            }
+        }
+
+        /**
+        * Mirror a Quelette value, or return a queue value as it is.
+        *
+        * @since 0.7.0
+        */
+        @SuppressWarnings("unchecked")
+        static <E> E flipped(E o) {
+            return o instanceof Quelette ? (E) ((Quelette<?>) o).flip() : o;
+        }
+
+        /**
+        * @return a Quelette holding the same values in the opposite order,
+        *         nested Quelettes mirrored as well.
+        *
+        * @since 0.7.0
+        */
+        public abstract Quelette<E> flip();
+
+        /**
+        * Apply a function to a queue value, or map a Quelette value.
+        *
+        * @since 0.7.0
+        */
+        static Object mapped(Object o, Function<Object, Object> f) {
+            return o instanceof Quelette ? ((Quelette<?>) o).map(f) : f.apply(o);
+        }
+
+        /**
+        * @return a Quelette of the same shape holding f applied to every
+        *         queue value, nested Quelettes mapped as well, applying f
+        *         from the right.
+        *
+        * @since 0.7.0
+        */
+        public abstract Quelette<Object> map(Function<Object, Object> f);
+
+        /**
+        * Copy the queue values held into an array, from the right,
+        * descending into nested Quelettes.
+        *
+        * @param a The array, known to be large enough
+        * @param i Index of the first value
+        * @return The index after the last value
+        *
+        * @since 0.7.0
+        */
+        int copyTo(Object[] a, int i) {
+            for (int k = 0, n = size(); k < n; k += 1) {
+                Object o = get(k);
+                if (o instanceof Quelette) {
+                    i = ((Quelette<?>) o).copyTo(a, i);
+                } else {
+                    a[i] = o;
+                    i += 1;
+                }
+            }
+            return i;
+        }
+
+        /**
+        * @return the capacity of the Quelette.
+        *
+        * @since 1.0.0
+        */
+        public abstract int size();
+        /**
+        * @return True if the Quelette cannot be pushed to.
+        *
+        * @since 1.0.0
+        */
+        public abstract boolean isFull();
+        /**
+        * Look at the left value of the Quelette.
+        *
+        * @return The leftmost value in the quelette.
+        * @throws EmptyQueueException if has no data
+        *
+        * @since 1.0.0
+        */
+        public abstract E peekLeft();
+        /**
+        * Look at the right value of the Quelette
+        *
+        * @return The rightmost value in the Quelette
+        * @throws EmptyQueueException if has no data
+        *
+        * @since 1.0.0
+        */
+        public abstract E peekRight();
+        /**
+        * Push value to the left of the Quelette.
+        *
+        * @return A new Quelette with updated state.
+        * @throws EmptyQueueException if Quelette is full. This should be changed to better exception.
+        *
+        * @since 1.0.0
+        */
+        public abstract Quelette<E> pushLeft(E e);
+        /**
+        * Push falue to the right of the queue.
+        *
+        * @return A new Quelette with updated state.
+        * @throws EmptyQueueException if Quelette is full. This should be changed to better exception.
+        *
+        * @since 1.0.0
+        */
+        public abstract Quelette<E> pushRight(E e);
+        /**
+        * Remove leftmost value of the Quelette
+        *
+        * @return A new quelette with updated state.
+        * @throws EmptyQueueException if has no data.
+        *
+        * @since 1.0.0
+        */
+        public abstract Quelette<E> popLeft();
+        /**
+        * Remove rightmost value of the Quelette.
+        *
+        * @return A new Quelette with updated state.
+        * @throws EmptyQueueException if has no ata
+        *
+        * @since 1.0.0
+        */
+        public abstract Quelette<E> popRight();
+        /**
+        * Look at a value of the Quelette by position.
+        *
+        * @param index Position of the value, counting from the right
+        * @return The value at that position.
+        * @throws IndexOutOfBoundsException if there is no such position.
+        *
+        * @since 1.1.0
+        */
+        public abstract E get(int index);
+    }
+    /**
+    * Factory for Quelettes.
+    *
+    * @since 0.7.0
+    */
+    private static final class Quelettes {
+        private Quelettes () {}
+        /**
+        * Create a Quelette from up to four values in iteration order.
+        *
+        * @param a Values, the one at from becomes the rightmost
+        * @param from First index to use
+        * @param to Index after the last one to use
+        * @return A new Quelette holding the values
+        *
+        * @since 0.7.0
+        */
+        @SuppressWarnings("unchecked")
+        static <E> Quelette<E> of(Object[] a, int from, int to) {
+            switch (to - from) {
+                case 0: return Zero.instance();
+                case 1: return new One<E>((E) a[from]);
+                case 2: return new Two<E>((E) a[from], (E) a[from + 1]);
+                case 3: return new Three<E>((E) a[from], (E) a[from + 1], (E) a[from + 2]);
+                case 4: return new Four<E>((E) a[from], (E) a[from + 1], (E) a[from + 2], (E) a[from + 3]);
+                default: throw new IllegalArgumentException();
+            }
+        }
+        /**
+        * Copy some slots of a Quelette into a new one.
+        *
+        * @param q The Quelette to copy from
+        * @param from First slot to copy, counting from the right
+        * @param to Slot after the last one to copy
+        * @return A new Quelette holding the slots
+        *
+        * @since 0.7.0
+        */
+        static <E> Quelette<E> slice(Quelette<E> q, int from, int to) {
+            switch (to - from) {
+                case 0: return Zero.instance();
+                case 1: return new One<E>(q.get(from));
+                case 2: return new Two<E>(q.get(from), q.get(from + 1));
+                case 3: return new Three<E>(q.get(from), q.get(from + 1), q.get(from + 2));
+                case 4: return q;
+                default: throw new IllegalArgumentException();
+            }
+        }
+        /**
+        * Group values into as few Quelettes as possible, sized evenly.
+        *
+        * @param a Values in iteration order, not retained
+        * @return The Quelettes in iteration order
+        *
+        * @since 0.7.0
+        */
+        static Object[] group(Object[] a) {
+            int count = (a.length + 3) / 4;
+            Object[] nodes = new Object[count];
+            int from = 0;
+            for (int i = 0; i < count; i += 1) {
+                int to = from + (a.length - from) / (count - i);
+                nodes[i] = of(a, from, to);
+                from = to;
+            }
+            return nodes;
+        }
+    }
+    private static final class Zero<E> extends Quelette<E> {
+        private static final Zero<Object> INSTANCE = new Zero<Object>();
+        @SuppressWarnings("unchecked")
+        public static <E> Quelette<E> instance() { return (Quelette<E>) INSTANCE; }
+        private Zero () { super(0); }
+        public int size() { return 0; }
+        public boolean isFull() { return false; }
+        public E peekLeft() { throw new EmptyQueueException(); }
+        public E peekRight() { throw new EmptyQueueException(); }
+        public Quelette<E> pushLeft(E e) { return new One<E>(e); }
+        public Quelette<E> pushRight(E e) { return new One<E>(e); }
+        public Quelette<E> popLeft() { throw new EmptyQueueException(); }
+        public Quelette<E> popRight() { throw new EmptyQueueException(); }
+        public E get(int index) { throw new IndexOutOfBoundsException(); }
+        public Quelette<E> flip() { return this; }
+        public Quelette<Object> map(Function<Object, Object> f) { return instance(); }
+    }
+    private static final class One<E> extends Quelette<E> {
+        private final E v1;
+        public One (E v1) {
+            super(weightOf(v1));
+            this.v1 = v1;
+        }
+        public int size () { return 1; }
+        public boolean isFull() { return false; }
+        public E peekRight() { return v1; }
+        public E peekLeft() { return v1; }
+        public Quelette<E> pushRight(E e) { return new Two<E>(e, v1); }
+        public Quelette<E> pushLeft(E e) { return new Two<E>(v1, e); }
+        public Quelette<E> popRight() { return Zero.instance(); }
+        public Quelette<E> popLeft() { return Zero.instance(); }
+        public Quelette<E> flip() { return new One<E>(flipped(v1)); }
+        public Quelette<Object> map(Function<Object, Object> f) { return new One<Object>(mapped(v1, f)); }
+        public E get(int index) {
+            if (index == 0) { return v1; }
+            throw new IndexOutOfBoundsException();
+        }
+    }
+    private static final class Two<E> extends Quelette<E> {
+        private final E v1;
+        private final E v2;
+        public Two(E v1, E v2) { 
+            super(weightOf(v1) + weightOf(v2));
+            this.v1 = v1;
+            this.v2 = v2;
+        }
+        public int size () { return 2; }
+        public boolean isFull() { return false; }
+        public E peekRight() { return v1; }
+        public E peekLeft() { return v2; }
+        public Quelette<E> pushRight(E e) { return new Three<E>(e, v1, v2); }
+        public Quelette<E> pushLeft(E e) { return new Three<E>(v1, v2, e); }
+        public Quelette<E> popRight() { return new One<E>(v2); }
+        public Quelette<E> flip() { return new Two<E>(flipped(v2), flipped(v1)); }
+        public Quelette<Object> map(Function<Object, Object> f) { return new Two<Object>(mapped(v1, f), mapped(v2, f)); }
+        public Quelette<E> popLeft() { return new One<E>(v1); }
+        public E get(int index) {
+            switch (index) {
+                case 0: return v1;
+                case 1: return v2;
+                default: throw new IndexOutOfBoundsException();
+            }
+        }
+    }
+    private static final class Three<E> extends Quelette<E> {
+        private final E v1;
+        private final E v2;
+        private final E v3;
+        public Three(E v1, E v2, E v3) { 
+            super(weightOf(v1) + weightOf(v2) + weightOf(v3));
+            this.v1 = v1;
+            this.v2 = v2;
+            this.v3 = v3;
+        }
+        public int size () { return 3; }
+        public boolean isFull() { return false; }
+        public E peekRight() { return v1; }
+        public E peekLeft() { return v3; }
+        public Quelette<E> pushRight(E e) { return new Four<E>(e, v1, v2, v3); }
+        public Quelette<E> pushLeft(E e) { return new Four<E>(v1, v2, v3, e); }
+        public Quelette<E> popRight() { return new Two<E>(v2, v3); }
+        public Quelette<E> popLeft() { return new Two<E>(v1, v2); }
+        public Quelette<E> flip() { return new Three<E>(flipped(v3), flipped(v2), flipped(v1)); }
+        public Quelette<Object> map(Function<Object, Object> f) {
+            return new Three<Object>(mapped(v1, f), mapped(v2, f), mapped(v3, f));
+        }
+        public E get(int index) {
+            switch (index) {
+                case 0: return v1;
+                case 1: return v2;
+                case 2: return v3;
+                default: throw new IndexOutOfBoundsException();
+            }
+        }
+    }
+    private static final class Four<E> extends Quelette<E> {
+        private final E v1;
+        private final E v2;
+        private final E v3;
+        private final E v4;
+        public Four(E v1, E v2, E v3, E v4) { 
+            super(weightOf(v1) + weightOf(v2) + weightOf(v3) + weightOf(v4));
+            this.v1 = v1;
+            this.v2 = v2;
+            this.v3 = v3;
+            this.v4 = v4;
+        }
+        public int size () { return 4; }
+        public boolean isFull() { return true; }
+        public E peekRight() { return v1; }
+        public E peekLeft() { return v4; }
+        public Quelette<E> pushRight(E e) { throw new EmptyQueueException(); }
+        public Quelette<E> pushLeft(E e) { throw new EmptyQueueException(); }
+        public Quelette<E> popRight() { return new Three<E>(v2, v3, v4); }
+        public Quelette<E> popLeft() { return new Three<E>(v1, v2, v3); }
+        public Quelette<E> flip() { return new Four<E>(flipped(v4), flipped(v3), flipped(v2), flipped(v1)); }
+        public Quelette<Object> map(Function<Object, Object> f) {
+            return new Four<Object>(mapped(v1, f), mapped(v2, f), mapped(v3, f), mapped(v4, f));
+        }
+        public E get(int index) {
+            switch (index) {
+                case 0: return v1;
+                case 1: return v2;
+                case 2: return v3;
+                case 3: return v4;
+                default: throw new IndexOutOfBoundsException();
+            }
+        }
+    }
+}
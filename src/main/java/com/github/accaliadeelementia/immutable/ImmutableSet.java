@@ -0,0 +1,235 @@
+package com.github.accaliadeelementia.immutable;
+
+import java.util.*;
+
+/**
+* An implementation of an Immutable Set.
+*
+* The elements are the keys of an {@link ImmutableMap}, all mapped to the
+* same marker value, so updates share structure the same way and adding an
+* element that is already present returns the same set.
+*
+* @author Accalia de Elementia <accalia.de.elementia@gmail.com>
+*
+* @version 0.7.0
+*/
+public final class ImmutableSet<E> implements ImmutableCollection<E> {
+
+    private static final Object PRESENT = Boolean.TRUE;
+
+    /**
+    * The shared empty set.
+    *
+    * @see #empty
+    */
+    private static final ImmutableSet<Object> EMPTY = new ImmutableSet<Object>(ImmutableMap.<Object, Object>empty());
+
+    private final ImmutableMap<E, Object> map;
+
+    /**
+    * Cached hash code, 0 until first computed.
+    *
+    * @see #hashCode
+    */
+    private int hash;
+
+    /**
+    * Create a new ImmutableSet.
+    *
+    * *PRIVATE* constructor.
+    *
+    * @param map The map holding the elements as keys
+    *
+    * @since 0.7.0
+    */
+    private ImmutableSet(ImmutableMap<E, Object> map) {
+        this.map = map;
+    }
+
+    /**
+    * Returns the shared empty ImmutableSet.
+    *
+    * @return The empty ImmutableSet
+    *
+    * @since 0.7.0
+    */
+    @SuppressWarnings("unchecked")
+    public static <E> ImmutableSet<E> empty() {
+        return (ImmutableSet<E>) EMPTY;
+    }
+
+    /**
+    * Create an ImmutableSet holding the given values.
+    *
+    * @param elements The values to store
+    * @return A new ImmutableSet holding the values
+    *
+    * @since 0.7.0
+    */
+    @SafeVarargs
+    public static <E> ImmutableSet<E> of(E... elements) {
+        return ImmutableSet.<E>empty().addAll(Arrays.asList(elements));
+    }
+
+    /**
+    * Create an ImmutableSet holding the contents of a Collection.
+    *
+    * @param c The values to store
+    * @return A new ImmutableSet holding the values
+    *
+    * @since 0.7.0
+    */
+    public static <E> ImmutableSet<E> copyOf(Collection<? extends E> c) {
+        return ImmutableSet.<E>empty().addAll(c);
+    }
+
+    private ImmutableSet<E> with(ImmutableMap<E, Object> m) {
+        if (m == map) {
+            return this;
+        }
+        if (m.isEmpty()) {
+            return empty();
+        }
+        return new ImmutableSet<E>(m);
+    }
+
+    /**
+    * Returns the number of elements in the set.
+    *
+    * @since 0.7.0
+    */
+    public int size() { return map.size(); }
+
+    /**
+    * Returns true if the set contains no elements, false otherwise.
+    *
+    * @since 0.7.0
+    */
+    public boolean isEmpty() { return map.isEmpty(); }
+
+    /**
+    * Returns true if the set holds an element equal to o.
+    *
+    * @param o The element to look for
+    * @return true if o is in the set
+    *
+    * @since 0.7.0
+    */
+    public boolean contains(Object o) { return map.containsKey(o); }
+
+    /**
+    * Add an element to the set.
+    *
+    * @param e The element
+    * @return A new ImmutableSet with updated state, or this set if e was
+    *         already present
+    *
+    * @since 0.7.0
+    */
+    public ImmutableSet<E> add(E e) { return with(map.put(e, PRESENT)); }
+
+    /**
+    * Add a lot of elements to the set.
+    *
+    * @param c An iterable object containing elements to add
+    * @return A new ImmutableSet with updated state
+    *
+    * @see #add
+    *
+    * @since 0.7.0
+    */
+    public ImmutableSet<E> addAll(Iterable<? extends E> c) {
+        ImmutableMap<E, Object> m = map;
+        for (E e: c) {
+            m = m.put(e, PRESENT);
+        }
+        return with(m);
+    }
+
+    /**
+    * Remove an element from the set.
+    *
+    * @param o The element to remove
+    * @return A new ImmutableSet with updated state, or this set if o was
+    *         missing
+    *
+    * @since 0.7.0
+    */
+    public ImmutableSet<E> remove(Object o) { return with(map.remove(o)); }
+
+    /**
+    * Create an array of the elements of the set, in iteration order.
+    *
+    * @return An array of the elements
+    *
+    * @since 0.7.0
+    */
+    public Object[] toArray() {
+        Object[] a = new Object[size()];
+        int i = 0;
+        for (Iterator<E> it = map.keyIterator(); it.hasNext(); i += 1) {
+            a[i] = it.next();
+        }
+        return a;
+    }
+
+    /**
+    * Create an iterator over the elements, in no particular order.
+    *
+    * @return an iterator of the elements
+    *
+    * @since 0.7.0
+    */
+    public Iterator<E> iterator() { return map.keyIterator(); }
+
+    /**
+    * Returns the hash code of the set.
+    *
+    * Computed like {@link Set#hashCode} on first use, then cached.
+    *
+    * @return The hash code of the set
+    *
+    * @since 0.7.0
+    */
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0 && !isEmpty()) {
+            for (E e: this) {
+                h += Objects.hashCode(e);
+            }
+            hash = h;
+        }
+        return h;
+    }
+
+    /**
+    * Compares the set with another ImmutableSet.
+    *
+    * Sets are equal when they hold equal elements.
+    *
+    * @param o The object to compare with
+    * @return True if o is an ImmutableSet with equal elements
+    *
+    * @since 0.7.0
+    */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ImmutableSet)) {
+            return false;
+        }
+        ImmutableSet<?> s = (ImmutableSet<?>) o;
+        if (size() != s.size() || hashCode() != s.hashCode()) {
+            return false;
+        }
+        for (E e: this) {
+            if (!s.contains(e)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
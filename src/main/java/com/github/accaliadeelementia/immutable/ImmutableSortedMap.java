@@ -0,0 +1,612 @@
+package com.github.accaliadeelementia.immutable;
+
+import java.util.*;
+
+/**
+* An implementation of an Immutable Sorted Map.
+*
+* The entries live in a left leaning red-black tree ordered by a
+* {@link Comparator}, or by the natural ordering of the keys when none is
+* given. Updates copy the path from the root to the changed node, plus the
+* few nodes rotated on the way back up, and share everything else, so get,
+* put and remove take O(log n) time.
+*
+* Null keys are only allowed if the comparator accepts them; null values
+* are allowed.
+*
+* @author Accalia de Elementia <accalia.de.elementia@gmail.com>
+*
+* @version 0.7.0
+*/
+public final class ImmutableSortedMap<K, V> implements ImmutableCollection<Map.Entry<K, V>> {
+
+    private static final boolean RED = true;
+    private static final boolean BLACK = false;
+
+    /**
+    * The shared empty map with natural ordering.
+    *
+    * @see #empty
+    */
+    private static final ImmutableSortedMap<Object, Object> EMPTY = new ImmutableSortedMap<Object, Object>(null, null, 0);
+
+    private final Comparator<? super K> comparator;
+    private final Node<K, V> root;
+    private final int length;
+
+    /**
+    * Cached hash code, 0 until first computed.
+    *
+    * @see #hashCode
+    */
+    private int hash;
+
+    /**
+    * Create a new ImmutableSortedMap.
+    *
+    * *PRIVATE* constructor.
+    *
+    * @param comparator The ordering of the keys, null for natural ordering
+    * @param root The root node of the tree
+    * @param length The number of entries
+    *
+    * @since 0.7.0
+    */
+    private ImmutableSortedMap(Comparator<? super K> comparator, Node<K, V> root, int length) {
+        this.comparator = comparator;
+        this.root = root;
+        this.length = length;
+    }
+
+    /**
+    * Returns the shared empty ImmutableSortedMap, ordered by the natural
+    * ordering of its keys.
+    *
+    * @return The empty ImmutableSortedMap
+    *
+    * @since 0.7.0
+    */
+    @SuppressWarnings("unchecked")
+    public static <K extends Comparable<? super K>, V> ImmutableSortedMap<K, V> empty() {
+        return (ImmutableSortedMap<K, V>) (ImmutableSortedMap<?, ?>) EMPTY;
+    }
+
+    /**
+    * Returns an empty ImmutableSortedMap ordered by a Comparator.
+    *
+    * @param comparator The ordering of the keys, null for natural ordering
+    * @return An empty ImmutableSortedMap
+    *
+    * @since 0.7.0
+    */
+    @SuppressWarnings("unchecked")
+    public static <K, V> ImmutableSortedMap<K, V> empty(Comparator<? super K> comparator) {
+        if (null == comparator) {
+            return (ImmutableSortedMap<K, V>) EMPTY;
+        }
+        return new ImmutableSortedMap<K, V>(comparator, null, 0);
+    }
+
+    /**
+    * Create an ImmutableSortedMap holding the entries of a Map, ordered by
+    * the natural ordering of the keys.
+    *
+    * @param m The entries to store
+    * @return A new ImmutableSortedMap holding the entries
+    *
+    * @since 0.7.0
+    */
+    public static <K extends Comparable<? super K>, V> ImmutableSortedMap<K, V> copyOf(Map<? extends K, ? extends V> m) {
+        return ImmutableSortedMap.<K, V>empty().putAll(m);
+    }
+
+    /**
+    * Returns the comparator ordering the keys, null for natural ordering.
+    *
+    * @since 0.7.0
+    */
+    public Comparator<? super K> comparator() { return comparator; }
+
+    /**
+    * Returns the number of entries in the map.
+    *
+    * @since 0.7.0
+    */
+    public int size() { return length; }
+
+    /**
+    * Returns true if the map contains no entries, false otherwise.
+    *
+    * @since 0.7.0
+    */
+    public boolean isEmpty() { return length == 0; }
+
+    @SuppressWarnings("unchecked")
+    private int compare(Object a, K b) {
+        if (null == comparator) {
+            return ((Comparable<Object>) a).compareTo(b);
+        }
+        return comparator.compare((K) a, b);
+    }
+
+    private Node<K, V> find(Object key) {
+        Node<K, V> n = root;
+        while (null != n) {
+            int c = compare(key, n.key);
+            if (c == 0) {
+                return n;
+            }
+            n = c < 0 ? n.left : n.right;
+        }
+        return null;
+    }
+
+    /**
+    * Look up the value for a key.
+    *
+    * @param key The key to look up
+    * @return The value for key, or null if there is none
+    * @throws ClassCastException if key cannot be compared with the keys of the map
+    *
+    * @since 0.7.0
+    */
+    public V get(Object key) {
+        return getOrDefault(key, null);
+    }
+
+    /**
+    * Look up the value for a key.
+    *
+    * @param key The key to look up
+    * @param defaultValue The value to return if key is missing
+    * @return The value for key, or defaultValue if there is none
+    * @throws ClassCastException if key cannot be compared with the keys of the map
+    *
+    * @since 0.7.0
+    */
+    public V getOrDefault(Object key, V defaultValue) {
+        Node<K, V> n = find(key);
+        return null == n ? defaultValue : n.value;
+    }
+
+    /**
+    * Returns true if the map holds an entry for key.
+    *
+    * @param key The key to look for
+    * @return true if key is in the map
+    * @throws ClassCastException if key cannot be compared with the keys of the map
+    *
+    * @since 0.7.0
+    */
+    public boolean containsKey(Object key) {
+        return null != find(key);
+    }
+
+    /**
+    * Returns the entry with the lowest key, or null if the map is empty.
+    *
+    * @since 0.7.0
+    */
+    public Map.Entry<K, V> firstEntry() {
+        Node<K, V> n = root;
+        if (null == n) {
+            return null;
+        }
+        while (null != n.left) {
+            n = n.left;
+        }
+        return n.entry();
+    }
+
+    /**
+    * Returns the entry with the highest key, or null if the map is empty.
+    *
+    * @since 0.7.0
+    */
+    public Map.Entry<K, V> lastEntry() {
+        Node<K, V> n = root;
+        if (null == n) {
+            return null;
+        }
+        while (null != n.right) {
+            n = n.right;
+        }
+        return n.entry();
+    }
+
+    /**
+    * Returns the entry with the lowest key not below key, or null if there
+    * is none.
+    *
+    * @param key The key to look for
+    * @return The entry for key, or the next one after it
+    *
+    * @since 0.7.0
+    */
+    public Map.Entry<K, V> ceilingEntry(K key) {
+        Node<K, V> found = null;
+        for (Node<K, V> n = root; null != n; ) {
+            int c = compare(key, n.key);
+            if (c == 0) {
+                return n.entry();
+            }
+            if (c < 0) {
+                found = n;
+                n = n.left;
+            } else {
+                n = n.right;
+            }
+        }
+        return null == found ? null : found.entry();
+    }
+
+    /**
+    * Returns the entry with the highest key not above key, or null if there
+    * is none.
+    *
+    * @param key The key to look for
+    * @return The entry for key, or the one before it
+    *
+    * @since 0.7.0
+    */
+    public Map.Entry<K, V> floorEntry(K key) {
+        Node<K, V> found = null;
+        for (Node<K, V> n = root; null != n; ) {
+            int c = compare(key, n.key);
+            if (c == 0) {
+                return n.entry();
+            }
+            if (c > 0) {
+                found = n;
+                n = n.right;
+            } else {
+                n = n.left;
+            }
+        }
+        return null == found ? null : found.entry();
+    }
+
+    /**
+    * Map a key to a value.
+    *
+    * @param key The key
+    * @param value The value
+    * @return A new ImmutableSortedMap with updated state, or this map if key
+    *         was already mapped to value
+    *
+    * @since 0.7.0
+    */
+    public ImmutableSortedMap<K, V> put(K key, V value) {
+        if (null == root) {
+            compare(key, key);
+            return new ImmutableSortedMap<K, V>(comparator, new Node<K, V>(key, value, null, null, BLACK), 1);
+        }
+        Node<K, V> n = find(key);
+        if (null != n && n.value == value) {
+            return this;
+        }
+        Node<K, V> r = put(root, key, value);
+        if (r.red) {
+            r = r.with(BLACK);
+        }
+        return new ImmutableSortedMap<K, V>(comparator, r, null == n ? length + 1 : length);
+    }
+
+    private Node<K, V> put(Node<K, V> h, K key, V value) {
+        if (null == h) {
+            return new Node<K, V>(key, value, null, null, RED);
+        }
+        int c = compare(key, h.key);
+        if (c < 0) {
+            h = new Node<K, V>(h.key, h.value, put(h.left, key, value), h.right, h.red);
+        } else if (c > 0) {
+            h = new Node<K, V>(h.key, h.value, h.left, put(h.right, key, value), h.red);
+        } else {
+            return new Node<K, V>(h.key, value, h.left, h.right, h.red);
+        }
+        return balance(h);
+    }
+
+    /**
+    * Alias for put.
+    *
+    * @param e The entry to put
+    * @return A new ImmutableSortedMap with updated state
+    *
+    * @see #put
+    *
+    * @since 0.7.0
+    */
+    public ImmutableSortedMap<K, V> add(Map.Entry<K, V> e) { return put(e.getKey(), e.getValue()); }
+
+    /**
+    * Put a lot of entries.
+    *
+    * @param c An iterable object containing entries to put
+    * @return A new ImmutableSortedMap with updated state
+    *
+    * @see #put
+    *
+    * @since 0.7.0
+    */
+    public ImmutableSortedMap<K, V> addAll(Iterable<? extends Map.Entry<K, V>> c) {
+        ImmutableSortedMap<K, V> val = this;
+        for (Map.Entry<K, V> e: c) {
+            val = val.put(e.getKey(), e.getValue());
+        }
+        return val;
+    }
+
+    /**
+    * Put all the entries of a Map.
+    *
+    * @param m The entries to put
+    * @return A new ImmutableSortedMap with updated state
+    *
+    * @since 0.7.0
+    */
+    public ImmutableSortedMap<K, V> putAll(Map<? extends K, ? extends V> m) {
+        ImmutableSortedMap<K, V> val = this;
+        for (Map.Entry<? extends K, ? extends V> e: m.entrySet()) {
+            val = val.put(e.getKey(), e.getValue());
+        }
+        return val;
+    }
+
+    /**
+    * Remove the entry for a key.
+    *
+    * @param key The key to remove
+    * @return A new ImmutableSortedMap with updated state, or this map if key
+    *         was missing
+    *
+    * @since 0.7.0
+    */
+    public ImmutableSortedMap<K, V> remove(Object key) {
+        if (null == find(key)) {
+            return this;
+        }
+        Node<K, V> r = root;
+        if (!isRed(r.left) && !isRed(r.right)) {
+            r = r.with(RED);
+        }
+        r = remove(r, key);
+        if (null != r && r.red) {
+            r = r.with(BLACK);
+        }
+        return new ImmutableSortedMap<K, V>(comparator, r, length - 1);
+    }
+
+    // key is known to be in the tree below h
+    private Node<K, V> remove(Node<K, V> h, Object key) {
+        if (compare(key, h.key) < 0) {
+            if (!isRed(h.left) && !isRed(h.left.left)) {
+                h = moveRedLeft(h);
+            }
+            h = new Node<K, V>(h.key, h.value, remove(h.left, key), h.right, h.red);
+        } else {
+            if (isRed(h.left)) {
+                h = rotateRight(h);
+            }
+            if (null == h.right && compare(key, h.key) == 0) {
+                return null;
+            }
+            if (!isRed(h.right) && !isRed(h.right.left)) {
+                h = moveRedRight(h);
+            }
+            if (compare(key, h.key) == 0) {
+                Node<K, V> m = h.right;
+                while (null != m.left) {
+                    m = m.left;
+                }
+                h = new Node<K, V>(m.key, m.value, h.left, removeFirst(h.right), h.red);
+            } else {
+                h = new Node<K, V>(h.key, h.value, h.left, remove(h.right, key), h.red);
+            }
+        }
+        return balance(h);
+    }
+
+    private static <K, V> Node<K, V> removeFirst(Node<K, V> h) {
+        if (null == h.left) {
+            return null;
+        }
+        if (!isRed(h.left) && !isRed(h.left.left)) {
+            h = moveRedLeft(h);
+        }
+        return balance(new Node<K, V>(h.key, h.value, removeFirst(h.left), h.right, h.red));
+    }
+
+    private static boolean isRed(Node<?, ?> n) {
+        return null != n && n.red;
+    }
+
+    private static <K, V> Node<K, V> rotateLeft(Node<K, V> h) {
+        Node<K, V> x = h.right;
+        return new Node<K, V>(x.key, x.value, new Node<K, V>(h.key, h.value, h.left, x.left, RED), x.right, h.red);
+    }
+
+    private static <K, V> Node<K, V> rotateRight(Node<K, V> h) {
+        Node<K, V> x = h.left;
+        return new Node<K, V>(x.key, x.value, x.left, new Node<K, V>(h.key, h.value, x.right, h.right, RED), h.red);
+    }
+
+    private static <K, V> Node<K, V> flipColors(Node<K, V> h) {
+        return new Node<K, V>(h.key, h.value, h.left.with(!h.left.red), h.right.with(!h.right.red), !h.red);
+    }
+
+    private static <K, V> Node<K, V> moveRedLeft(Node<K, V> h) {
+        h = flipColors(h);
+        if (isRed(h.right.left)) {
+            h = new Node<K, V>(h.key, h.value, h.left, rotateRight(h.right), h.red);
+            h = flipColors(rotateLeft(h));
+        }
+        return h;
+    }
+
+    private static <K, V> Node<K, V> moveRedRight(Node<K, V> h) {
+        h = flipColors(h);
+        if (isRed(h.left.left)) {
+            h = flipColors(rotateRight(h));
+        }
+        return h;
+    }
+
+    private static <K, V> Node<K, V> balance(Node<K, V> h) {
+        if (isRed(h.right) && !isRed(h.left)) {
+            h = rotateLeft(h);
+        }
+        if (isRed(h.left) && isRed(h.left.left)) {
+            h = rotateRight(h);
+        }
+        if (isRed(h.left) && isRed(h.right)) {
+            h = flipColors(h);
+        }
+        return h;
+    }
+
+    /**
+    * Create an iterator over the entries, in key order.
+    *
+    * @return an iterator of the entries
+    *
+    * @since 0.7.0
+    */
+    public Iterator<Map.Entry<K, V>> iterator() {
+        final NodeIterator<K, V> it = new NodeIterator<K, V>(root);
+        return new Iterator<Map.Entry<K, V>>() {
+            public boolean hasNext() { return it.hasNext(); }
+            public Map.Entry<K, V> next() { return it.next().entry(); }
+            public void remove() { throw new UnsupportedOperationException(); }
+        };
+    }
+
+    /**
+    * Create an iterator over the keys, in order.
+    *
+    * @return an iterator of the keys
+    *
+    * @since 0.7.0
+    */
+    public Iterator<K> keyIterator() {
+        final NodeIterator<K, V> it = new NodeIterator<K, V>(root);
+        return new Iterator<K>() {
+            public boolean hasNext() { return it.hasNext(); }
+            public K next() { return it.next().key; }
+            public void remove() { throw new UnsupportedOperationException(); }
+        };
+    }
+
+    /**
+    * Returns the hash code of the map.
+    *
+    * Computed like {@link Map#hashCode} on first use, then cached.
+    *
+    * @return The hash code of the map
+    *
+    * @since 0.7.0
+    */
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0 && length > 0) {
+            for (NodeIterator<K, V> it = new NodeIterator<K, V>(root); it.hasNext(); ) {
+                Node<K, V> n = it.next();
+                h += Objects.hashCode(n.key) ^ Objects.hashCode(n.value);
+            }
+            hash = h;
+        }
+        return h;
+    }
+
+    /**
+    * Compares the map with another ImmutableSortedMap.
+    *
+    * Maps are equal when they hold equal values for the same keys, in the
+    * same order.
+    *
+    * @param o The object to compare with
+    * @return True if o is an ImmutableSortedMap with equal entries
+    *
+    * @since 0.7.0
+    */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ImmutableSortedMap)) {
+            return false;
+        }
+        ImmutableSortedMap<?, ?> m = (ImmutableSortedMap<?, ?>) o;
+        if (length != m.length || hashCode() != m.hashCode()) {
+            return false;
+        }
+        Iterator<? extends Map.Entry<?, ?>> other = m.iterator();
+        for (Map.Entry<K, V> e: this) {
+            if (!e.equals(other.next())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+    * A node of the tree.
+    *
+    * @since 0.7.0
+    */
+    private static final class Node<K, V> {
+        final K key;
+        final V value;
+        final Node<K, V> left;
+        final Node<K, V> right;
+        final boolean red;
+
+        Node(K key, V value, Node<K, V> left, Node<K, V> right, boolean red) {
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.red = red;
+        }
+
+        Node<K, V> with(boolean color) {
+            return new Node<K, V>(key, value, left, right, color);
+        }
+
+        Map.Entry<K, V> entry() {
+            return new AbstractMap.SimpleImmutableEntry<K, V>(key, value);
+        }
+    }
+
+    /**
+    * Walks the nodes of a tree in key order.
+    *
+    * @since 0.7.0
+    */
+    private static final class NodeIterator<K, V> {
+        private final ArrayDeque<Node<K, V>> path = new ArrayDeque<Node<K, V>>();
+
+        NodeIterator(Node<K, V> root) {
+            descend(root);
+        }
+
+        private void descend(Node<K, V> n) {
+            for (; null != n; n = n.left) {
+                path.push(n);
+            }
+        }
+
+        boolean hasNext() { return !path.isEmpty(); }
+
+        Node<K, V> next() {
+            if (path.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            Node<K, V> n = path.pop();
+            descend(n.right);
+            return n;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.github.accaliadeelementia.immutable;
+
+import java.util.*;
+
+/**
+* An implementation of an Immutable Sorted Set.
+*
+* The elements are the keys of an {@link ImmutableSortedMap}, all mapped to
+* the same marker value, so they are kept in comparator order and updates
+* share structure the same way.
+*
+* @author Accalia de Elementia <accalia.de.elementia@gmail.com>
+*
+* @version 0.7.0
+*/
+public final class ImmutableSortedSet<E> implements ImmutableCollection<E> {
+
+    private static final Object PRESENT = Boolean.TRUE;
+
+    /**
+    * The shared empty set with natural ordering.
+    *
+    * @see #empty
+    */
+    private static final ImmutableSortedSet<Object> EMPTY =
+        new ImmutableSortedSet<Object>(ImmutableSortedMap.<Object, Object>empty(null));
+
+    private final ImmutableSortedMap<E, Object> map;
+
+    /**
+    * Cached hash code, 0 until first computed.
+    *
+    * @see #hashCode
+    */
+    private int hash;
+
+    /**
+    * Create a new ImmutableSortedSet.
+    *
+    * *PRIVATE* constructor.
+    *
+    * @param map The map holding the elements as keys
+    *
+    * @since 0.7.0
+    */
+    private ImmutableSortedSet(ImmutableSortedMap<E, Object> map) {
+        this.map = map;
+    }
+
+    /**
+    * Returns the shared empty ImmutableSortedSet, ordered by the natural
+    * ordering of its elements.
+    *
+    * @return The empty ImmutableSortedSet
+    *
+    * @since 0.7.0
+    */
+    @SuppressWarnings("unchecked")
+    public static <E extends Comparable<? super E>> ImmutableSortedSet<E> empty() {
+        return (ImmutableSortedSet<E>) (ImmutableSortedSet<?>) EMPTY;
+    }
+
+    /**
+    * Returns an empty ImmutableSortedSet ordered by a Comparator.
+    *
+    * @param comparator The ordering of the elements, null for natural ordering
+    * @return An empty ImmutableSortedSet
+    *
+    * @since 0.7.0
+    */
+    public static <E> ImmutableSortedSet<E> empty(Comparator<? super E> comparator) {
+        return new ImmutableSortedSet<E>(ImmutableSortedMap.<E, Object>empty(comparator));
+    }
+
+    /**
+    * Create an ImmutableSortedSet holding the given values, in natural
+    * ordering.
+    *
+    * @param elements The values to store
+    * @return A new ImmutableSortedSet holding the values
+    *
+    * @since 0.7.0
+    */
+    @SafeVarargs
+    public static <E extends Comparable<? super E>> ImmutableSortedSet<E> of(E... elements) {
+        return ImmutableSortedSet.<E>empty().addAll(Arrays.asList(elements));
+    }
+
+    private ImmutableSortedSet<E> with(ImmutableSortedMap<E, Object> m) {
+        return m == map ? this : new ImmutableSortedSet<E>(m);
+    }
+
+    /**
+    * Returns the comparator ordering the elements, null for natural ordering.
+    *
+    * @since 0.7.0
+    */
+    public Comparator<? super E> comparator() { return map.comparator(); }
+
+    /**
+    * Returns the number of elements in the set.
+    *
+    * @since 0.7.0
+    */
+    public int size() { return map.size(); }
+
+    /**
+    * Returns true if the set contains no elements, false otherwise.
+    *
+    * @since 0.7.0
+    */
+    public boolean isEmpty() { return map.isEmpty(); }
+
+    /**
+    * Returns true if the set holds an element equal to o.
+    *
+    * @param o The element to look for
+    * @return true if o is in the set
+    * @throws ClassCastException if o cannot be compared with the elements of the set
+    *
+    * @since 0.7.0
+    */
+    public boolean contains(Object o) { return map.containsKey(o); }
+
+    /**
+    * Returns the lowest element.
+    *
+    * @return The lowest element
+    * @throws NoSuchElementException if the set is empty
+    *
+    * @since 0.7.0
+    */
+    public E first() {
+        Map.Entry<E, Object> e = map.firstEntry();
+        if (null == e) {
+            throw new NoSuchElementException();
+        }
+        return e.getKey();
+    }
+
+    /**
+    * Returns the highest element.
+    *
+    * @return The highest element
+    * @throws NoSuchElementException if the set is empty
+    *
+    * @since 0.7.0
+    */
+    public E last() {
+        Map.Entry<E, Object> e = map.lastEntry();
+        if (null == e) {
+            throw new NoSuchElementException();
+        }
+        return e.getKey();
+    }
+
+    /**
+    * Add an element to the set.
+    *
+    * @param e The element
+    * @return A new ImmutableSortedSet with updated state, or this set if e
+    *         was already present
+    *
+    * @since 0.7.0
+    */
+    public ImmutableSortedSet<E> add(E e) { return with(map.put(e, PRESENT)); }
+
+    /**
+    * Add a lot of elements to the set.
+    *
+    * @param c An iterable object containing elements to add
+    * @return A new ImmutableSortedSet with updated state
+    *
+    * @see #add
+    *
+    * @since 0.7.0
+    */
+    public ImmutableSortedSet<E> addAll(Iterable<? extends E> c) {
+        ImmutableSortedMap<E, Object> m = map;
+        for (E e: c) {
+            m = m.put(e, PRESENT);
+        }
+        return with(m);
+    }
+
+    /**
+    * Remove an element from the set.
+    *
+    * @param o The element to remove
+    * @return A new ImmutableSortedSet with updated state, or this set if o
+    *         was missing
+    *
+    * @since 0.7.0
+    */
+    public ImmutableSortedSet<E> remove(Object o) { return with(map.remove(o)); }
+
+    /**
+    * Create an array of the elements of the set, in order.
+    *
+    * @return An array of the elements
+    *
+    * @since 0.7.0
+    */
+    public Object[] toArray() {
+        Object[] a = new Object[size()];
+        int i = 0;
+        for (Iterator<E> it = map.keyIterator(); it.hasNext(); i += 1) {
+            a[i] = it.next();
+        }
+        return a;
+    }
+
+    /**
+    * Create an iterator over the elements, in order.
+    *
+    * @return an iterator of the elements
+    *
+    * @since 0.7.0
+    */
+    public Iterator<E> iterator() { return map.keyIterator(); }
+
+    /**
+    * Returns the hash code of the set.
+    *
+    * Computed like {@link Set#hashCode} on first use, then cached.
+    *
+    * @return The hash code of the set
+    *
+    * @since 0.7.0
+    */
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0 && !isEmpty()) {
+            for (E e: this) {
+                h += Objects.hashCode(e);
+            }
+            hash = h;
+        }
+        return h;
+    }
+
+    /**
+    * Compares the set with another ImmutableSortedSet.
+    *
+    * Sets are equal when they hold equal elements in the same order.
+    *
+    * @param o The object to compare with
+    * @return True if o is an ImmutableSortedSet with equal elements
+    *
+    * @since 0.7.0
+    */
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof ImmutableSortedSet && map.equals(((ImmutableSortedSet<?>) o).map));
+    }
+}
@@ -0,0 +1,306 @@
+package com.github.accaliadeelementia.immutable;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+//Based off of Eric Lippert's C# Immutable Queue
+// http://blogs.msdn.com/b/ericlippert/archive/2007/12/10/immutability-in-c-part-four-an-immutable-queue.aspx
+public final class ImmutableStack<E> implements ImmutableCollection<E>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final class ImmutableStackIterator<E> implements Iterator<E> {
+        private ImmutableStack<E> collection;
+        private ImmutableStackIterator(ImmutableStack<E> c) {
+            collection = c;
+        }
+        public boolean hasNext() {
+            return ! collection.isEmpty();
+        }
+        public E next() {
+            E e = collection.peek();
+            collection = collection.pop();
+            return e;
+        }
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+    private static final ImmutableStack<Object> EMPTY = new ImmutableStack<Object>();
+
+    private final ImmutableStack<E> tail;
+    private final E data;
+    private final int length;
+    //Hash of the elements from the bottom up, extended by every push like
+    //  length, so hashCode() never walks the stack.
+    private final int hash;
+    public ImmutableStack () {
+        tail = null;
+        data = null;
+        length = 0;
+        hash = 1;
+    }
+    public ImmutableStack (E initial) {
+        tail = empty();
+        data = initial;
+        length = 1;
+        hash = 31 * tail.hash + Objects.hashCode(initial);
+    }
+    public ImmutableStack (Iterable<? extends E> initial) {
+        ImmutableStack<E> tmp = ImmutableStack.<E>empty().addAll(initial);
+        data = tmp.data;
+        length = tmp.length;
+        tail = tmp.tail;
+        hash = tmp.hash;
+    }
+    private ImmutableStack (ImmutableStack<E> c, E e, int length) {
+        tail = c;
+        data = e;
+        this.length = length;
+        hash = 31 * c.hash + Objects.hashCode(e);
+    }
+
+    //The shared empty stack, prefer it over the constructor.
+    @SuppressWarnings("unchecked")
+    public static <E> ImmutableStack<E> empty() {
+        return (ImmutableStack<E>) EMPTY;
+    }
+
+    //Pushes the elements in argument order, so the last one ends on top.
+    @SafeVarargs
+    public static <E> ImmutableStack<E> of (E... elements) {
+        ImmutableStack<E> val = empty();
+        for (int i = 0; i < elements.length; i += 1) {
+            val = new ImmutableStack<E>(val, elements[i], i + 1);
+        }
+        return val;
+    }
+
+    //Pushes the elements in list order, so the last one ends on top.
+    public static <E> ImmutableStack<E> copyOf (List<? extends E> c) {
+        return ImmutableStack.<E>empty().addAll(c);
+    }
+
+    public ImmutableStack<E> push (E e) {
+        return new ImmutableStack<E> (this, e, length + 1);
+    }
+
+    //Pushes all of s onto this stack, keeping s in the same order on top.
+    //  The nodes of this stack are shared, as are all nodes of s when this
+    //  stack is empty.
+    @SuppressWarnings("unchecked")
+    public ImmutableStack<E> pushAll (ImmutableStack<? extends E> s) {
+        if (s.isEmpty()) {
+            return this;
+        }
+        if (isEmpty()) {
+            return (ImmutableStack<E>) s;
+        }
+        Object[] a = s.toArray();
+        ImmutableStack<E> val = this;
+        for (int i = a.length - 1; i >= 0; i -= 1) {
+            val = new ImmutableStack<E>(val, (E) a[i], val.length + 1);
+        }
+        return val;
+    }
+
+    //Applies f to every element, top first, into a stack of the same order.
+    //  The nodes are rebuilt from the bottom, so nothing recurses.
+    @SuppressWarnings("unchecked")
+    public <R> ImmutableStack<R> map (Function<? super E, ? extends R> f) {
+        if (null == f) {
+            throw new NullPointerException();
+        }
+        Object[] a = toArray();
+        for (int i = 0; i < a.length; i += 1) {
+            a[i] = f.apply((E) a[i]);
+        }
+        ImmutableStack<R> val = empty();
+        for (int i = a.length - 1; i >= 0; i -= 1) {
+            val = new ImmutableStack<R>(val, (R) a[i], val.length + 1);
+        }
+        return val;
+    }
+
+    public ImmutableStack<E> pop () {
+        if (null == tail) {
+            throw new EmptyStackException();
+        }
+        return tail;
+    }
+
+    public E peek () {
+        if (null == tail) {
+            throw new EmptyStackException();
+        }
+        return data;
+    }
+
+    public ImmutableStack<E> add (E e) {
+        return push(e);
+    }
+
+    public ImmutableStack<E> addAll (Iterable<? extends E> c) {
+        ImmutableStack<E> val = this;
+        int size = length;
+        if (c instanceof RandomAccess && c instanceof List) {
+            List<? extends E> l = (List<? extends E>) c;
+            for (int i = 0, n = l.size(); i < n; i += 1) {
+                size += 1;
+                val = new ImmutableStack<E>(val, l.get(i), size);
+            }
+            return val;
+        }
+        for(E e: c) {
+            size += 1;
+            val = new ImmutableStack<E>(val, e, size);
+        }
+        return val;
+    }
+
+    public boolean isEmpty() {
+        return null == tail;
+    }
+
+    public int size() {
+        return length;
+    }
+
+    public int hashCode() {
+        return hash;
+    }
+
+    //Equal to another ImmutableStack with equal elements in the same order.
+    //  Stops comparing at the first node both stacks share.
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ImmutableStack)) {
+            return false;
+        }
+        ImmutableStack<?> a = this;
+        ImmutableStack<?> b = (ImmutableStack<?>) o;
+        if (a.length != b.length || a.hash != b.hash) {
+            return false;
+        }
+        while (a != b && null != a.tail) {
+            if (!Objects.equals(a.data, b.data)) {
+                return false;
+            }
+            a = a.tail;
+            b = b.tail;
+        }
+        return true;
+    }
+
+    //Serialized through SerializedCollection as the elements, top first, so
+    //  a long stack never recurses through its nodes.
+    private Object writeReplace() {
+        return new SerializedCollection(SerializedCollection.STACK, toArray());
+    }
+
+    private void readObject(ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("Serialization proxy required");
+    }
+
+    public Iterator<E> iterator() {
+        return new ImmutableStackIterator<E>(this);
+    }
+
+    public Spliterator<E> spliterator() {
+        return new ImmutableStackSpliterator<E>(this);
+    }
+
+    //Splits off growing batches from the top of the stack, copied into
+    //  arrays, since the rest of a stack can only be reached by walking it.
+    private static final class ImmutableStackSpliterator<E> implements Spliterator<E> {
+        private static final int BATCH_UNIT = 1 << 10;
+        private static final int MAX_BATCH = 1 << 25;
+        private ImmutableStack<E> stack;
+        private int batch;
+        private ImmutableStackSpliterator(ImmutableStack<E> s) {
+            stack = s;
+        }
+        public boolean tryAdvance(Consumer<? super E> action) {
+            Objects.requireNonNull(action);
+            if (stack.isEmpty()) {
+                return false;
+            }
+            action.accept(stack.data);
+            stack = stack.tail;
+            return true;
+        }
+        public void forEachRemaining(Consumer<? super E> action) {
+            Objects.requireNonNull(action);
+            for (ImmutableStack<E> s = stack; !s.isEmpty(); s = s.tail) {
+                action.accept(s.data);
+            }
+            stack = empty();
+        }
+        public Spliterator<E> trySplit() {
+            int n = Math.min(Math.min(batch + BATCH_UNIT, MAX_BATCH), stack.length);
+            if (stack.length < 2) {
+                return null;
+            }
+            Object[] a = new Object[n];
+            ImmutableStack<E> s = stack;
+            for (int i = 0; i < n; i += 1) {
+                a[i] = s.data;
+                s = s.tail;
+            }
+            stack = s;
+            batch = n;
+            return Spliterators.spliterator(a, ORDERED | IMMUTABLE);
+        }
+        public long estimateSize() {
+            return stack.length;
+        }
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | IMMUTABLE;
+        }
+    }
+    public Object[] toArray() {
+        Object[] a = new Object[length];
+        copyTo(a, 0);
+        return a;
+    }
+
+    //Allocates a new array of the same type only when a is too short.
+    public <T> T[] toArray(T[] a) {
+        if (a.length < length) {
+            a = Arrays.copyOf(a, length);
+        } else if (a.length > length) {
+            a[length] = null;
+        }
+        copyTo(a, 0);
+        return a;
+    }
+
+    public <T> T[] toArray(IntFunction<T[]> generator) {
+        return toArray(generator.apply(length));
+    }
+
+    //Copies the elements, top first, into dest starting at offset.
+    //  Returns the index after the last element copied.
+    public <T> int copyInto(T[] dest, int offset) {
+        if (offset < 0 || offset > dest.length - length) {
+            throw new IndexOutOfBoundsException("Cannot copy " + length + " values to offset " + offset + " of length " + dest.length);
+        }
+        return copyTo(dest, offset);
+    }
+
+    private int copyTo(Object[] a, int i) {
+        for (ImmutableStack<E> s = this; null != s.tail; s = s.tail) {
+            a[i] = s.data;
+            i += 1;
+        }
+        return i;
+    }
+
+}
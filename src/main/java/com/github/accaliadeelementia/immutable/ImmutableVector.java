@@ -0,0 +1,824 @@
+package com.github.accaliadeelementia.immutable;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+* An implementation of an Immutable Vector, a list with fast indexed access.
+*
+* The values live in a 32 way Relaxed Radix Balanced (RRB) tree of arrays,
+* followed by a tail array of up to {@value #WIDTH} values. Nodes whose
+* children are all full are indexed by radix alone; nodes left with partly
+* filled children by {@link #slice} or {@link #concat} keep a table of
+* cumulative child sizes and are searched from the radix guess. Either way
+* get and set take O(log32 n) time.
+*
+* Appending onto the newest version of a vector fills the next free slot of
+* its tail in place; the slot is claimed atomically, like the chunks of
+* {@link ImmutableChunkedStack}, so appending onto an older version copies
+* the tail instead. A full tail becomes a leaf of the tree, so appends take
+* amortized constant time.
+*
+* Concatenation joins the right edge of one tree to the left edge of the
+* other and redistributes the nodes along the seam, which keeps the tree
+* shallow while sharing everything else.
+*
+* @author Accalia de Elementia <accalia.de.elementia@gmail.com>
+*
+* @version 0.7.0
+*/
+public final class ImmutableVector<E> implements ImmutableCollection<E> {
+
+    private static final int BITS = 5;
+    static final int WIDTH = 1 << BITS;
+
+    /**
+    * How many more nodes than the minimum a level may keep after
+    * concatenation before it is redistributed.
+    */
+    private static final int EXTRA = 2;
+
+    private static final Object[] NO_VALUES = new Object[0];
+
+    /**
+    * The shared empty vector.
+    *
+    * @see #empty
+    */
+    private static final ImmutableVector<Object> EMPTY = new ImmutableVector<Object>(NO_VALUES, 0, 0, null, 0);
+
+    // A leaf (Object[]) when shift is 0, otherwise a Node
+    private final Object root;
+    private final int shift;
+    private final int rootSize;
+    private final Tail tail;
+    private final int tailLength;
+
+    /**
+    * Cached hash code, 0 until first computed.
+    *
+    * @see #hashCode
+    */
+    private int hash;
+
+    /**
+    * Create a new ImmutableVector.
+    *
+    * *PRIVATE* constructor.
+    *
+    * @param root The root of the tree, a leaf array when shift is 0
+    * @param shift Five times the height of the tree
+    * @param rootSize The number of values in the tree
+    * @param tail The tail buffer, null when tailLength is 0
+    * @param tailLength The number of tail slots used by this version
+    *
+    * @since 0.7.0
+    */
+    private ImmutableVector(Object root, int shift, int rootSize, Tail tail, int tailLength) {
+        this.root = root;
+        this.shift = shift;
+        this.rootSize = rootSize;
+        this.tail = tail;
+        this.tailLength = tailLength;
+    }
+
+    /**
+    * Returns the shared empty ImmutableVector.
+    *
+    * @return The empty ImmutableVector
+    *
+    * @since 0.7.0
+    */
+    @SuppressWarnings("unchecked")
+    public static <E> ImmutableVector<E> empty() {
+        return (ImmutableVector<E>) EMPTY;
+    }
+
+    /**
+    * Create an ImmutableVector holding the given values, in order.
+    *
+    * @param elements The values to store
+    * @return A new ImmutableVector holding the values
+    *
+    * @since 0.7.0
+    */
+    @SafeVarargs
+    public static <E> ImmutableVector<E> of(E... elements) {
+        return ImmutableVector.<E>empty().addAll(Arrays.asList(elements));
+    }
+
+    /**
+    * Create an ImmutableVector holding the contents of a Collection.
+    *
+    * @param c The values to store
+    * @return A new ImmutableVector holding the values, in iteration order
+    *
+    * @since 0.7.0
+    */
+    public static <E> ImmutableVector<E> copyOf(Collection<? extends E> c) {
+        return ImmutableVector.<E>empty().addAll(c);
+    }
+
+    /**
+    * Returns the size of the vector.
+    *
+    * @since 0.7.0
+    */
+    public int size() { return rootSize + tailLength; }
+
+    /**
+    * Returns true if the vector contains no data, false otherwise.
+    *
+    * @since 0.7.0
+    */
+    public boolean isEmpty() { return size() == 0; }
+
+    /**
+    * Look up a value by position.
+    *
+    * @param index Position of the value
+    * @return The value at index
+    * @throws IndexOutOfBoundsException if index is negative or not less than the size
+    *
+    * @since 0.7.0
+    */
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        Preconditions.checkIndex(index, size());
+        if (index >= rootSize) {
+            return (E) tail.items[index - rootSize];
+        }
+        Object node = root;
+        for (int s = shift; s > 0; s -= BITS) {
+            Node n = (Node) node;
+            int i = n.child(index, s);
+            index -= n.before(i, s);
+            node = n.children[i];
+        }
+        return (E) ((Object[]) node)[index];
+    }
+
+    /**
+    * Replace a value by position.
+    *
+    * @param index Position of the value
+    * @param e The new value
+    * @return A new ImmutableVector with updated state
+    * @throws IndexOutOfBoundsException if index is negative or not less than the size
+    *
+    * @since 0.7.0
+    */
+    public ImmutableVector<E> set(int index, E e) {
+        Preconditions.checkIndex(index, size());
+        if (index >= rootSize) {
+            Tail t = new Tail(tail, tailLength);
+            t.claimed = tailLength;
+            t.items[index - rootSize] = e;
+            return new ImmutableVector<E>(root, shift, rootSize, t, tailLength);
+        }
+        return new ImmutableVector<E>(set(root, shift, index, e), shift, rootSize, tail, tailLength);
+    }
+
+    private static Object set(Object node, int s, int index, Object e) {
+        if (s == 0) {
+            Object[] leaf = ((Object[]) node).clone();
+            leaf[index] = e;
+            return leaf;
+        }
+        Node n = (Node) node;
+        int i = n.child(index, s);
+        Object[] children = n.children.clone();
+        children[i] = set(children[i], s - BITS, index - n.before(i, s), e);
+        return new Node(children, n.sizes, n.size);
+    }
+
+    /**
+    * Append a value to the end of the vector.
+    *
+    * @param e Data value to append
+    * @return A new ImmutableVector with updated state
+    *
+    * @since 0.7.0
+    */
+    public ImmutableVector<E> append(E e) {
+        if (tailLength < WIDTH) {
+            Tail t = tail;
+            if (null == t || !t.claim(tailLength)) {
+                // Another version already uses the next slot
+                t = new Tail(t, tailLength);
+            }
+            t.items[tailLength] = e;
+            return new ImmutableVector<E>(root, shift, rootSize, t, tailLength + 1);
+        }
+        Tail t = new Tail(null, 0);
+        t.items[0] = e;
+        return pushLeaf(tail.items).withTail(t, 1);
+    }
+
+    /**
+    * Alias for append.
+    *
+    * @param e Data value to append
+    * @return A new ImmutableVector with updated state
+    *
+    * @see #append
+    *
+    * @since 0.7.0
+    */
+    public ImmutableVector<E> add(E e) { return append(e); }
+
+    /**
+    * Append a lot of values, in iteration order.
+    *
+    * @param c An iterable object containing values to append
+    * @return A new ImmutableVector with updated state
+    *
+    * @see #append
+    *
+    * @since 0.7.0
+    */
+    public ImmutableVector<E> addAll(Iterable<? extends E> c) {
+        ImmutableVector<E> val = this;
+        for (E e: c) {
+            val = val.append(e);
+        }
+        return val;
+    }
+
+    /**
+    * Keep the first values.
+    *
+    * @param n The number of values to keep
+    * @return A new ImmutableVector of the first n values, or this vector if it is no larger
+    * @throws IllegalArgumentException if n is negative
+    *
+    * @since 0.7.0
+    */
+    public ImmutableVector<E> take(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException();
+        }
+        if (n >= size()) {
+            return this;
+        }
+        if (n == 0) {
+            return empty();
+        }
+        if (n > rootSize) {
+            return new ImmutableVector<E>(root, shift, rootSize, tail, n - rootSize);
+        }
+        if (n == rootSize) {
+            return new ImmutableVector<E>(root, shift, rootSize, null, 0);
+        }
+        return ImmutableVector.<E>tree(take(root, shift, n), shift, n).withTail(null, 0);
+    }
+
+    /**
+    * Remove the first values.
+    *
+    * @param n The number of values to remove
+    * @return A new ImmutableVector without the first n values, empty if it is no larger
+    * @throws IllegalArgumentException if n is negative
+    *
+    * @since 0.7.0
+    */
+    public ImmutableVector<E> drop(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException();
+        }
+        if (n == 0) {
+            return this;
+        }
+        if (n >= size()) {
+            return empty();
+        }
+        if (n >= rootSize) {
+            Tail t = new Tail(null, 0);
+            System.arraycopy(tail.items, n - rootSize, t.items, 0, size() - n);
+            t.claimed = size() - n;
+            return new ImmutableVector<E>(NO_VALUES, 0, 0, t, size() - n);
+        }
+        return ImmutableVector.<E>tree(drop(root, shift, n), shift, rootSize - n).withTail(tail, tailLength);
+    }
+
+    /**
+    * Create a vector of the values in a range of positions.
+    *
+    * Shares all of the tree except the paths to the ends of the range.
+    *
+    * @param from Position of the first value to keep
+    * @param to Position after the last value to keep
+    * @return A new ImmutableVector of the values from from to to
+    * @throws IndexOutOfBoundsException unless 0 &lt;= from &lt;= to &lt;= size
+    *
+    * @since 0.7.0
+    */
+    public ImmutableVector<E> slice(int from, int to) {
+        if (from < 0 || from > to || to > size()) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") out of bounds for length " + size());
+        }
+        return take(to).drop(from);
+    }
+
+    /**
+    * Join another vector to the end of this one.
+    *
+    * @param v The vector to join
+    * @return A new ImmutableVector holding the values of this vector and then of v
+    *
+    * @since 0.7.0
+    */
+    @SuppressWarnings("unchecked")
+    public ImmutableVector<E> concat(ImmutableVector<? extends E> v) {
+        ImmutableVector<E> other = (ImmutableVector<E>) v;
+        if (other.isEmpty()) {
+            return this;
+        }
+        if (isEmpty()) {
+            return other;
+        }
+        ImmutableVector<E> left = this;
+        if (tailLength > 0) {
+            left = pushLeaf(Arrays.copyOf(tail.items, tailLength));
+        }
+        if (other.rootSize == 0) {
+            return left.withTail(other.tail, other.tailLength);
+        }
+        Object[] joined = join(left.root, left.shift, other.root, other.shift);
+        int s = Math.max(left.shift, other.shift);
+        Object r = joined[0];
+        if (joined.length == 2) {
+            r = Node.of(joined, s + BITS);
+            s += BITS;
+        }
+        return ImmutableVector.<E>tree(r, s, left.rootSize + other.rootSize).withTail(other.tail, other.tailLength);
+    }
+
+    private ImmutableVector<E> withTail(Tail t, int n) {
+        return new ImmutableVector<E>(root, shift, rootSize, t, n);
+    }
+
+    /**
+    * Create a tailless vector from a tree, removing single child roots.
+    *
+    * @since 0.7.0
+    */
+    private static <E> ImmutableVector<E> tree(Object root, int shift, int size) {
+        while (shift > 0 && ((Node) root).children.length == 1) {
+            root = ((Node) root).children[0];
+            shift -= BITS;
+        }
+        return new ImmutableVector<E>(root, shift, size, null, 0);
+    }
+
+    /**
+    * Add a leaf after the last value of the tree, dropping the tail.
+    *
+    * @since 0.7.0
+    */
+    private ImmutableVector<E> pushLeaf(Object[] leaf) {
+        int size = rootSize + leaf.length;
+        if (rootSize == 0) {
+            return new ImmutableVector<E>(leaf, 0, size, null, 0);
+        }
+        if (shift == 0) {
+            return new ImmutableVector<E>(Node.of(new Object[] {root, leaf}, BITS), BITS, size, null, 0);
+        }
+        Node r = pushLeaf((Node) root, shift, leaf);
+        if (null != r) {
+            return new ImmutableVector<E>(r, shift, size, null, 0);
+        }
+        Object[] children = {root, path(shift, leaf)};
+        return new ImmutableVector<E>(Node.of(children, shift + BITS), shift + BITS, size, null, 0);
+    }
+
+    /**
+    * @return n with leaf added on its right edge, or null if n is full.
+    */
+    private static Node pushLeaf(Node n, int s, Object[] leaf) {
+        int last = n.children.length - 1;
+        if (s > BITS) {
+            Node r = pushLeaf((Node) n.children[last], s - BITS, leaf);
+            if (null != r) {
+                Object[] children = n.children.clone();
+                children[last] = r;
+                return Node.of(children, s);
+            }
+        }
+        if (n.children.length == WIDTH) {
+            return null;
+        }
+        Object[] children = Arrays.copyOf(n.children, n.children.length + 1);
+        children[last + 1] = path(s - BITS, leaf);
+        return Node.of(children, s);
+    }
+
+    /**
+    * @return leaf wrapped in single child nodes up to level s.
+    */
+    private static Object path(int s, Object[] leaf) {
+        return s == 0 ? leaf : Node.of(new Object[] {path(s - BITS, leaf)}, s);
+    }
+
+    private static int sizeOf(Object node) {
+        return node instanceof Node ? ((Node) node).size : ((Object[]) node).length;
+    }
+
+    /**
+    * @return the first n values of node, 0 &lt; n &lt;= size.
+    */
+    private static Object take(Object node, int s, int n) {
+        if (s == 0) {
+            Object[] leaf = (Object[]) node;
+            return n == leaf.length ? leaf : Arrays.copyOf(leaf, n);
+        }
+        Node nd = (Node) node;
+        if (n == nd.size) {
+            return nd;
+        }
+        int i = nd.child(n - 1, s);
+        Object[] children = Arrays.copyOf(nd.children, i + 1);
+        children[i] = take(children[i], s - BITS, n - nd.before(i, s));
+        return Node.of(children, s);
+    }
+
+    /**
+    * @return node without its first n values, 0 &lt;= n &lt; size.
+    */
+    private static Object drop(Object node, int s, int n) {
+        if (n == 0) {
+            return node;
+        }
+        if (s == 0) {
+            Object[] leaf = (Object[]) node;
+            return Arrays.copyOfRange(leaf, n, leaf.length);
+        }
+        Node nd = (Node) node;
+        int i = nd.child(n, s);
+        Object[] children = Arrays.copyOfRange(nd.children, i, nd.children.length);
+        children[0] = drop(children[0], s - BITS, n - nd.before(i, s));
+        return Node.of(children, s);
+    }
+
+    /**
+    * Join two trees along the seam between them.
+    *
+    * @return One or two nodes at the level of the taller tree, holding all
+    *         the values of a and then of b
+    *
+    * @since 0.7.0
+    */
+    private static Object[] join(Object a, int as, Object b, int bs) {
+        if (as > bs) {
+            Node n = (Node) a;
+            Object[] mid = join(n.children[n.children.length - 1], as - BITS, b, bs);
+            return rebalance(Arrays.copyOf(n.children, n.children.length - 1), mid, NO_VALUES, as);
+        }
+        if (as < bs) {
+            Node n = (Node) b;
+            Object[] mid = join(a, as, n.children[0], bs - BITS);
+            return rebalance(NO_VALUES, mid, Arrays.copyOfRange(n.children, 1, n.children.length), bs);
+        }
+        if (as == 0) {
+            return new Object[] {a, b};
+        }
+        Node l = (Node) a;
+        Node r = (Node) b;
+        Object[] mid = join(l.children[l.children.length - 1], as - BITS, r.children[0], bs - BITS);
+        return rebalance(Arrays.copyOf(l.children, l.children.length - 1), mid,
+            Arrays.copyOfRange(r.children, 1, r.children.length), as);
+    }
+
+    /**
+    * Redistribute the children of level s where two trees meet, so the
+    * level has at most {@link #EXTRA} more nodes than it needs, and pack
+    * them into nodes.
+    *
+    * @param l Children from the left tree
+    * @param m Children produced by joining the level below
+    * @param r Children from the right tree
+    * @param s Level of the nodes to return
+    * @return One or two nodes at level s
+    *
+    * @since 0.7.0
+    */
+    private static Object[] rebalance(Object[] l, Object[] m, Object[] r, int s) {
+        Object[] all = new Object[l.length + m.length + r.length];
+        System.arraycopy(l, 0, all, 0, l.length);
+        System.arraycopy(m, 0, all, l.length, m.length);
+        System.arraycopy(r, 0, all, l.length + m.length, r.length);
+        int[] plan = new int[all.length];
+        int total = 0;
+        for (int i = 0; i < all.length; i += 1) {
+            plan[i] = slots(all[i]);
+            total += plan[i];
+        }
+        int n = all.length;
+        int optimal = (total + WIDTH - 1) / WIDTH;
+        int i = 0;
+        while (n > optimal + EXTRA) {
+            while (plan[i] == WIDTH) {
+                i += 1;
+            }
+            // Spread the slots of node i over the nodes after it
+            int remaining = plan[i];
+            int j = i;
+            while (remaining > 0) {
+                int fill = Math.min(remaining + plan[j + 1], WIDTH);
+                remaining += plan[j + 1] - fill;
+                plan[j] = fill;
+                j += 1;
+            }
+            System.arraycopy(plan, j + 1, plan, j, n - j - 1);
+            n -= 1;
+        }
+        Object[] nodes = redistribute(all, plan, n, s - BITS);
+        if (n <= WIDTH) {
+            return new Object[] {Node.of(nodes, s)};
+        }
+        return new Object[] {
+            Node.of(Arrays.copyOf(nodes, WIDTH), s),
+            Node.of(Arrays.copyOfRange(nodes, WIDTH, n), s)
+        };
+    }
+
+    /**
+    * @return the number of slots of a node or leaf used.
+    */
+    private static int slots(Object node) {
+        return node instanceof Node ? ((Node) node).children.length : ((Object[]) node).length;
+    }
+
+    /**
+    * Regroup the slots of nodes at level s into nodes of the planned sizes,
+    * reusing the nodes that already match.
+    *
+    * @since 0.7.0
+    */
+    private static Object[] redistribute(Object[] all, int[] plan, int n, int s) {
+        Object[] nodes = new Object[n];
+        int source = 0;
+        int offset = 0;
+        for (int k = 0; k < n; k += 1) {
+            Object[] from = s == 0 ? (Object[]) all[source] : ((Node) all[source]).children;
+            if (offset == 0 && from.length == plan[k]) {
+                nodes[k] = all[source];
+                source += 1;
+                continue;
+            }
+            Object[] slots = new Object[plan[k]];
+            int filled = 0;
+            while (filled < plan[k]) {
+                from = s == 0 ? (Object[]) all[source] : ((Node) all[source]).children;
+                int count = Math.min(plan[k] - filled, from.length - offset);
+                System.arraycopy(from, offset, slots, filled, count);
+                filled += count;
+                offset += count;
+                if (offset == from.length) {
+                    source += 1;
+                    offset = 0;
+                }
+            }
+            nodes[k] = s == 0 ? slots : Node.of(slots, s);
+        }
+        return nodes;
+    }
+
+    /**
+    * Create an array of the values in the vector, in order.
+    *
+    * @return An array of the values
+    *
+    * @since 0.7.0
+    */
+    public Object[] toArray() {
+        Object[] a = new Object[size()];
+        copyTo(root, shift, a, 0);
+        if (tailLength > 0) {
+            System.arraycopy(tail.items, 0, a, rootSize, tailLength);
+        }
+        return a;
+    }
+
+    private static int copyTo(Object node, int s, Object[] a, int i) {
+        if (s == 0) {
+            Object[] leaf = (Object[]) node;
+            System.arraycopy(leaf, 0, a, i, leaf.length);
+            return i + leaf.length;
+        }
+        for (Object child: ((Node) node).children) {
+            i = copyTo(child, s - BITS, a, i);
+        }
+        return i;
+    }
+
+    /**
+    * Create an iterator over the values, in order.
+    *
+    * Walks one leaf array at a time, looking each leaf up from the root.
+    *
+    * @return an ImmutableVectorIterator
+    *
+    * @since 0.7.0
+    */
+    public Iterator<E> iterator() { return new ImmutableVectorIterator<E>(this); }
+
+    /**
+    * Returns the hash code of the vector.
+    *
+    * Computed like {@link List#hashCode} on first use, then cached.
+    *
+    * @return The hash code of the vector
+    *
+    * @since 0.7.0
+    */
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = 1;
+            for (E e: this) {
+                h = 31 * h + Objects.hashCode(e);
+            }
+            hash = h;
+        }
+        return h;
+    }
+
+    /**
+    * Compares the vector with another ImmutableVector.
+    *
+    * Vectors are equal when they hold equal values in the same order.
+    *
+    * @param o The object to compare with
+    * @return True if o is an ImmutableVector with equal values
+    *
+    * @since 0.7.0
+    */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ImmutableVector)) {
+            return false;
+        }
+        ImmutableVector<?> v = (ImmutableVector<?>) o;
+        if (size() != v.size()) {
+            return false;
+        }
+        if (hash != 0 && v.hash != 0 && hash != v.hash) {
+            return false;
+        }
+        Iterator<?> it = v.iterator();
+        for (E e: this) {
+            if (!Objects.equals(e, it.next())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+    * An iterator for ImmutableVectors
+    *
+    * @author Accalia de Elementia <accalia.de.elementia@gmail.com>
+    * @version 0.7.0
+    */
+    private static final class ImmutableVectorIterator<E> implements Iterator<E> {
+        private final ImmutableVector<E> vector;
+        private Object[] leaf = NO_VALUES;
+        private int index;
+        private int leafIndex;
+
+        ImmutableVectorIterator(ImmutableVector<E> vector) {
+            this.vector = vector;
+        }
+
+        public boolean hasNext() { return index < vector.size(); }
+
+        @SuppressWarnings("unchecked")
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (leafIndex == leaf.length) {
+                findLeaf();
+            }
+            index += 1;
+            return (E) leaf[leafIndex++];
+        }
+
+        private void findLeaf() {
+            leafIndex = 0;
+            if (index >= vector.rootSize) {
+                leaf = vector.tail.items;
+                return;
+            }
+            int i = index;
+            Object node = vector.root;
+            for (int s = vector.shift; s > 0; s -= BITS) {
+                Node n = (Node) node;
+                int c = n.child(i, s);
+                i -= n.before(c, s);
+                node = n.children[c];
+            }
+            // Only whole leaves are ever started
+            leaf = (Object[]) node;
+        }
+
+        public void remove() { throw new UnsupportedOperationException(); }
+    }
+
+    /**
+    * An inner node of the tree.
+    *
+    * sizes holds the cumulative number of values in the children, or is
+    * null when every child but the last is full, so children can be found
+    * by radix alone.
+    *
+    * @since 0.7.0
+    */
+    private static final class Node {
+        final Object[] children;
+        final int[] sizes;
+        final int size;
+
+        Node(Object[] children, int[] sizes, int size) {
+            this.children = children;
+            this.sizes = sizes;
+            this.size = size;
+        }
+
+        /**
+        * Create a node at level s, with a size table only if it needs one.
+        */
+        static Node of(Object[] children, int s) {
+            int[] sizes = new int[children.length];
+            boolean strict = true;
+            int total = 0;
+            for (int i = 0; i < children.length; i += 1) {
+                int n = sizeOf(children[i]);
+                total += n;
+                sizes[i] = total;
+                if (i < children.length - 1 && n != 1 << s) {
+                    strict = false;
+                }
+            }
+            return new Node(children, strict ? null : sizes, total);
+        }
+
+        /**
+        * @return the index of the child holding position index, at level s.
+        */
+        int child(int index, int s) {
+            int i = index >>> s;
+            if (null != sizes) {
+                while (sizes[i] <= index) {
+                    i += 1;
+                }
+            }
+            return i;
+        }
+
+        /**
+        * @return the number of values before child i, at level s.
+        */
+        int before(int i, int s) {
+            if (i == 0) {
+                return 0;
+            }
+            return null == sizes ? i << s : sizes[i - 1];
+        }
+    }
+
+    /**
+    * The tail buffer, shared by the versions that append to it.
+    *
+    * Slots below {@link #claimed} belong to some version of the vector and
+    * are never written again.
+    *
+    * @since 0.7.0
+    */
+    private static final class Tail {
+        private static final AtomicIntegerFieldUpdater<Tail> CLAIMED =
+            AtomicIntegerFieldUpdater.newUpdater(Tail.class, "claimed");
+
+        final Object[] items = new Object[WIDTH];
+        volatile int claimed;
+
+        /**
+        * Copy the first count slots of a tail, claiming one more.
+        */
+        Tail(Tail source, int count) {
+            if (count > 0) {
+                System.arraycopy(source.items, 0, items, 0, count);
+            }
+            this.claimed = count + 1;
+        }
+
+        boolean claim(int index) {
+            return claimed == index && CLAIMED.compareAndSet(this, index, index + 1);
+        }
+    }
+}
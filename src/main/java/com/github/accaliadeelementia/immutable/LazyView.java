@@ -0,0 +1,371 @@
+package com.github.accaliadeelementia.immutable;
+
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+* A lazy view of the values of an {@link ImmutableCollection}, transformed
+* by a pipeline of operations.
+*
+* Operations only describe the pipeline. Nothing is computed until a
+* terminal operation walks the source once, passing each value through
+* every stage before asking for the next, so no intermediate collections are
+* built. Consecutive maps of the source are composed into one function, and
+* a view that is just a map of an {@link ImmutableQueue} or an
+* {@link ImmutableStack} is materialized with the collection's own map,
+* keeping its shape.
+*
+* Views are immutable and may be walked any number of times; each walk
+* applies the functions again.
+*
+* @author Accalia de Elementia <accalia.de.elementia@gmail.com>
+*
+* @version 0.7.0
+*/
+public final class LazyView<E> implements Iterable<E> {
+
+    private static final Function<Object, Object> IDENTITY = Function.identity();
+
+    private final Iterable<E> values;
+
+    // The collection this view maps one to one, or null
+    private final ImmutableCollection<?> source;
+    private final Function<Object, E> mapper;
+
+    /**
+    * Create a new LazyView.
+    *
+    * *PRIVATE* constructor.
+    *
+    * @param values The values of the view
+    * @param source The collection values maps one to one, or null
+    * @param mapper The function values applies to source, or null
+    *
+    * @since 0.7.0
+    */
+    private LazyView(Iterable<E> values, ImmutableCollection<?> source, Function<Object, E> mapper) {
+        this.values = values;
+        this.source = source;
+        this.mapper = mapper;
+    }
+
+    /**
+    * Create a view of the values of a collection, in iteration order.
+    *
+    * @param c The collection to view
+    * @return A LazyView of c
+    *
+    * @see ImmutableCollection#lazy
+    *
+    * @since 0.7.0
+    */
+    @SuppressWarnings("unchecked")
+    static <E> LazyView<E> of(ImmutableCollection<E> c) {
+        return new LazyView<E>(c, c, (Function<Object, E>) IDENTITY);
+    }
+
+    /**
+    * Apply a function to every value.
+    *
+    * @param f The function to apply
+    * @return A LazyView of the mapped values
+    *
+    * @since 0.7.0
+    */
+    @SuppressWarnings("unchecked")
+    public <R> LazyView<R> map(final Function<? super E, ? extends R> f) {
+        if (null == f) {
+            throw new NullPointerException();
+        }
+        if (null != source) {
+            final ImmutableCollection<?> s = source;
+            final Function<Object, R> g = mapper == IDENTITY ? (Function<Object, R>) f : mapper.andThen(f);
+            return new LazyView<R>(new Iterable<R>() {
+                public Iterator<R> iterator() { return new MapIterator<Object, R>((Iterator<Object>) s.iterator(), g); }
+            }, s, g);
+        }
+        final Iterable<E> v = values;
+        return new LazyView<R>(new Iterable<R>() {
+            public Iterator<R> iterator() { return new MapIterator<E, R>(v.iterator(), f); }
+        }, null, null);
+    }
+
+    /**
+    * Keep the values matching a predicate.
+    *
+    * @param p The predicate to test
+    * @return A LazyView of the values matching p
+    *
+    * @since 0.7.0
+    */
+    public LazyView<E> filter(final Predicate<? super E> p) {
+        if (null == p) {
+            throw new NullPointerException();
+        }
+        final Iterable<E> v = values;
+        return new LazyView<E>(new Iterable<E>() {
+            public Iterator<E> iterator() { return new FilterIterator<E>(v.iterator(), p); }
+        }, null, null);
+    }
+
+    /**
+    * Replace every value with the values of an Iterable.
+    *
+    * @param f The function producing the values for a value
+    * @return A LazyView of the produced values, in order
+    *
+    * @since 0.7.0
+    */
+    public <R> LazyView<R> flatMap(final Function<? super E, ? extends Iterable<? extends R>> f) {
+        if (null == f) {
+            throw new NullPointerException();
+        }
+        final Iterable<E> v = values;
+        return new LazyView<R>(new Iterable<R>() {
+            public Iterator<R> iterator() { return new FlatMapIterator<E, R>(v.iterator(), f); }
+        }, null, null);
+    }
+
+    /**
+    * Keep the first values.
+    *
+    * Walks stop after the nth value, without asking the earlier stages for
+    * more.
+    *
+    * @param n The number of values to keep
+    * @return A LazyView of at most the first n values
+    * @throws IllegalArgumentException if n is negative
+    *
+    * @since 0.7.0
+    */
+    public LazyView<E> take(final int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException();
+        }
+        final Iterable<E> v = values;
+        return new LazyView<E>(new Iterable<E>() {
+            public Iterator<E> iterator() { return new TakeIterator<E>(v.iterator(), n); }
+        }, null, null);
+    }
+
+    /**
+    * Skip the first values.
+    *
+    * @param n The number of values to skip
+    * @return A LazyView of the values after the first n
+    * @throws IllegalArgumentException if n is negative
+    *
+    * @since 0.7.0
+    */
+    public LazyView<E> drop(final int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException();
+        }
+        if (n == 0) {
+            return this;
+        }
+        final Iterable<E> v = values;
+        return new LazyView<E>(new Iterable<E>() {
+            public Iterator<E> iterator() {
+                Iterator<E> it = v.iterator();
+                for (int i = 0; i < n && it.hasNext(); i += 1) {
+                    it.next();
+                }
+                return it;
+            }
+        }, null, null);
+    }
+
+    /**
+    * Combine the values from the first to the last.
+    *
+    * @param identity The starting result
+    * @param f The function combining a result with the next value
+    * @return The final result, or identity if the view is empty
+    *
+    * @since 0.7.0
+    */
+    public <R> R fold(R identity, BiFunction<R, ? super E, R> f) {
+        R result = identity;
+        for (E e: values) {
+            result = f.apply(result, e);
+        }
+        return result;
+    }
+
+    /**
+    * Create an iterator over the values of the view, computing them as it goes.
+    *
+    * @return an iterator of the values
+    *
+    * @since 0.7.0
+    */
+    public Iterator<E> iterator() { return values.iterator(); }
+
+    /**
+    * Materialize the view into a queue iterating in the same order.
+    *
+    * A map of an ImmutableQueue uses {@link ImmutableQueue#map}, keeping the
+    * queue's shape; anything else is built in one walk with an
+    * {@link ImmutableQueue.Builder}.
+    *
+    * @return An ImmutableQueue of the values
+    *
+    * @since 0.7.0
+    */
+    @SuppressWarnings("unchecked")
+    public ImmutableQueue<E> toQueue() {
+        if (source instanceof ImmutableQueue) {
+            if (mapper == IDENTITY) {
+                return (ImmutableQueue<E>) source;
+            }
+            return ((ImmutableQueue<Object>) source).map(mapper);
+        }
+        ImmutableQueue.Builder<E> b = ImmutableQueue.builder();
+        for (E e: values) {
+            b.add(e);
+        }
+        return b.build();
+    }
+
+    /**
+    * Materialize the view into a stack iterating in the same order, so the
+    * first value ends on top.
+    *
+    * @return An ImmutableStack of the values
+    *
+    * @since 0.7.0
+    */
+    @SuppressWarnings("unchecked")
+    public ImmutableStack<E> toStack() {
+        if (source instanceof ImmutableStack) {
+            if (mapper == IDENTITY) {
+                return (ImmutableStack<E>) source;
+            }
+            return ((ImmutableStack<Object>) source).map(mapper);
+        }
+        List<E> l = toList();
+        ImmutableStack<E> s = ImmutableStack.empty();
+        for (int i = l.size() - 1; i >= 0; i -= 1) {
+            s = s.push(l.get(i));
+        }
+        return s;
+    }
+
+    /**
+    * Materialize the view into a vector, in order.
+    *
+    * @return An ImmutableVector of the values
+    *
+    * @since 0.7.0
+    */
+    public ImmutableVector<E> toVector() {
+        return ImmutableVector.<E>empty().addAll(values);
+    }
+
+    private List<E> toList() {
+        List<E> l = source == null ? new ArrayList<E>() : new ArrayList<E>(source.size());
+        for (E e: values) {
+            l.add(e);
+        }
+        return l;
+    }
+
+    private abstract static class ViewIterator<E> implements Iterator<E> {
+        public void remove() { throw new UnsupportedOperationException(); }
+    }
+
+    private static final class MapIterator<T, E> extends ViewIterator<E> {
+        private final Iterator<T> it;
+        private final Function<? super T, ? extends E> f;
+
+        MapIterator(Iterator<T> it, Function<? super T, ? extends E> f) {
+            this.it = it;
+            this.f = f;
+        }
+
+        public boolean hasNext() { return it.hasNext(); }
+
+        public E next() { return f.apply(it.next()); }
+    }
+
+    private static final class FilterIterator<E> extends ViewIterator<E> {
+        private final Iterator<E> it;
+        private final Predicate<? super E> p;
+        private E next;
+        private boolean ready;
+
+        FilterIterator(Iterator<E> it, Predicate<? super E> p) {
+            this.it = it;
+            this.p = p;
+        }
+
+        public boolean hasNext() {
+            while (!ready && it.hasNext()) {
+                E e = it.next();
+                if (p.test(e)) {
+                    next = e;
+                    ready = true;
+                }
+            }
+            return ready;
+        }
+
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ready = false;
+            E e = next;
+            next = null;
+            return e;
+        }
+    }
+
+    private static final class FlatMapIterator<T, E> extends ViewIterator<E> {
+        private final Iterator<T> it;
+        private final Function<? super T, ? extends Iterable<? extends E>> f;
+        private Iterator<? extends E> current = Collections.<E>emptyList().iterator();
+
+        FlatMapIterator(Iterator<T> it, Function<? super T, ? extends Iterable<? extends E>> f) {
+            this.it = it;
+            this.f = f;
+        }
+
+        public boolean hasNext() {
+            while (!current.hasNext() && it.hasNext()) {
+                current = f.apply(it.next()).iterator();
+            }
+            return current.hasNext();
+        }
+
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+    }
+
+    private static final class TakeIterator<E> extends ViewIterator<E> {
+        private final Iterator<E> it;
+        private int remaining;
+
+        TakeIterator(Iterator<E> it, int n) {
+            this.it = it;
+            this.remaining = n;
+        }
+
+        public boolean hasNext() { return remaining > 0 && it.hasNext(); }
+
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            remaining -= 1;
+            return it.next();
+        }
+    }
+}
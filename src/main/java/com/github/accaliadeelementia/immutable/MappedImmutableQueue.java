@@ -0,0 +1,302 @@
+package com.github.accaliadeelementia.immutable;
+
+import java.util.*;
+
+/**
+* An Immutable Queue whose values live off heap, in a {@link MappedQueueStore}.
+*
+* A version of the queue is a handle to runs of records in the store's log,
+* kept oldest first in an {@link ImmutableQueue}. Each run is the offset of
+* its first record, the offset after its last one and its number of
+* records. Values are pushed to the right and popped from the left.
+*
+* Pushing onto the newest version appends one record directly after its
+* last run, extending that run. Pushing onto any other version, whose last
+* run another version has already appended to, writes the one new record at
+* the end of the log as a run of its own; the earlier runs are shared by
+* reference, so a push never copies values. Each such branch costs one run
+* on the heap until it is popped past. Popping only moves the head of the
+* first run.
+*
+* Popped values stay in the log until the store is closed. Values are
+* decoded each time they are read. Queues cannot be used once their store
+* is closed.
+*
+* @author Accalia de Elementia <accalia.de.elementia@gmail.com>
+*
+* @version 0.7.0
+*/
+public final class MappedImmutableQueue<E> implements ImmutableCollection<E> {
+
+    private final MappedQueueStore<E> store;
+    // Oldest run on the right, newest on the left, like ImmutableQueue.push
+    private final ImmutableQueue<Run> runs;
+    private final int length;
+
+    /**
+    * Cached hash code, 0 until first computed.
+    *
+    * @see #hashCode
+    */
+    private int hash;
+
+    /**
+    * Create a new, empty, MappedImmutableQueue.
+    *
+    * *PACKAGE PRIVATE* constructor, queues come from their store.
+    *
+    * @param store The store holding the records
+    *
+    * @since 0.7.0
+    */
+    MappedImmutableQueue(MappedQueueStore<E> store) {
+        this(store, ImmutableQueue.<Run>empty(), 0);
+    }
+
+    /**
+    * Create a new MappedImmutableQueue.
+    *
+    * *PRIVATE* constructor.
+    *
+    * @param store The store holding the records
+    * @param runs The runs of records, oldest on the right
+    * @param length The number of records
+    *
+    * @since 0.7.0
+    */
+    private MappedImmutableQueue(MappedQueueStore<E> store, ImmutableQueue<Run> runs, int length) {
+        this.store = store;
+        this.runs = runs;
+        this.length = length;
+    }
+
+    /**
+    * Returns the size of the queue.
+    *
+    * @since 0.7.0
+    */
+    public int size() { return length; }
+
+    /**
+    * Returns true if the queue contains no data, false otherwise.
+    *
+    * @since 0.7.0
+    */
+    public boolean isEmpty() { return length == 0; }
+
+    /**
+    * Push a data value to the right end of the queue.
+    *
+    * Writes one record to the log, whichever version is pushed onto. Onto
+    * the newest version it extends the last run; onto an older one it
+    * starts a new run, sharing the records before it.
+    *
+    * @param e Data value to push
+    * @return A new MappedImmutableQueue with updated state
+    * @throws IllegalArgumentException if the encoded value does not fit a
+    *         segment
+    *
+    * @since 0.7.0
+    */
+    public MappedImmutableQueue<E> pushRight(E e) {
+        byte[] payload = store.encode(e);
+        int size = MappedQueueStore.HEADER + payload.length;
+        if (length > 0) {
+            Run last = runs.peekLeft();
+            long start = store.claim(last.end, payload);
+            if (start >= 0) {
+                Run grown = new Run(last.start, start + size, last.count + 1);
+                return new MappedImmutableQueue<E>(store, runs.popLeft().pushLeft(grown), length + 1);
+            }
+        }
+        long start = store.append(payload);
+        return new MappedImmutableQueue<E>(store, runs.pushLeft(new Run(start, start + size, 1)), length + 1);
+    }
+
+    /**
+    * Alias for pushRight
+    *
+    * @param e Data value to push
+    * @return A new MappedImmutableQueue with updated state
+    *
+    * @see #pushRight
+    *
+    * @since 0.7.0
+    */
+    public MappedImmutableQueue<E> add(E e) { return pushRight(e); }
+
+    /**
+    * Push a lot of values to the right, in iteration order.
+    *
+    * @param c An iterable object containing values to push
+    * @return A new MappedImmutableQueue with updated state
+    *
+    * @since 0.7.0
+    */
+    public MappedImmutableQueue<E> addAll(Iterable<? extends E> c) {
+        MappedImmutableQueue<E> val = this;
+        for (E e: c) {
+            val = val.pushRight(e);
+        }
+        return val;
+    }
+
+    /**
+    * Look at the first element on the left.
+    *
+    * @return The leftmost data value
+    * @throws EmptyQueueException if there is no data stored
+    *
+    * @since 0.7.0
+    */
+    public E peekLeft() {
+        if (length == 0) {
+            throw new EmptyQueueException();
+        }
+        return store.decode(store.record(runs.peekRight().start));
+    }
+
+    /**
+    * Remove the leftmost element.
+    *
+    * @return a new MappedImmutableQueue with updated state
+    * @throws EmptyQueueException if there is no data stored
+    *
+    * @since 0.7.0
+    */
+    public MappedImmutableQueue<E> popLeft() {
+        if (length == 0) {
+            throw new EmptyQueueException();
+        }
+        if (length == 1) {
+            return store.empty();
+        }
+        Run first = runs.peekRight();
+        ImmutableQueue<Run> rest = runs.popRight();
+        if (first.count > 1) {
+            rest = rest.pushRight(new Run(store.next(store.record(first.start)), first.end, first.count - 1));
+        }
+        return new MappedImmutableQueue<E>(store, rest, length - 1);
+    }
+
+    /**
+    * Returns the hash code of the queue.
+    *
+    * Computed like {@link List#hashCode} over the iteration order on first
+    * use, then cached.
+    *
+    * @return The hash code of the queue
+    *
+    * @since 0.7.0
+    */
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = 1;
+            for (E e: this) {
+                h = 31 * h + Objects.hashCode(e);
+            }
+            hash = h;
+        }
+        return h;
+    }
+
+    /**
+    * Compares the queue with another MappedImmutableQueue.
+    *
+    * Queues are equal when they hold equal values in the same order.
+    *
+    * @param o The object to compare with
+    * @return True if o is a MappedImmutableQueue with equal values
+    *
+    * @since 0.7.0
+    */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MappedImmutableQueue)) {
+            return false;
+        }
+        MappedImmutableQueue<?> q = (MappedImmutableQueue<?>) o;
+        if (length != q.length) {
+            return false;
+        }
+        if (store == q.store && runs == q.runs) {
+            return true;
+        }
+        Iterator<?> it = q.iterator();
+        for (E e: this) {
+            if (!Objects.equals(e, it.next())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+    * Create an iterator over the values in the queue, from the left.
+    *
+    * @return a MappedImmutableQueueIterator
+    *
+    * @since 0.7.0
+    */
+    public Iterator<E> iterator() { return new MappedImmutableQueueIterator<E>(this); }
+
+    /**
+    * An iterator for MappedImmutableQueues
+    *
+    * @author Accalia de Elementia <accalia.de.elementia@gmail.com>
+    * @version 0.7.0
+    */
+    private static final class MappedImmutableQueueIterator<E> implements Iterator<E> {
+        private final MappedQueueStore<E> store;
+        private final Iterator<Run> runs;
+        private long offset;
+        private int remaining;
+
+        MappedImmutableQueueIterator(MappedImmutableQueue<E> queue) {
+            store = queue.store;
+            runs = queue.runs.iterator();
+        }
+
+        public boolean hasNext() { return remaining > 0 || runs.hasNext(); }
+
+        public E next() {
+            if (remaining == 0) {
+                if (!runs.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Run r = runs.next();
+                offset = r.start;
+                remaining = r.count;
+            }
+            long at = store.record(offset);
+            E e = store.decode(at);
+            offset = store.next(at);
+            remaining -= 1;
+            return e;
+        }
+
+        public void remove() { throw new UnsupportedOperationException(); }
+    }
+
+    /**
+    * Consecutive records of the log, padding aside.
+    *
+    * @since 0.7.0
+    */
+    private static final class Run {
+        final long start;
+        final long end;
+        final int count;
+
+        Run(long start, long end, int count) {
+            this.start = start;
+            this.end = end;
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.github.accaliadeelementia.immutable;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+* An append only log of records in memory mapped files, holding the values
+* of {@link MappedImmutableQueue}s.
+*
+* The log is split into segment files of a fixed size, mapped as they are
+* first needed. A record is a four byte payload length followed by the
+* payload written by the store's {@link ElementCodec}. A record never spans
+* two segments; the unused end of a segment is skipped, and marked with a
+* length of {@value #PADDING} when there is room for one.
+*
+* Offsets are positions in the whole log. Space is claimed by moving the end
+* of the log with a compare and set, so bytes below the end are never
+* written again and every queue version stays readable while the store is
+* open. Popped values are not reclaimed until the store is closed.
+*
+* The segment files are scratch space: a new store deletes any segment files
+* left in its directory and does not recover earlier contents. Closing a
+* store leaves its files behind; their mappings are released only when the
+* buffers are garbage collected, so the files may stay locked until then on
+* some platforms.
+*
+* @author Accalia de Elementia <accalia.de.elementia@gmail.com>
+*
+* @version 0.7.0
+*/
+public final class MappedQueueStore<E> implements Closeable {
+
+    /**
+    * Size of a segment file unless given, 64MiB.
+    *
+    * @since 0.7.0
+    */
+    public static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+
+    static final int HEADER = 4;
+    static final int PADDING = -1;
+
+    private final File directory;
+    private final ElementCodec<E> codec;
+    private final int segmentSize;
+    private final AtomicLong end = new AtomicLong();
+    private final MappedImmutableQueue<E> empty;
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+    private RandomAccessFile[] files = new RandomAccessFile[0];
+    private volatile boolean closed;
+
+    /**
+    * Create a store with segments of {@link #DEFAULT_SEGMENT_SIZE} bytes.
+    *
+    * @param directory Directory for the segment files, created if missing
+    * @param codec Codec for the values
+    * @throws IOException if the directory cannot be created or an old segment
+    *         file cannot be deleted
+    *
+    * @since 0.7.0
+    */
+    public MappedQueueStore(File directory, ElementCodec<E> codec) throws IOException {
+        this(directory, codec, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+    * Create a store.
+    *
+    * Segment files already in the directory are deleted.
+    *
+    * @param directory Directory for the segment files, created if missing
+    * @param codec Codec for the values
+    * @param segmentSize Size of each segment file, the largest record allowed
+    * @throws IOException if the directory cannot be created or an old segment
+    *         file cannot be deleted
+    *
+    * @since 0.7.0
+    */
+    public MappedQueueStore(File directory, ElementCodec<E> codec, int segmentSize) throws IOException {
+        if (null == codec) {
+            throw new NullPointerException();
+        }
+        if (segmentSize < HEADER) {
+            throw new IllegalArgumentException("Segment size " + segmentSize + " is too small");
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        File[] stale = directory.listFiles(new FilenameFilter() {
+            public boolean accept(File dir, String name) { return name.matches("segment-\\d{8}\\.log"); }
+        });
+        if (null == stale) {
+            throw new IOException("Cannot list " + directory);
+        }
+        for (File f: stale) {
+            if (!f.delete()) {
+                throw new IOException("Cannot delete " + f);
+            }
+        }
+        this.directory = directory;
+        this.codec = codec;
+        this.segmentSize = segmentSize;
+        empty = new MappedImmutableQueue<E>(this);
+    }
+
+    /**
+    * Returns the empty queue of this store.
+    *
+    * @return An empty MappedImmutableQueue
+    *
+    * @since 0.7.0
+    */
+    public MappedImmutableQueue<E> empty() { return empty; }
+
+    /**
+    * Returns the number of bytes of the log in use.
+    *
+    * @since 0.7.0
+    */
+    public long usedBytes() { return end.get(); }
+
+    /**
+    * Close the segment files and drop the store's mappings.
+    *
+    * Queues of this store cannot be read or updated afterwards. The mapped
+    * buffers are only released when they are garbage collected, and the
+    * segment files are left in the directory.
+    *
+    * @since 0.7.0
+    */
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        segments = new MappedByteBuffer[0];
+        IOException failure = null;
+        for (RandomAccessFile f: files) {
+            if (null == f) {
+                continue;
+            }
+            try {
+                f.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        files = new RandomAccessFile[0];
+        if (null != failure) {
+            throw failure;
+        }
+    }
+
+    byte[] encode(E e) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            codec.write(new DataOutputStream(bytes), e);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        if (bytes.size() > segmentSize - HEADER) {
+            throw new IllegalArgumentException("Record of " + bytes.size() + " bytes does not fit a segment");
+        }
+        return bytes.toByteArray();
+    }
+
+    E decode(long offset) {
+        ByteBuffer b = view(offset);
+        int n = b.getInt();
+        b.limit(b.position() + n);
+        try {
+            return codec.read(ImmutableCollectionCodec.input(b));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+    * Find the record at or after offset, skipping the end of a segment.
+    *
+    * @since 0.7.0
+    */
+    long record(long offset) {
+        int remaining = segmentSize - (int) (offset % segmentSize);
+        if (remaining < HEADER || view(offset).getInt() == PADDING) {
+            return offset + remaining;
+        }
+        return offset;
+    }
+
+    /**
+    * @return the offset after the record at offset.
+    *
+    * @since 0.7.0
+    */
+    long next(long offset) {
+        return offset + HEADER + view(offset).getInt();
+    }
+
+    /**
+    * Claim space for a record directly after tail, if nothing has been
+    * written after tail yet.
+    *
+    * @return Where the record starts, or -1 if tail is not the end of the log
+    *
+    * @since 0.7.0
+    */
+    long claim(long tail, byte[] payload) {
+        int size = HEADER + payload.length;
+        long start = fit(tail, size);
+        if (end.get() != tail || !end.compareAndSet(tail, start + size)) {
+            return -1;
+        }
+        pad(tail, start);
+        write(start, payload);
+        return start;
+    }
+
+    /**
+    * Write a record at the end of the log.
+    *
+    * @return Where the record starts
+    *
+    * @since 0.7.0
+    */
+    long append(byte[] payload) {
+        int size = HEADER + payload.length;
+        long start;
+        long at;
+        do {
+            start = end.get();
+            at = fit(start, size);
+        } while (!end.compareAndSet(start, at + size));
+        pad(start, at);
+        write(at, payload);
+        return at;
+    }
+
+    private long fit(long offset, int size) {
+        int remaining = segmentSize - (int) (offset % segmentSize);
+        return remaining < size ? offset + remaining : offset;
+    }
+
+    private void pad(long from, long to) {
+        if (from != to && to - from >= HEADER) {
+            view(from).putInt(PADDING);
+        }
+    }
+
+    private void write(long offset, byte[] payload) {
+        ByteBuffer b = view(offset);
+        b.putInt(payload.length);
+        b.put(payload);
+    }
+
+    /**
+    * @return a buffer over the segment holding offset, positioned at it.
+    *
+    * @since 0.7.0
+    */
+    private ByteBuffer view(long offset) {
+        long index = offset / segmentSize;
+        if (index > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Log is full");
+        }
+        ByteBuffer b = segment((int) index).duplicate();
+        b.position((int) (offset % segmentSize));
+        return b;
+    }
+
+    private MappedByteBuffer segment(int index) {
+        MappedByteBuffer[] s = segments;
+        if (index < s.length) {
+            return s[index];
+        }
+        return map(index);
+    }
+
+    private synchronized MappedByteBuffer map(int index) {
+        if (closed) {
+            throw new IllegalStateException("Store is closed");
+        }
+        MappedByteBuffer[] s = segments;
+        if (index < s.length) {
+            return s[index];
+        }
+        MappedByteBuffer[] grown = java.util.Arrays.copyOf(s, index + 1);
+        RandomAccessFile[] opened = java.util.Arrays.copyOf(files, index + 1);
+        try {
+            for (int i = s.length; i <= index; i += 1) {
+                RandomAccessFile f = new RandomAccessFile(new File(directory, String.format("segment-%08d.log", i)), "rw");
+                opened[i] = f;
+                files = opened;
+                f.setLength(segmentSize);
+                grown[i] = f.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        segments = grown;
+        return grown[index];
+    }
+}
@@ -0,0 +1,28 @@
+package com.github.accaliadeelementia.immutable;
+
+/**
+* Argument checks shared by the collections.
+*
+* The Java 9 release of this class in src/main/java9 delegates to the JDK
+* so the checks can be intrinsified.
+*
+* @since 0.7.0
+*/
+final class Preconditions {
+    private Preconditions () {}
+
+    /**
+    * Check that index is within [0, length).
+    *
+    * @return index
+    * @throws IndexOutOfBoundsException if it is not
+    *
+    * @since 0.7.0
+    */
+    static int checkIndex(int index, int length) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + length);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,69 @@
+package com.github.accaliadeelementia.immutable;
+
+import java.io.*;
+
+/**
+* Serialized form of ImmutableQueue and ImmutableStack.
+*
+* The collections replace themselves with this proxy when serialized, so
+* only the size and the elements in iteration order are written, never the
+* nodes. Reading lays the collection out again in one pass.
+*
+* @author Accalia de Elementia <accalia.de.elementia@gmail.com>
+*
+* @version 0.7.0
+*/
+final class SerializedCollection implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    static final byte QUEUE = 1;
+    static final byte STACK = 2;
+
+    private final byte tag;
+    private transient Object[] values;
+
+    SerializedCollection(byte tag, Object[] values) {
+        this.tag = tag;
+        this.values = values;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(values.length);
+        for (Object o: values) {
+            out.writeObject(o);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        int n = in.readInt();
+        if (n < 0) {
+            throw new InvalidObjectException("Invalid size " + n);
+        }
+        // Grow as elements arrive rather than trusting n with a huge array
+        Object[] a = new Object[Math.min(n, 1 << 16)];
+        for (int i = 0; i < n; i += 1) {
+            if (i == a.length) {
+                a = java.util.Arrays.copyOf(a, (int) Math.min(n, 2L * a.length));
+            }
+            a[i] = in.readObject();
+        }
+        values = a;
+    }
+
+    private Object readResolve() throws ObjectStreamException {
+        switch (tag) {
+            case QUEUE:
+                return ImmutableQueue.build(values, 0, values.length);
+            case STACK:
+                ImmutableStack<Object> s = ImmutableStack.empty();
+                for (int i = values.length - 1; i >= 0; i -= 1) {
+                    s = s.push(values[i]);
+                }
+                return s;
+            default:
+                throw new InvalidObjectException("Unknown collection " + tag);
+        }
+    }
+}
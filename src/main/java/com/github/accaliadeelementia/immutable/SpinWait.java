@@ -0,0 +1,20 @@
+package com.github.accaliadeelementia.immutable;
+
+/**
+* Busy wait hint for retry loops.
+*
+* The Java 9 release of this class in src/main/java9 calls
+* Thread.onSpinWait, which Java 8 lacks.
+*
+* @since 0.7.0
+*/
+final class SpinWait {
+    private SpinWait () {}
+
+    /**
+    * Hint that the caller is spinning. Does nothing on Java 8.
+    *
+    * @since 0.7.0
+    */
+    static void onSpinWait() {}
+}
@@ -0,0 +1,26 @@
+package com.github.accaliadeelementia.immutable;
+
+import java.util.Objects;
+
+/**
+* Argument checks shared by the collections.
+*
+* Java 9 release, delegating to the intrinsified JDK checks.
+*
+* @since 0.7.0
+*/
+final class Preconditions {
+    private Preconditions () {}
+
+    /**
+    * Check that index is within [0, length).
+    *
+    * @return index
+    * @throws IndexOutOfBoundsException if it is not
+    *
+    * @since 0.7.0
+    */
+    static int checkIndex(int index, int length) {
+        return Objects.checkIndex(index, length);
+    }
+}
@@ -0,0 +1,21 @@
+package com.github.accaliadeelementia.immutable;
+
+/**
+* Busy wait hint for retry loops.
+*
+* Java 9 release, delegating to Thread.onSpinWait.
+*
+* @since 0.7.0
+*/
+final class SpinWait {
+    private SpinWait () {}
+
+    /**
+    * Hint that the caller is spinning.
+    *
+    * @since 0.7.0
+    */
+    static void onSpinWait() {
+        Thread.onSpinWait();
+    }
+}
@@ -0,0 +1,11 @@
+/**
+* Immutable collections.
+*
+* Lives in the Java 9 release of the multi-release jar so the base classes
+* stay loadable on Java 8.
+*
+* @since 0.7.0
+*/
+module com.github.accaliadeelementia.immutable {
+    exports com.github.accaliadeelementia.immutable;
+}
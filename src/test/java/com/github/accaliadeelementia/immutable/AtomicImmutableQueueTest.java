@@ -0,0 +1,91 @@
+package com.github.accaliadeelementia.immutable;
+
+import org.junit.Test;
+import org.junit.Assert;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+public class AtomicImmutableQueueTest {
+
+    @Test
+    public void StartsEmpty () {
+        AtomicImmutableQueue<Integer> q = new AtomicImmutableQueue<Integer>();
+        Assert.assertSame(ImmutableQueue.empty(), q.get());
+        Assert.assertNull(q.pollLeft());
+        Assert.assertNull(q.pollRight());
+    }
+
+    @Test
+    public void PushRightPollLeftIsFifo () {
+        AtomicImmutableQueue<Integer> q = new AtomicImmutableQueue<Integer>();
+        for (int i = 0; i < 10; i += 1) {
+            q.pushRight(i);
+        }
+        for (int i = 0; i < 10; i += 1) {
+            Assert.assertEquals(i, (int)q.pollLeft());
+        }
+        Assert.assertTrue(q.get().isEmpty());
+        Assert.assertEquals(20, q.updates());
+        Assert.assertEquals(0, q.failures());
+    }
+
+    @Test
+    public void PushLeftPollRightIsFifo () {
+        AtomicImmutableQueue<Integer> q = new AtomicImmutableQueue<Integer>(ImmutableQueue.of(1, 2));
+        q.pushLeft(3);
+        Assert.assertEquals(1, (int)q.pollRight());
+        Assert.assertEquals(3, (int)q.pollLeft());
+        Assert.assertEquals(2, (int)q.get().peek());
+    }
+
+    @Test
+    public void UpdatesReturnNewAndOldQueues () {
+        AtomicImmutableQueue<Integer> q = new AtomicImmutableQueue<Integer>();
+        ImmutableQueue<Integer> before = q.get();
+        ImmutableQueue<Integer> after = q.updateAndGet(x -> x.pushRight(1).pushRight(2));
+        Assert.assertSame(after, q.get());
+        Assert.assertSame(after, q.getAndUpdate(x -> x.popLeft()));
+        Assert.assertTrue(before.isEmpty());
+        Assert.assertFalse(q.compareAndSet(before, after));
+        Assert.assertEquals(1, q.failures());
+    }
+
+    @Test
+    public void ConcurrentProducersAndConsumersLoseNothing () throws Exception {
+        final AtomicImmutableQueue<Integer> q = new AtomicImmutableQueue<Integer>();
+        final int threads = 4;
+        final int each = 10000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads * 2);
+        try {
+            List<Future<List<Integer>>> taken = new ArrayList<Future<List<Integer>>>();
+            for (int t = 0; t < threads; t += 1) {
+                final int base = t * each;
+                pool.submit(() -> {
+                    for (int i = 0; i < each; i += 1) {
+                        q.pushRight(base + i);
+                    }
+                });
+                taken.add(pool.submit(() -> {
+                    List<Integer> l = new ArrayList<Integer>();
+                    while (l.size() < each) {
+                        Integer e = q.pollLeft();
+                        if (null != e) {
+                            l.add(e);
+                        }
+                    }
+                    return l;
+                }));
+            }
+            Set<Integer> seen = new HashSet<Integer>();
+            for (Future<List<Integer>> f: taken) {
+                seen.addAll(f.get(30, TimeUnit.SECONDS));
+            }
+            Assert.assertEquals(threads * each, seen.size());
+            Assert.assertTrue(q.get().isEmpty());
+            Assert.assertEquals(2 * threads * each, q.updates());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
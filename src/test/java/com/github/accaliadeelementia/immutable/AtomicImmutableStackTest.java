@@ -0,0 +1,115 @@
+package com.github.accaliadeelementia.immutable;
+
+import org.junit.Test;
+import org.junit.Assert;
+import org.junit.Assume;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+public class AtomicImmutableStackTest {
+
+    @Test
+    public void StartsEmpty () {
+        AtomicImmutableStack<Integer> s = new AtomicImmutableStack<Integer>();
+        Assert.assertSame(ImmutableStack.empty(), s.get());
+        Assert.assertNull(s.poll());
+        Assert.assertNull(s.peek());
+    }
+
+    @Test
+    public void PushPollIsLifo () {
+        AtomicImmutableStack<Integer> s = new AtomicImmutableStack<Integer>();
+        for (int i = 0; i < 10; i += 1) {
+            s.push(i);
+        }
+        Assert.assertEquals(9, (int)s.peek());
+        for (int i = 9; i >= 0; i -= 1) {
+            Assert.assertEquals(i, (int)s.poll());
+        }
+        Assert.assertEquals(20, s.updates());
+    }
+
+    @Test
+    public void UpdatesReturnNewAndOldStacks () {
+        AtomicImmutableStack<Integer> s = new AtomicImmutableStack<Integer>(ImmutableStack.of(1));
+        ImmutableStack<Integer> before = s.get();
+        Assert.assertEquals(ImmutableStack.of(1, 2), s.updateAndGet(x -> x.push(2)));
+        Assert.assertSame(before, s.get().pop());
+        Assert.assertEquals(ImmutableStack.of(1, 2), s.getAndUpdate(ImmutableStack::pop));
+        Assert.assertEquals(before, s.get());
+    }
+
+    @Test
+    public void ConcurrentPushesAndPollsLoseNothing () throws Exception {
+        assertLosesNothing(new AtomicImmutableStack<Integer>(), 4);
+    }
+
+    @Test
+    public void EliminationLosesNothing () throws Exception {
+        AtomicImmutableStack<Integer> s = AtomicImmutableStack.withElimination(ImmutableStack.<Integer>empty(), 4);
+        assertLosesNothing(s, 8);
+    }
+
+    @Test
+    public void EliminationPairsPushesWithPollsUnderContention () throws Exception {
+        // A single processor rarely interleaves two failed compare and sets
+        Assume.assumeTrue(Runtime.getRuntime().availableProcessors() > 1);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        long eliminated = 0;
+        while (eliminated == 0 && System.nanoTime() < deadline) {
+            AtomicImmutableStack<Integer> s = AtomicImmutableStack.withElimination(ImmutableStack.<Integer>empty(), 1);
+            assertLosesNothing(s, 8);
+            eliminated = s.eliminated();
+        }
+        Assert.assertTrue(eliminated > 0);
+    }
+
+    @Test
+    public void EliminationIsUnusedWithoutContention () {
+        AtomicImmutableStack<Integer> s = AtomicImmutableStack.withElimination(ImmutableStack.of(1), 4);
+        s.push(2);
+        Assert.assertEquals(2, (int)s.poll());
+        Assert.assertEquals(1, (int)s.poll());
+        Assert.assertNull(s.poll());
+        Assert.assertEquals(0, s.eliminated());
+    }
+
+    private static void assertLosesNothing (final AtomicImmutableStack<Integer> s, final int threads) throws Exception {
+        final int each = 10000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<Integer>>> taken = new ArrayList<Future<List<Integer>>>();
+            for (int t = 0; t < threads; t += 1) {
+                final int base = t * each;
+                taken.add(pool.submit(() -> {
+                    List<Integer> l = new ArrayList<Integer>();
+                    for (int i = 0; i < each; i += 1) {
+                        s.push(base + i);
+                        if (i % 2 == 1) {
+                            l.add(s.poll());
+                        }
+                    }
+                    return l;
+                }));
+            }
+            // Every pushed value is popped or left in the stack exactly once
+            List<Integer> values = new ArrayList<Integer>();
+            for (Future<List<Integer>> f: taken) {
+                values.addAll(f.get(30, TimeUnit.SECONDS));
+            }
+            for (Integer e: s.get()) {
+                values.add(e);
+            }
+            Assert.assertFalse(values.contains(null));
+            Collections.sort(values);
+            List<Integer> pushed = new ArrayList<Integer>();
+            for (int i = 0; i < threads * each; i += 1) {
+                pushed.add(i);
+            }
+            Assert.assertEquals(pushed, values);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
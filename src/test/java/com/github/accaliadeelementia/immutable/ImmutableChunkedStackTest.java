@@ -0,0 +1,178 @@
+package com.github.accaliadeelementia.immutable;
+
+import org.junit.Test;
+import org.junit.Assert;
+
+import java.util.*;
+
+public class ImmutableChunkedStackTest {
+    private static class A {}
+    private static class B extends A {}
+
+    static final A dasA = new A();
+    static final ImmutableChunkedStack<A> Empty = ImmutableChunkedStack.empty();
+    static final ImmutableChunkedStack<A> OneStack = Empty.push(dasA);
+
+    @Test
+    public void EmptyStackIsSizeZero () {
+        Assert.assertEquals(0, Empty.size());
+        Assert.assertTrue(Empty.isEmpty());
+    }
+
+    @Test(expected = EmptyStackException.class)
+    public void EmptyStackCannotPeek () {
+        Empty.peek();
+    }
+
+    @Test(expected = EmptyStackException.class)
+    public void EmptyStackCannotPop () {
+        Empty.pop();
+    }
+
+    @Test
+    public void OneStackCanPeek () {
+        Assert.assertSame(dasA, OneStack.peek());
+        Assert.assertEquals(1, OneStack.size());
+    }
+
+    @Test
+    public void OneStackPopsToEmptyStack () {
+        Assert.assertSame(Empty, OneStack.pop());
+    }
+
+    @Test
+    public void PushIsCovariant () {
+        B dasB = new B();
+        Assert.assertSame(dasB, Empty.push(dasB).peek());
+    }
+
+    @Test
+    public void PushAndPopAcrossChunks () {
+        ImmutableChunkedStack<Integer> s = ImmutableChunkedStack.empty();
+        for (int i = 0; i < 1000; i += 1) {
+            s = s.push(i);
+            Assert.assertEquals(i + 1, s.size());
+        }
+        for (int i = 999; i >= 0; i -= 1) {
+            Assert.assertEquals(i, (int)s.peek());
+            s = s.pop();
+        }
+        Assert.assertTrue(s.isEmpty());
+    }
+
+    @Test
+    public void PushingTwiceOntoOneVersionKeepsBoth () {
+        ImmutableChunkedStack<Integer> base = ImmutableChunkedStack.of(1, 2, 3);
+        ImmutableChunkedStack<Integer> a = base.push(4);
+        ImmutableChunkedStack<Integer> b = base.push(5);
+        Assert.assertEquals(4, (int)a.peek());
+        Assert.assertEquals(5, (int)b.peek());
+        Assert.assertEquals(3, (int)base.peek());
+        Assert.assertArrayEquals(new Object[] {4, 3, 2, 1}, a.toArray());
+        Assert.assertArrayEquals(new Object[] {5, 3, 2, 1}, b.toArray());
+    }
+
+    @Test
+    public void PushingOntoPoppedVersionKeepsOriginal () {
+        ImmutableChunkedStack<Integer> base = ImmutableChunkedStack.of(1, 2, 3);
+        ImmutableChunkedStack<Integer> popped = base.pop().push(9);
+        Assert.assertArrayEquals(new Object[] {3, 2, 1}, base.toArray());
+        Assert.assertArrayEquals(new Object[] {9, 2, 1}, popped.toArray());
+    }
+
+    @Test
+    public void IteratorMatchesPopOrder () {
+        ImmutableChunkedStack<Integer> s = ImmutableChunkedStack.empty();
+        for (int i = 0; i < 100; i += 1) {
+            s = s.push(i);
+        }
+        int expected = 99;
+        for (int actual: s) {
+            Assert.assertEquals(expected, actual);
+            expected -= 1;
+        }
+        Assert.assertEquals(-1, expected);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void IteratorNextThrowsErrorOnEmpty () {
+        Empty.iterator().next();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void IteratorThrowsErrorForRemove() {
+        OneStack.iterator().remove();
+    }
+
+    @Test
+    public void ToArrayMatchesImmutableStack () {
+        List<Integer> l = new ArrayList<Integer>();
+        for (int i = 0; i < 100; i += 1) {
+            l.add(i);
+        }
+        Assert.assertArrayEquals(new ImmutableStack<Integer>(l).toArray(),
+            ImmutableChunkedStack.<Integer>empty().addAll(l).toArray(new Integer[0]));
+    }
+
+    @Test
+    public void EqualStacksHaveEqualHashes () {
+        ImmutableChunkedStack<Integer> base = ImmutableChunkedStack.of(1, 2, 3);
+        ImmutableChunkedStack<Integer> a = base.push(4);
+        ImmutableChunkedStack<Integer> b = base.push(4);
+        Assert.assertEquals(a, b);
+        Assert.assertEquals(a, ImmutableChunkedStack.of(1, 2, 3, 4));
+        Assert.assertEquals(a.hashCode(), b.hashCode());
+        Assert.assertEquals(Arrays.asList(4, 3, 2, 1).hashCode(), a.hashCode());
+        Assert.assertNotEquals(a, base.push(5));
+        Assert.assertNotEquals(a, base);
+    }
+
+    @Test
+    public void PushAfterPopCopiesOnlyLiveSlots () {
+        ImmutableChunkedStack<Integer> s = ImmutableChunkedStack.empty();
+        for (int i = 0; i < 30; i += 1) {
+            s = s.push(i);
+        }
+        ImmutableChunkedStack<Integer> popped = s.pop();
+        ImmutableChunkedStack<Integer> pushed = popped.push(99);
+        Assert.assertEquals(popped.chunks(), pushed.chunks());
+        Assert.assertEquals(popped, pushed.pop());
+        Assert.assertEquals(30, pushed.size());
+        Assert.assertEquals(99, (int)pushed.peek());
+        Assert.assertEquals(29, (int)s.peek());
+        ImmutableChunkedStack<Integer> again = pushed.pop().push(98);
+        Assert.assertEquals(98, (int)again.peek());
+        Assert.assertEquals(99, (int)pushed.peek());
+        Assert.assertEquals(29, (int)s.peek());
+    }
+
+    @Test
+    public void PushPushPopKeepsChunksFull () {
+        ImmutableChunkedStack<Integer> s = ImmutableChunkedStack.empty();
+        for (int i = 0; i < 100000; i += 1) {
+            s = s.push(i).push(-i).pop();
+        }
+        Assert.assertEquals(100000, s.size());
+        // Full chunks of CHUNK_SIZE, bar the smaller ones at the bottom
+        Assert.assertTrue(s.chunks() <= 100000 / ImmutableChunkedStack.CHUNK_SIZE + 4);
+        for (int i = 99999; i >= 0; i -= 1) {
+            Assert.assertEquals(i, (int)s.peek());
+            s = s.pop();
+        }
+    }
+
+    @Test
+    public void SmallStacksUseSmallChunks () {
+        ImmutableChunkedStack<Integer> s = ImmutableChunkedStack.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13);
+        // 4 + 8 slots, then a chunk of 16
+        Assert.assertEquals(3, s.chunks());
+        Assert.assertEquals(1, ImmutableChunkedStack.of(1).chunks());
+    }
+
+    @Test
+    public void ToArrayNullTerminatesLargerArrays () {
+        Integer[] a = {7, 7, 7, 7, 7};
+        Assert.assertSame(a, ImmutableChunkedStack.of(1, 2, 3).toArray(a));
+        Assert.assertArrayEquals(new Integer[] {3, 2, 1, null, 7}, a);
+    }
+}
@@ -0,0 +1,108 @@
+package com.github.accaliadeelementia.immutable;
+
+import org.junit.Test;
+import org.junit.Assert;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+public class ImmutableCollectionCodecTest {
+    static final ImmutableCollectionCodec<Integer> Ints = new ImmutableCollectionCodec<Integer>(ElementCodec.INTEGER);
+
+    private static ImmutableQueue<Integer> range(int n) {
+        ImmutableQueue<Integer> q = ImmutableQueue.empty();
+        for (int i = 0; i < n; i += 1) {
+            q = q.pushLeft(i);
+        }
+        return q;
+    }
+
+    @Test
+    public void QueueRoundTripsThroughDataStreams () throws IOException {
+        for (int n: new int[] {0, 1, 4, 5, 9, 100, 10000}) {
+            ImmutableQueue<Integer> q = range(n);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            Ints.writeQueue(new DataOutputStream(bytes), q);
+            Assert.assertEquals(4 + 4 * n, bytes.size());
+            ImmutableQueue<Integer> read = Ints.readQueue(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+            Assert.assertEquals(q, read);
+            Assert.assertEquals(n, read.size());
+        }
+    }
+
+    @Test
+    public void EmptyQueueReadsAsSharedEmpty () throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(4);
+        Ints.writeQueue(b, ImmutableQueue.<Integer>empty());
+        b.flip();
+        Assert.assertSame(ImmutableQueue.empty(), Ints.readQueue(b));
+    }
+
+    @Test
+    public void StackRoundTripsThroughByteBuffer () throws IOException {
+        ImmutableStack<Integer> s = ImmutableStack.of(1, 2, 3, 4, 5);
+        ByteBuffer b = ByteBuffer.allocate(64);
+        Ints.writeStack(b, s);
+        b.flip();
+        Assert.assertEquals(4 + 4 * 5, b.remaining());
+        Assert.assertEquals(5, b.getInt(0));
+        Assert.assertEquals(5, b.getInt(4));
+        Assert.assertEquals(s, Ints.readStack(b));
+        Assert.assertFalse(b.hasRemaining());
+    }
+
+    @Test
+    public void StringsAndNullsRoundTrip () throws IOException {
+        ImmutableCollectionCodec<String> codec = new ImmutableCollectionCodec<String>(ElementCodec.STRING.nullable());
+        ImmutableQueue<String> q = ImmutableQueue.of("a", null, "été", "");
+        ByteBuffer b = ByteBuffer.allocate(64);
+        codec.writeQueue(b, q);
+        b.flip();
+        Assert.assertEquals(q, codec.readQueue(b));
+    }
+
+    @Test(expected = EOFException.class)
+    public void TruncatedInputThrowsEOF () throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(64);
+        Ints.writeQueue(b, range(10));
+        b.flip();
+        b.limit(20);
+        Ints.readQueue(b);
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void NegativeSizeIsRejected () throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(4);
+        b.putInt(-1);
+        b.flip();
+        Ints.readStack(b);
+    }
+
+    @Test
+    public void LongStringsRoundTrip () throws IOException {
+        char[] c = new char[200000];
+        Arrays.fill(c, 'é');
+        String s = new String(c);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ElementCodec.STRING.write(new DataOutputStream(bytes), s);
+        Assert.assertEquals(s, ElementCodec.STRING.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))));
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void NegativeStringLengthIsRejected () throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(4);
+        b.putInt(-5);
+        b.flip();
+        ElementCodec.STRING.read(ImmutableCollectionCodec.input(b));
+    }
+
+    @Test(expected = EOFException.class)
+    public void HugeStringLengthWithoutBytesThrowsEOF () throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(8);
+        b.putInt(Integer.MAX_VALUE);
+        b.putInt(42);
+        b.flip();
+        ElementCodec.STRING.read(ImmutableCollectionCodec.input(b));
+    }
+}
@@ -0,0 +1,116 @@
+package com.github.accaliadeelementia.immutable;
+
+import org.junit.Test;
+import org.junit.Assert;
+
+import java.util.*;
+
+public class ImmutableIntQueueTest {
+    static final ImmutableIntQueue Empty = ImmutableIntQueue.empty();
+
+    private static ImmutableIntQueue range(int from, int to) {
+        ImmutableIntQueue q = Empty;
+        for (int i = from; i < to; i += 1) {
+            q = q.pushLeft(i);
+        }
+        return q;
+    }
+
+    @Test
+    public void EmptyQueueIsSizeZero () {
+        Assert.assertEquals(0, Empty.size());
+        Assert.assertTrue(Empty.isEmpty());
+    }
+
+    @Test(expected = EmptyQueueException.class)
+    public void EmptyQueueCannotPeekLeft () {
+        Empty.peekLeftAsInt();
+    }
+
+    @Test(expected = EmptyQueueException.class)
+    public void EmptyQueueCannotPopRight () {
+        Empty.popRight();
+    }
+
+    @Test
+    public void OneQueuePopsToEmptyQueue () {
+        ImmutableIntQueue q = Empty.pushRight(7);
+        Assert.assertEquals(7, q.peekLeftAsInt());
+        Assert.assertEquals(7, q.peekRightAsInt());
+        Assert.assertSame(Empty, q.popLeft());
+        Assert.assertSame(Empty, q.popRight());
+    }
+
+    @Test
+    public void PopsInPushOrderFromBothEnds () {
+        for (int n: new int[] {1, 2, 5, 9, 17, 100, 1000}) {
+            ImmutableIntQueue q = range(0, n);
+            ImmutableIntQueue r = q;
+            for (int i = 0; i < n; i += 1) {
+                Assert.assertEquals(i, r.peekRightAsInt());
+                Assert.assertEquals(n - i, r.size());
+                r = r.popRight();
+            }
+            Assert.assertTrue(r.isEmpty());
+            for (int i = n - 1; i >= 0; i -= 1) {
+                Assert.assertEquals(i, q.peekLeftAsInt());
+                q = q.popLeft();
+            }
+            Assert.assertTrue(q.isEmpty());
+        }
+    }
+
+    @Test
+    public void MixedEndsMatchArrayDeque () {
+        Random rnd = new Random(12);
+        ArrayDeque<Integer> expected = new ArrayDeque<Integer>();
+        ImmutableIntQueue q = Empty;
+        for (int i = 0; i < 5000; i += 1) {
+            int v = rnd.nextInt();
+            switch (rnd.nextInt(4)) {
+                case 0: q = q.pushLeft(v); expected.addLast(v); break;
+                case 1: q = q.pushRight(v); expected.addFirst(v); break;
+                case 2:
+                    if (!expected.isEmpty()) {
+                        Assert.assertEquals((long)expected.pollLast(), q.peekLeftAsInt());
+                        q = q.popLeft();
+                    }
+                    break;
+                default:
+                    if (!expected.isEmpty()) {
+                        Assert.assertEquals((long)expected.pollFirst(), q.peekRightAsInt());
+                        q = q.popRight();
+                    }
+            }
+            Assert.assertEquals(expected.size(), q.size());
+        }
+        int i = 0;
+        for (PrimitiveIterator.OfInt it = q.iterator(); it.hasNext(); i += 1) {
+            Assert.assertEquals((long)expected.pollFirst(), it.nextInt());
+        }
+        Assert.assertEquals(q.size(), i);
+    }
+
+    @Test
+    public void OldVersionsAreUnchanged () {
+        ImmutableIntQueue base = range(0, 10);
+        base.pushLeft(99).pushRight(98).popLeft();
+        Assert.assertArrayEquals(range(0, 10).toArray(), base.toArray());
+    }
+
+    @Test
+    public void OfMatchesIterationOrder () {
+        Assert.assertArrayEquals(new int[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10},
+            ImmutableIntQueue.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10).toArray());
+    }
+
+    @Test
+    public void StreamSumsValues () {
+        Assert.assertEquals(4950, range(0, 100).stream().sum());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void IteratorNextThrowsErrorOnEmpty () {
+        Empty.iterator().nextInt();
+    }
+}
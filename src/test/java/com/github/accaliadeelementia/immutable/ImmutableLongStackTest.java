@@ -0,0 +1,68 @@
+package com.github.accaliadeelementia.immutable;
+
+import org.junit.Test;
+import org.junit.Assert;
+
+import java.util.*;
+
+public class ImmutableLongStackTest {
+    static final ImmutableLongStack Empty = ImmutableLongStack.empty();
+
+    @Test
+    public void EmptyStackIsSizeZero () {
+        Assert.assertEquals(0, Empty.size());
+        Assert.assertTrue(Empty.isEmpty());
+    }
+
+    @Test(expected = EmptyStackException.class)
+    public void EmptyStackCannotPeek () {
+        Empty.peekAsLong();
+    }
+
+    @Test(expected = EmptyStackException.class)
+    public void EmptyStackCannotPop () {
+        Empty.pop();
+    }
+
+    @Test
+    public void OneStackPopsToEmptyStack () {
+        ImmutableLongStack s = Empty.push(5);
+        Assert.assertEquals(5, s.peekAsLong());
+        Assert.assertEquals(1, s.size());
+        Assert.assertSame(Empty, s.pop());
+    }
+
+    @Test
+    public void PopsInReversePushOrder () {
+        ImmutableLongStack s = Empty;
+        for (int i = 0; i < 1000; i += 1) {
+            s = s.push(i);
+        }
+        for (int i = 999; i >= 0; i -= 1) {
+            Assert.assertEquals(i, s.peekAsLong());
+            s = s.pop();
+        }
+        Assert.assertTrue(s.isEmpty());
+    }
+
+    @Test
+    public void IteratorAndToArrayAreTopFirst () {
+        ImmutableLongStack s = ImmutableLongStack.of(1, 2, 3);
+        Assert.assertArrayEquals(new long[] {3, 2, 1}, s.toArray());
+        PrimitiveIterator.OfLong it = s.iterator();
+        Assert.assertEquals(3, it.nextLong());
+        Assert.assertEquals(2, it.nextLong());
+        Assert.assertEquals(1, it.nextLong());
+        Assert.assertFalse(it.hasNext());
+    }
+
+    @Test
+    public void StreamSumsValues () {
+        Assert.assertEquals(6, ImmutableLongStack.of(1, 2, 3).stream().sum());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void IteratorNextThrowsErrorOnEmpty () {
+        Empty.iterator().nextLong();
+    }
+}
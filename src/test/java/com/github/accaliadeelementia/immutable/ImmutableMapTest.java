@@ -0,0 +1,172 @@
+package com.github.accaliadeelementia.immutable;
+
+import org.junit.Test;
+import org.junit.Assert;
+
+import java.util.*;
+
+public class ImmutableMapTest {
+    static final ImmutableMap<Object, Object> Empty = ImmutableMap.empty();
+
+    // A key with a chosen hash code, to force collisions
+    private static final class Key {
+        final int hash;
+        final int id;
+        Key(int hash, int id) {
+            this.hash = hash;
+            this.id = id;
+        }
+        public int hashCode() { return hash; }
+        public boolean equals(Object o) {
+            return o instanceof Key && ((Key) o).hash == hash && ((Key) o).id == id;
+        }
+    }
+
+    private static void assertSameEntries (Map<?, ?> expected, ImmutableMap<?, ?> actual) {
+        Assert.assertEquals(expected.size(), actual.size());
+        Map<Object, Object> seen = new HashMap<Object, Object>();
+        for (Map.Entry<?, ?> e: actual) {
+            Assert.assertNull(seen.put(e.getKey(), e.getValue()));
+        }
+        Assert.assertEquals(expected, seen);
+        for (Map.Entry<?, ?> e: expected.entrySet()) {
+            Assert.assertTrue(actual.containsKey(e.getKey()));
+            Assert.assertEquals(e.getValue(), actual.get(e.getKey()));
+        }
+        Assert.assertEquals(expected.hashCode(), actual.hashCode());
+    }
+
+    @Test
+    public void EmptyMapIsSizeZero () {
+        Assert.assertEquals(0, Empty.size());
+        Assert.assertTrue(Empty.isEmpty());
+        Assert.assertNull(Empty.get("a"));
+        Assert.assertFalse(Empty.iterator().hasNext());
+        Assert.assertSame(Empty, Empty.remove("a"));
+    }
+
+    @Test
+    public void PutAndGet () {
+        ImmutableMap<String, Integer> m = ImmutableMap.<String, Integer>empty().put("a", 1).put("b", 2);
+        Assert.assertEquals(2, m.size());
+        Assert.assertEquals(1, (int)m.get("a"));
+        Assert.assertEquals(2, (int)m.get("b"));
+        Assert.assertEquals(3, (int)m.getOrDefault("c", 3));
+        Assert.assertEquals(5, (int)m.put("a", 5).get("a"));
+        Assert.assertEquals(1, (int)m.get("a"));
+    }
+
+    @Test
+    public void PuttingTheSameValueReturnsSameMap () {
+        Integer one = 1;
+        ImmutableMap<String, Integer> m = ImmutableMap.<String, Integer>empty().put("a", one);
+        Assert.assertSame(m, m.put("a", one));
+    }
+
+    @Test
+    public void NullKeysAndValuesAreAllowed () {
+        ImmutableMap<String, String> m = ImmutableMap.<String, String>empty().put(null, "x").put("y", null);
+        Assert.assertEquals("x", m.get(null));
+        Assert.assertTrue(m.containsKey("y"));
+        Assert.assertFalse(m.containsKey("z"));
+        Assert.assertEquals(1, m.remove(null).size());
+    }
+
+    @Test
+    public void RandomUpdatesMatchHashMap () {
+        Random rnd = new Random(21);
+        Map<Integer, Integer> expected = new HashMap<Integer, Integer>();
+        ImmutableMap<Integer, Integer> m = ImmutableMap.empty();
+        for (int i = 0; i < 20000; i += 1) {
+            int k = rnd.nextInt(3000);
+            if (rnd.nextInt(3) == 0) {
+                expected.remove(k);
+                m = m.remove(k);
+            } else {
+                expected.put(k, i);
+                m = m.put(k, i);
+            }
+            Assert.assertEquals(expected.size(), m.size());
+        }
+        assertSameEntries(expected, m);
+        for (Integer k: new ArrayList<Integer>(expected.keySet())) {
+            m = m.remove(k);
+        }
+        Assert.assertSame(ImmutableMap.empty(), m);
+    }
+
+    @Test
+    public void CollidingKeysAreKeptApart () {
+        Random rnd = new Random(7);
+        Map<Key, Integer> expected = new HashMap<Key, Integer>();
+        ImmutableMap<Key, Integer> m = ImmutableMap.empty();
+        for (int i = 0; i < 5000; i += 1) {
+            // Few distinct hashes, with both near and whole hash collisions
+            Key k = new Key(rnd.nextInt(8) << rnd.nextInt(30), rnd.nextInt(20));
+            if (rnd.nextInt(3) == 0) {
+                expected.remove(k);
+                m = m.remove(k);
+            } else {
+                expected.put(k, i);
+                m = m.put(k, i);
+            }
+        }
+        assertSameEntries(expected, m);
+        for (Key k: new ArrayList<Key>(expected.keySet())) {
+            expected.remove(k);
+            m = m.remove(k);
+            Assert.assertEquals(expected.size(), m.size());
+            Assert.assertFalse(m.containsKey(k));
+        }
+        Assert.assertTrue(m.isEmpty());
+    }
+
+    @Test
+    public void OldVersionsAreUnchanged () {
+        ImmutableMap<Integer, Integer> m = ImmutableMap.empty();
+        for (int i = 0; i < 1000; i += 1) {
+            m = m.put(i, i);
+        }
+        ImmutableMap<Integer, Integer> changed = m;
+        for (int i = 0; i < 1000; i += 2) {
+            changed = changed.remove(i).put(i + 1, -i);
+        }
+        for (int i = 0; i < 1000; i += 1) {
+            Assert.assertEquals(i, (int)m.get(i));
+        }
+        Assert.assertEquals(500, changed.size());
+    }
+
+    @Test
+    public void EqualityIgnoresUpdateOrder () {
+        ImmutableMap<Integer, String> a = ImmutableMap.empty();
+        ImmutableMap<Integer, String> b = ImmutableMap.empty();
+        for (int i = 0; i < 500; i += 1) {
+            a = a.put(i, "v" + i);
+            b = b.put(499 - i, "v" + (499 - i));
+        }
+        b = b.put(1000, "x").remove(1000);
+        Assert.assertEquals(a, b);
+        Assert.assertEquals(a.hashCode(), b.hashCode());
+        Assert.assertNotEquals(a, b.put(3, "y"));
+        Map<Integer, String> copy = new HashMap<Integer, String>();
+        a.forEach(copy::put);
+        Assert.assertEquals(a, ImmutableMap.copyOf(copy));
+    }
+
+    @Test
+    public void AddTakesEntries () {
+        ImmutableMap<String, Integer> m = ImmutableMap.<String, Integer>empty()
+            .add(new AbstractMap.SimpleImmutableEntry<String, Integer>("a", 1))
+            .addAll(ImmutableMap.<String, Integer>empty().put("b", 2).put("c", 3));
+        Assert.assertEquals(3, m.size());
+        Assert.assertEquals(3, (int)m.get("c"));
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void IteratorThrowsAtEnd () {
+        Iterator<Map.Entry<Object, Object>> it = Empty.put("a", 1).iterator();
+        it.next();
+        it.next();
+    }
+}
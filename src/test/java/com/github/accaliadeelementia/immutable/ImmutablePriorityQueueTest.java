@@ -0,0 +1,119 @@
+package com.github.accaliadeelementia.immutable;
+
+import org.junit.Test;
+import org.junit.Assert;
+
+import java.util.*;
+
+public class ImmutablePriorityQueueTest {
+    static final ImmutablePriorityQueue<Integer> Empty = ImmutablePriorityQueue.empty();
+
+    @Test
+    public void EmptyQueueIsSizeZero () {
+        Assert.assertEquals(0, Empty.size());
+        Assert.assertTrue(Empty.isEmpty());
+    }
+
+    @Test(expected = EmptyQueueException.class)
+    public void EmptyQueueCannotPeek () {
+        Empty.peek();
+    }
+
+    @Test(expected = EmptyQueueException.class)
+    public void EmptyQueueCannotPop () {
+        Empty.pop();
+    }
+
+    @Test
+    public void PeekReturnsLowest () {
+        ImmutablePriorityQueue<Integer> q = ImmutablePriorityQueue.of(5, 3, 8, 1, 9);
+        Assert.assertEquals(Integer.valueOf(1), q.peek());
+        Assert.assertEquals(Integer.valueOf(3), q.pop().peek());
+        Assert.assertEquals(5, q.size());
+        Assert.assertArrayEquals(new Object[] {1, 3, 5, 8, 9}, q.toArray());
+    }
+
+    @Test
+    public void ComparatorOrdersValues () {
+        ImmutablePriorityQueue<Integer> q = ImmutablePriorityQueue.<Integer>empty(Collections.<Integer>reverseOrder())
+            .addAll(Arrays.asList(5, 3, 8, 1, 9));
+        Assert.assertArrayEquals(new Object[] {9, 8, 5, 3, 1}, q.toArray());
+    }
+
+    @Test
+    public void PopToEmptyKeepsComparator () {
+        Comparator<Integer> c = Collections.reverseOrder();
+        ImmutablePriorityQueue<Integer> q = ImmutablePriorityQueue.<Integer>empty(c).push(1).pop();
+        Assert.assertTrue(q.isEmpty());
+        Assert.assertSame(c, q.comparator());
+    }
+
+    @Test
+    public void RandomOperationsMatchPriorityQueue () {
+        Random r = new Random(31);
+        PriorityQueue<Integer> expected = new PriorityQueue<Integer>();
+        ImmutablePriorityQueue<Integer> actual = Empty;
+        for (int i = 0; i < 20000; i += 1) {
+            if (!expected.isEmpty() && r.nextInt(5) < 2) {
+                Assert.assertEquals(expected.poll(), actual.peek());
+                actual = actual.pop();
+            } else {
+                int e = r.nextInt(1000);
+                expected.add(e);
+                actual = actual.push(e);
+            }
+            Assert.assertEquals(expected.size(), actual.size());
+            if (!expected.isEmpty()) {
+                Assert.assertEquals(expected.peek(), actual.peek());
+            }
+        }
+        while (!expected.isEmpty()) {
+            Assert.assertEquals(expected.poll(), actual.peek());
+            actual = actual.pop();
+        }
+        Assert.assertTrue(actual.isEmpty());
+    }
+
+    @Test
+    public void OlderVersionsAreUnchanged () {
+        ImmutablePriorityQueue<Integer> q = ImmutablePriorityQueue.of(4, 2, 6);
+        q.pop().push(1).pop();
+        q.push(0);
+        Assert.assertArrayEquals(new Object[] {2, 4, 6}, q.toArray());
+    }
+
+    @Test
+    public void MergeHoldsBoth () {
+        Random r = new Random(8);
+        ImmutablePriorityQueue<Integer> a = Empty;
+        ImmutablePriorityQueue<Integer> b = Empty;
+        List<Integer> all = new ArrayList<Integer>();
+        for (int i = 0; i < 300; i += 1) {
+            int e = r.nextInt(100);
+            all.add(e);
+            if (r.nextBoolean()) {
+                a = a.push(e);
+            } else {
+                b = b.push(e);
+            }
+        }
+        Collections.sort(all);
+        Assert.assertArrayEquals(all.toArray(), a.merge(b).toArray());
+        Assert.assertArrayEquals(all.toArray(), b.merge(a).toArray());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void MergeRejectsOtherComparator () {
+        Empty.push(1).merge(ImmutablePriorityQueue.<Integer>empty(Collections.<Integer>reverseOrder()).push(2));
+    }
+
+    @Test
+    public void EqualQueuesHaveEqualHashes () {
+        ImmutablePriorityQueue<Integer> a = ImmutablePriorityQueue.of(1, 2, 3);
+        ImmutablePriorityQueue<Integer> b = ImmutablePriorityQueue.of(3, 1, 2);
+        Assert.assertEquals(a, b);
+        Assert.assertEquals(a.hashCode(), b.hashCode());
+        Assert.assertNotEquals(a, b.pop());
+        Assert.assertNotEquals(a, b.push(4));
+    }
+}
@@ -0,0 +1,868 @@
+package com.github.accaliadeelementia.immutable;
+
+import org.junit.Test;
+import org.junit.Assert;
+
+import java.io.*;
+import java.util.*;
+import java.util.stream.Collectors;
+
+public class ImmutableQueueTest {
+    private static class A {}
+    private static class B extends A {}
+
+    static final A dasA = new A();
+    static final ImmutableQueue<A> Empty = new ImmutableQueue<A>();
+    static ImmutableQueue<A> dasQ;
+    @Test
+    public void EmptyQueueIsSizeZero() {
+        Assert.assertEquals(0, Empty.size());
+        Assert.assertEquals(0, Empty.length);
+    }
+
+    @Test
+    public void EmptyQueueIsEmpty () {
+        Assert.assertEquals(true, Empty.isEmpty());
+        Assert.assertEquals(true, Empty.empty);
+    }
+
+    @Test
+    public void EmptyFactoryIsShared () {
+        Assert.assertSame(ImmutableQueue.<A>empty(), ImmutableQueue.<B>empty());
+        Assert.assertTrue(ImmutableQueue.empty().isEmpty());
+    }
+
+    @Test
+    public void PopToEmptyReturnsSharedEmpty () {
+        Assert.assertSame(ImmutableQueue.<A>empty(), Empty.pushLeft(dasA).popRight());
+        Assert.assertSame(ImmutableQueue.<A>empty(), Empty.pushRight(dasA).popLeft());
+    }
+
+    @Test
+    public void EmptyQueueCanPushRight() {
+        ImmutableQueue<A> q = Empty.pushRight(dasA);
+        Assert.assertSame(dasA, q.peekRight());
+    }
+     
+    @Test
+    public void EmptyQueueCanPushLeft() {
+        ImmutableQueue<A> q = Empty.pushLeft(dasA);
+        Assert.assertSame(dasA, q.peekLeft());
+    }
+
+    @Test(expected = EmptyQueueException.class)
+    public void CannotPeekRightOnEmptyQueue () {
+        Empty.peekRight();
+    }
+ 
+    @Test(expected = EmptyQueueException.class)
+    public void CannotPeekLeftOnEmptyQueue () {
+        Empty.peekLeft();
+    }
+ 
+    @Test(expected = EmptyQueueException.class)
+    public void CannotPopRightOnEmptyQueue () {
+        Empty.popRight();
+    }
+ 
+    @Test(expected = EmptyQueueException.class)
+    public void CannotPopLeftOnEmptyQueue () {
+        Empty.popLeft();
+    }
+    
+    @Test
+    public void CanPeekLeftOnQueueWithOnlyRightBranch() {
+        ImmutableQueue<A> q = Empty.pushRight(dasA);
+        Assert.assertSame(dasA, q.peekLeft());
+    }
+
+    @Test
+    public void CanPeekRightOnQueueWithOnlyLeftBranch() {
+        ImmutableQueue<A> q = Empty.pushLeft(dasA);
+        Assert.assertSame(dasA, q.peekRight());
+    }
+    
+    @Test
+    public void PushRightUntilFilloverIntoLeft () {
+        A[] as = new A[5];
+        dasQ = Empty;
+        for( int i = 0; i < as.length; i += 1) {
+            as[i] = new A();
+            dasQ = dasQ.pushRight(as[i]);
+        }
+        Assert.assertEquals(5, dasQ.length);
+    }
+
+    @Test
+    public void PushRightUntilFilloverIntoMiddle () {
+        A[] as = new A[9];
+        dasQ = Empty;
+        for( int i = 0; i < as.length; i += 1) {
+            as[i] = new A();
+            dasQ = dasQ.pushRight(as[i]);
+        }
+        Assert.assertEquals(9, dasQ.length);
+    }
+
+    @Test
+    public void PushLeftUntilFilloverIntoRight () {
+        A[] as = new A[5];
+        dasQ = Empty;
+        for( int i = 0; i < as.length; i += 1) {
+            as[i] = new A();
+            dasQ = dasQ.pushLeft(as[i]);
+        }
+        Assert.assertEquals(5, dasQ.length);
+    }
+    
+    @Test
+    public void PushLeftUntilFilloverIntoMiddle () {
+        A[] as = new A[9];
+        dasQ = Empty;
+        for( int i = 0; i < as.length; i += 1) {
+            as[i] = new A();
+            dasQ = dasQ.pushLeft(as[i]);
+        }
+        Assert.assertEquals(9, dasQ.length);
+    }
+
+    @Test
+    public void PopLeftFromRightFilledWithMidData () {
+        ImmutableQueue<Integer> q = new ImmutableQueue<Integer>();
+        for (int i = 0; i < 1000; i += 1) {
+            q = q.pushRight(i);
+        }
+        for (int i = 0; i < 1000; i += 1) {
+            Assert.assertEquals(i, (int)q.peekLeft());
+            q = q.popLeft();
+        }
+    }
+
+    @Test
+    public void PopRightFromRightFilledWithMidData () {
+        ImmutableQueue<Integer> q = new ImmutableQueue<Integer>();
+        for (int i = 0; i < 1000; i += 1) {
+            q = q.pushRight(i);
+        }
+        for (int i = 999; i >= 0; i -= 1) {
+            Assert.assertEquals(i, (int)q.peekRight());
+            q = q.popRight();
+        }
+    }
+    @Test
+    public void PopRightFromLeftFilledWithMidData () {
+        ImmutableQueue<Integer> q = new ImmutableQueue<Integer>();
+        for (int i = 0; i < 1000; i += 1) {
+            q = q.pushLeft(i);
+        }
+        for (int i = 0; i < 1000; i += 1) {
+            Assert.assertEquals(i, (int)q.peekRight());
+            q = q.popRight();
+        }
+    }
+
+    @Test
+    public void PopLeftFromLeftFilledWithMidData () {
+        ImmutableQueue<Integer> q = new ImmutableQueue<Integer>();
+        for (int i = 0; i < 1000; i += 1) {
+            q = q.pushLeft(i);
+        }
+        for (int i = 999; i >= 0; i -= 1) {
+            Assert.assertEquals(i, (int)q.peekLeft());
+            q = q.popLeft();
+        }
+    }
+
+    @Test
+    public void IteratorWorksForSmallQueue () {
+        ImmutableQueue<Integer> q = new ImmutableQueue<Integer>();
+        int limit = 4;
+        for (int i = 0; i < limit; i += 1) {
+            q = q.push(i);
+        }
+        int expected = 0;
+        for (int actual: q) {
+            Assert.assertEquals(expected, actual);
+            expected += 1;
+        }
+    }
+    @Test
+    public void IteratorWorksForMediumQueue () {
+        ImmutableQueue<Integer> q = new ImmutableQueue<Integer>();
+        int limit = 24;
+        for (int i = 0; i < limit; i += 1) {
+            q = q.push(i);
+        }
+        int expected = 0;
+        for (int actual: q) {
+            Assert.assertEquals(expected, actual);
+            expected += 1;
+        }
+    }
+    @Test
+    public void IteratorWorksForLargeQueue () {
+        ImmutableQueue<Integer> q = new ImmutableQueue<Integer>();
+        int limit = 255;
+        for (int i = 0; i < limit; i += 1) {
+            q = q.push(i);
+        }
+        int expected = 0;
+        for (int actual: q) {
+            Assert.assertEquals(expected, actual);
+            expected += 1;
+        }
+    }
+    @Test
+    public void IteratorWorksForHugeQueue () {
+        ImmutableQueue<Integer> q = new ImmutableQueue<Integer>();
+        int limit = 1000000;
+        for (int i = 0; i < limit; i += 1) {
+            q = q.push(i);
+        }
+        int expected = 0;
+        for (int actual: q) {
+            Assert.assertEquals(expected, actual);
+            expected += 1;
+        }
+    }
+    @Test
+    public void IteratorMatchesPopOrderForMixedPushes () {
+        ImmutableQueue<Integer> q = new ImmutableQueue<Integer>();
+        for (int i = 0; i < 5000; i += 1) {
+            q = (i % 3 == 0) ? q.pushRight(i) : q.pushLeft(i);
+            if (i % 7 == 0) {
+                q = q.popLeft();
+            }
+        }
+        ImmutableQueue<Integer> expected = q;
+        int count = 0;
+        for (int actual: q) {
+            Assert.assertEquals((int)expected.peek(), actual);
+            expected = expected.pop();
+            count += 1;
+        }
+        Assert.assertEquals(q.length, count);
+        Assert.assertTrue(expected.isEmpty());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void IteratorNextThrowsWhenExhausted () {
+        Iterator<A> itr = Empty.pushLeft(dasA).iterator();
+        itr.next();
+        itr.next();
+    }
+
+    @Test
+    public void OfKeepsArgumentOrder () {
+        ImmutableQueue<Integer> q = ImmutableQueue.of(1, 2, 3);
+        Assert.assertEquals(3, q.length);
+        Assert.assertEquals(1, (int)q.peekRight());
+        Assert.assertEquals(3, (int)q.peekLeft());
+    }
+
+    @Test
+    public void CopyOfMatchesRepeatedAdd () {
+        for (int n = 0; n < 300; n += 1) {
+            List<Integer> l = new ArrayList<Integer>();
+            for (int i = 0; i < n; i += 1) {
+                l.add(i);
+            }
+            ImmutableQueue<Integer> q = ImmutableQueue.copyOf(l);
+            Assert.assertEquals(n, q.length);
+            int expected = 0;
+            for (int actual: q) {
+                Assert.assertEquals(expected, actual);
+                expected += 1;
+            }
+            Assert.assertEquals(n, expected);
+        }
+    }
+
+    @Test
+    public void CopyOfCanBePoppedFromBothEnds () {
+        List<Integer> l = new ArrayList<Integer>();
+        for (int i = 0; i < 1000; i += 1) {
+            l.add(i);
+        }
+        ImmutableQueue<Integer> q = ImmutableQueue.copyOf(l);
+        for (int i = 0; i < 1000; i += 1) {
+            Assert.assertEquals(i, (int)q.peekRight());
+            q = q.popRight();
+        }
+        q = ImmutableQueue.copyOf(l);
+        for (int i = 999; i >= 0; i -= 1) {
+            Assert.assertEquals(i, (int)q.peekLeft());
+            q = q.popLeft();
+        }
+    }
+
+    @Test
+    public void CopyOfCanBePushedTo () {
+        ImmutableQueue<Integer> q = ImmutableQueue.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12);
+        for (int i = 13; i < 200; i += 1) {
+            q = q.pushLeft(i);
+        }
+        for (int i = -1; i > -200; i -= 1) {
+            q = q.pushRight(i);
+        }
+        int expected = -199;
+        for (int actual: q) {
+            Assert.assertEquals(expected, actual);
+            expected += 1;
+        }
+        Assert.assertEquals(200, expected);
+    }
+
+    @Test
+    public void AddAllCollectionMatchesRepeatedAdd () {
+        List<Integer> l = new ArrayList<Integer>();
+        for (int i = 0; i < 100; i += 1) {
+            l.add(i);
+        }
+        ImmutableQueue<Integer> base = ImmutableQueue.of(-3, -2, -1);
+        ImmutableQueue<Integer> bulk = base.addAll(l);
+        ImmutableQueue<Integer> slow = base;
+        for (Integer i: l) {
+            slow = slow.add(i);
+        }
+        Assert.assertEquals(slow.length, bulk.length);
+        Assert.assertArrayEquals(slow.toArray(), bulk.toArray());
+    }
+
+    private static ImmutableQueue<Integer> range (int from, int to) {
+        ImmutableQueue<Integer> q = ImmutableQueue.empty();
+        for (int i = from; i < to; i += 1) {
+            q = q.pushLeft(i);
+        }
+        return q;
+    }
+
+    private static void assertDrains (ImmutableQueue<Integer> q, int from, int to) {
+        Assert.assertEquals(to - from, q.length);
+        int expected = from;
+        for (int actual: q) {
+            Assert.assertEquals(expected, actual);
+            expected += 1;
+        }
+        Assert.assertEquals(to, expected);
+        ImmutableQueue<Integer> r = q;
+        for (int i = from; i < to; i += 1) {
+            Assert.assertEquals(i, (int)r.peekRight());
+            r = r.popRight();
+        }
+        ImmutableQueue<Integer> l = q;
+        for (int i = to - 1; i >= from; i -= 1) {
+            Assert.assertEquals(i, (int)l.peekLeft());
+            l = l.popLeft();
+        }
+    }
+
+    @Test
+    public void ConcatJoinsInIterationOrder () {
+        for (int n = 0; n < 40; n += 1) {
+            for (int m = 0; m < 40; m += 1) {
+                assertDrains(range(0, n).concat(range(n, n + m)), 0, n + m);
+            }
+        }
+    }
+
+    @Test
+    public void ConcatOfLargeQueues () {
+        assertDrains(range(0, 10000).concat(range(10000, 25000)), 0, 25000);
+    }
+
+    @Test
+    public void RepeatedConcatStaysUsable () {
+        ImmutableQueue<Integer> q = ImmutableQueue.empty();
+        int n = 0;
+        for (int i = 0; i < 500; i += 1) {
+            int size = (i * 7) % 23;
+            q = q.concat(range(n, n + size));
+            n += size;
+        }
+        assertDrains(q, 0, n);
+        for (int i = 0; i < 100; i += 1) {
+            q = q.pushLeft(n + i);
+        }
+        assertDrains(q, 0, n + 100);
+    }
+
+    private static List<ImmutableQueue<Integer>> shapes (int n) {
+        List<ImmutableQueue<Integer>> l = new ArrayList<ImmutableQueue<Integer>>();
+        l.add(range(0, n));
+        ImmutableQueue<Integer> q = ImmutableQueue.empty();
+        for (int i = n - 1; i >= 0; i -= 1) {
+            q = q.pushRight(i);
+        }
+        l.add(q);
+        List<Integer> values = new ArrayList<Integer>();
+        for (int i = 0; i < n; i += 1) {
+            values.add(i);
+        }
+        l.add(ImmutableQueue.copyOf(values));
+        l.add(range(0, n / 3).concat(range(n / 3, n)));
+        return l;
+    }
+
+    @Test
+    public void GetFindsEveryPosition () {
+        for (int n: new int[] {1, 5, 9, 40, 333, 5000}) {
+            for (ImmutableQueue<Integer> q: shapes(n)) {
+                for (int i = 0; i < n; i += 1) {
+                    Assert.assertEquals(i, (int)q.get(i));
+                }
+            }
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void GetRejectsIndexPastEnd () {
+        range(0, 10).get(10);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void GetRejectsNegativeIndex () {
+        range(0, 10).get(-1);
+    }
+
+    @Test
+    public void SplitAtEveryPosition () {
+        for (int n: new int[] {0, 1, 7, 30, 150}) {
+            for (ImmutableQueue<Integer> q: shapes(n)) {
+                for (int i = 0; i <= n; i += 1) {
+                    ImmutableQueue.Split<Integer> s = q.splitAt(i);
+                    assertDrains(s.taken, 0, i);
+                    assertDrains(s.dropped, i, n);
+                    assertDrains(s.taken.pushLeft(-1).popLeft().concat(s.dropped), 0, n);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void TakeAndDropAreLenient () {
+        ImmutableQueue<Integer> q = range(0, 100);
+        Assert.assertSame(q, q.take(100));
+        Assert.assertSame(q, q.take(1000));
+        Assert.assertSame(q, q.drop(0));
+        Assert.assertTrue(q.drop(1000).isEmpty());
+        Assert.assertTrue(q.take(0).isEmpty());
+        assertDrains(q.take(60).drop(20), 20, 60);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void TakeRejectsNegativeCount () {
+        range(0, 10).take(-1);
+    }
+
+    @Test
+    public void SplitPartsCanBeExtended () {
+        ImmutableQueue<Integer> q = range(0, 1000).drop(333).take(333);
+        for (int i = 666; i < 900; i += 1) {
+            q = q.pushLeft(i);
+        }
+        for (int i = 332; i >= 100; i -= 1) {
+            q = q.pushRight(i);
+        }
+        assertDrains(q, 100, 900);
+        for (int i = 100; i < 900; i += 1) {
+            Assert.assertEquals(i, (int)q.get(i - 100));
+        }
+    }
+
+    @Test
+    public void SpliteratorIsSizedAndSplits () {
+        Spliterator<Integer> s = range(0, 1000).spliterator();
+        Assert.assertTrue(s.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.IMMUTABLE | Spliterator.ORDERED));
+        Assert.assertEquals(1000, s.getExactSizeIfKnown());
+        Spliterator<Integer> prefix = s.trySplit();
+        Assert.assertEquals(500, prefix.estimateSize());
+        Assert.assertEquals(500, s.estimateSize());
+        final int[] expected = new int[] {0};
+        prefix.forEachRemaining(i -> {
+            Assert.assertEquals(expected[0], (int)i);
+            expected[0] += 1;
+        });
+        s.forEachRemaining(i -> {
+            Assert.assertEquals(expected[0], (int)i);
+            expected[0] += 1;
+        });
+        Assert.assertEquals(1000, expected[0]);
+    }
+
+    @Test
+    public void ParallelStreamKeepsOrder () {
+        ImmutableQueue<Integer> q = range(0, 100000);
+        List<Integer> l = q.parallelStream().map(i -> i * 2).collect(Collectors.toList());
+        Assert.assertEquals(100000, l.size());
+        for (int i = 0; i < l.size(); i += 1) {
+            Assert.assertEquals(i * 2, (int)l.get(i));
+        }
+        Assert.assertEquals(q.stream().mapToLong(i -> i).sum(), q.parallelStream().mapToLong(i -> i).sum());
+    }
+
+    @Test
+    public void BuilderMatchesQueueOperations () {
+        Random r = new Random(42);
+        ImmutableQueue<Integer> q = range(0, 50);
+        ImmutableQueue.Builder<Integer> b = q.toBuilder();
+        for (int i = 0; i < 20000; i += 1) {
+            int op = r.nextInt(q.isEmpty() ? 2 : 6);
+            if (op == 0) {
+                q = q.pushLeft(i);
+                b.pushLeft(i);
+            } else if (op == 1) {
+                q = q.pushRight(i);
+                b.pushRight(i);
+            } else if (op == 2) {
+                Assert.assertEquals(q.peekLeft(), b.peekLeft());
+                q = q.popLeft();
+                b.popLeft();
+            } else if (op == 3) {
+                Assert.assertEquals(q.peekRight(), b.peekRight());
+                q = q.popRight();
+                b.popRight();
+            } else if (op == 4) {
+                Assert.assertEquals(q.peekLeft(), b.peekLeft());
+            } else {
+                Assert.assertEquals(q.peekRight(), b.peekRight());
+            }
+            Assert.assertEquals(q.length, b.size());
+            if (i % 5000 == 0) {
+                Assert.assertArrayEquals(q.toArray(), b.build().toArray());
+            }
+        }
+        ImmutableQueue<Integer> built = b.build();
+        Assert.assertArrayEquals(q.toArray(), built.toArray());
+        for (int i = 0; i < built.length; i += 1) {
+            Assert.assertEquals(q.get(i), built.get(i));
+        }
+    }
+
+    @Test
+    public void BuilderDrainsIntoBuffersOfOtherEnd () {
+        ImmutableQueue.Builder<Integer> b = ImmutableQueue.builder();
+        b.pushLeft(1).pushLeft(2).pushLeft(3);
+        Assert.assertEquals(1, (int)b.peekRight());
+        b.popRight();
+        Assert.assertEquals(2, (int)b.peekRight());
+        b.popRight().popRight();
+        Assert.assertTrue(b.isEmpty());
+        Assert.assertSame(ImmutableQueue.<Integer>empty(), b.build());
+    }
+
+    @Test(expected = EmptyQueueException.class)
+    public void BuilderCannotPopWhenEmpty () {
+        ImmutableQueue.<A>builder().popLeft();
+    }
+
+    @Test
+    public void QueuesOfDifferentShapesAreEqual () {
+        for (int n = 0; n < 200; n += 7) {
+            ImmutableQueue<Integer> pushed = range(0, n);
+            ImmutableQueue<Integer> built = ImmutableQueue.copyOf(Arrays.asList(range(0, n).toArray(new Integer[0])));
+            ImmutableQueue<Integer> joined = range(0, n / 2).concat(range(n / 2, n));
+            Assert.assertEquals(pushed, built);
+            Assert.assertEquals(built, joined);
+            Assert.assertEquals(pushed.hashCode(), joined.hashCode());
+            Assert.assertEquals(Arrays.asList(pushed.toArray()).hashCode(), pushed.hashCode());
+        }
+    }
+
+    @Test
+    public void QueuesWithDifferentValuesAreNotEqual () {
+        ImmutableQueue<Integer> q = range(0, 50);
+        Assert.assertNotEquals(q, range(0, 49));
+        Assert.assertNotEquals(q, q.popLeft().pushLeft(99));
+        Assert.assertNotEquals(q, q.popRight().pushRight(99));
+        Assert.assertNotEquals(q, ImmutableStack.copyOf(Arrays.asList(q.toArray())));
+        Assert.assertEquals(new ImmutableQueue<Integer>(), ImmutableQueue.empty());
+    }
+
+    @Test
+    public void QueuesSharingAMidAreEqual () {
+        ImmutableQueue<Integer> q = range(0, 50);
+        ImmutableQueue<Integer> a = q.popRight().pushRight(0);
+        Assert.assertEquals(q, a);
+        Assert.assertNotEquals(q, q.popLeft().pushLeft(0));
+        Map<ImmutableQueue<Integer>, String> m = new HashMap<ImmutableQueue<Integer>, String>();
+        m.put(q, "q");
+        Assert.assertEquals("q", m.get(a));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T roundTrip(T o) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(o);
+        out.close();
+        return (T) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+    }
+
+    @Test
+    public void SerializationKeepsValues () throws Exception {
+        ImmutableQueue<Integer> q = range(0, 1000);
+        ImmutableQueue<Integer> read = roundTrip(q);
+        Assert.assertEquals(q, read);
+        assertDrains(read, 0, 1000);
+        Assert.assertSame(ImmutableQueue.empty(), roundTrip(ImmutableQueue.empty()));
+    }
+
+    // Serialize a queue of three values with its size replaced
+    private static Object readWithSize(int n) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(range(0, 3));
+        out.close();
+        byte[] b = bytes.toByteArray();
+        // The size is the only value in the proxy's block data
+        byte[] size = {0x77, 4, 0, 0, 0, 3};
+        for (int i = 0; i + size.length <= b.length; i += 1) {
+            if (Arrays.equals(size, Arrays.copyOfRange(b, i, i + size.length))) {
+                b[i + 2] = (byte) (n >>> 24);
+                b[i + 3] = (byte) (n >>> 16);
+                b[i + 4] = (byte) (n >>> 8);
+                b[i + 5] = (byte) n;
+                return new ObjectInputStream(new ByteArrayInputStream(b)).readObject();
+            }
+        }
+        throw new AssertionError("size not found");
+    }
+
+    @Test
+    public void SerializationOfLargeQueuesKeepsValues () throws Exception {
+        ImmutableQueue<Integer> q = range(0, 200000);
+        Assert.assertEquals(q, roundTrip(q));
+    }
+
+    @Test(expected = InvalidObjectException.class)
+    public void NegativeSerializedSizeIsRejected () throws Exception {
+        readWithSize(-2);
+    }
+
+    @Test(expected = IOException.class)
+    public void HugeSerializedSizeRunsOutOfValues () throws Exception {
+        readWithSize(Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void PopLeftBatchMatchesRepeatedPopLeft () {
+        for (int n: new int[] {0, 1, 3, 64, 100}) {
+            ImmutableQueue<Integer> q = range(0, 100);
+            List<Integer> popped = new ArrayList<Integer>();
+            ImmutableQueue<Integer> rest = q.popLeft(n, popped::add);
+            for (int i = 0; i < n; i += 1) {
+                Assert.assertEquals(q.peekLeft(), popped.get(i));
+                q = q.popLeft();
+            }
+            Assert.assertEquals(n, popped.size());
+            Assert.assertEquals(q, rest);
+            assertDrains(rest, 0, 100 - n);
+        }
+    }
+
+    @Test
+    public void PopRightBatchMatchesRepeatedPopRight () {
+        ImmutableQueue<Integer> q = range(0, 300);
+        List<Integer> popped = new ArrayList<Integer>();
+        ImmutableQueue<Integer> rest = q.popRight(130, popped::add);
+        for (int i = 0; i < 130; i += 1) {
+            Assert.assertEquals(i, (int)popped.get(i));
+        }
+        assertDrains(rest, 130, 300);
+    }
+
+    @Test
+    public void BatchPopsMatchSinglePopsOnEveryShape () {
+        ImmutableQueue<Integer> q = range(0, 500).concat(range(500, 777)).popLeft().popRight();
+        for (int n: new int[] {1, 2, 3, 4, 5, 9, 17, 64, 300, 774, 775}) {
+            List<Integer> lefts = new ArrayList<Integer>();
+            List<Integer> rights = new ArrayList<Integer>();
+            ImmutableQueue<Integer> l = q.popLeft(n, lefts::add);
+            ImmutableQueue<Integer> r = q.popRight(n, rights::add);
+            ImmutableQueue<Integer> el = q;
+            ImmutableQueue<Integer> er = q;
+            for (int i = 0; i < Math.min(n, q.size()); i += 1) {
+                Assert.assertEquals(el.peekLeft(), lefts.get(i));
+                Assert.assertEquals(er.peekRight(), rights.get(i));
+                el = el.popLeft();
+                er = er.popRight();
+            }
+            Assert.assertEquals(el, l);
+            Assert.assertEquals(er, r);
+            Assert.assertEquals(el.size(), l.size());
+            Assert.assertArrayEquals(er.toArray(), r.toArray());
+            if (!l.isEmpty()) {
+                Assert.assertEquals(el.peekRight(), l.peekRight());
+                Assert.assertEquals(el.get(l.size() / 2), l.get(l.size() / 2));
+                Assert.assertEquals(-1, (int)l.pushLeft(-1).peekLeft());
+                Assert.assertEquals(-1, (int)r.pushRight(-1).peekRight());
+            }
+        }
+    }
+
+    @Test
+    public void DrainLeftToStopsAtSize () {
+        List<Integer> l = new ArrayList<Integer>();
+        Assert.assertSame(ImmutableQueue.empty(), range(0, 10).drainLeftTo(l, 1000));
+        Assert.assertEquals(Arrays.asList(9, 8, 7, 6, 5, 4, 3, 2, 1, 0), l);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void PopLeftBatchRejectsNegativeCount () {
+        range(0, 10).popLeft(-1, e -> {});
+    }
+
+    @Test
+    public void PushRightAllMatchesRepeatedPushRight () {
+        for (int n: new int[] {0, 1, 5, 64, 1000}) {
+            Integer[] a = new Integer[n];
+            ImmutableQueue<Integer> expected = range(0, 20);
+            for (int i = 0; i < n; i += 1) {
+                a[i] = -1 - i;
+                expected = expected.pushRight(a[i]);
+            }
+            ImmutableQueue<Integer> actual = range(0, 20).pushRightAll(a);
+            Assert.assertEquals(expected, actual);
+            assertDrains(actual.drop(n), 0, 20);
+        }
+    }
+
+    @Test
+    public void ToArrayMatchesIterationForAllShapes () {
+        for (int n = 1; n < 300; n += 1) {
+            ImmutableQueue<Integer> q = range(0, n).popLeft().pushRight(-1).concat(range(0, n / 3));
+            List<Integer> expected = new ArrayList<Integer>();
+            for (Integer e: q) {
+                expected.add(e);
+            }
+            Assert.assertEquals(expected, Arrays.asList(q.toArray(new Integer[0])));
+            Assert.assertArrayEquals(expected.toArray(), q.toArray());
+            Assert.assertArrayEquals(expected.toArray(), q.toArray(Integer[]::new));
+        }
+    }
+
+    @Test
+    public void ToArrayNullTerminatesLongerArrays () {
+        Integer[] a = {9, 9, 9, 9, 9};
+        Assert.assertSame(a, range(0, 3).toArray(a));
+        Assert.assertArrayEquals(new Integer[] {0, 1, 2, null, 9}, a);
+    }
+
+    @Test
+    public void CopyIntoWritesAtOffset () {
+        Object[] a = new Object[8];
+        Assert.assertEquals(7, range(0, 5).copyInto(a, 2));
+        Assert.assertArrayEquals(new Object[] {null, null, 0, 1, 2, 3, 4, null}, a);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void CopyIntoRejectsShortArrays () {
+        range(0, 5).copyInto(new Object[8], 4);
+    }
+
+    @Test
+    public void DescendingIteratorMatchesPopLeftOrder () {
+        for (int n = 0; n < 200; n += 1) {
+            ImmutableQueue<Integer> q = range(0, n).concat(range(0, n / 2)).drop(n / 5);
+            Iterator<Integer> it = q.descendingIterator();
+            for (ImmutableQueue<Integer> r = q; !r.isEmpty(); r = r.popLeft()) {
+                Assert.assertTrue(it.hasNext());
+                Assert.assertEquals(r.peekLeft(), it.next());
+            }
+            Assert.assertFalse(it.hasNext());
+        }
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void DescendingIteratorThrowsAtEnd () {
+        ImmutableQueue.empty().descendingIterator().next();
+    }
+
+    @Test
+    public void ReverseMirrorsAllShapes () {
+        for (int n = 0; n < 300; n += 1) {
+            ImmutableQueue<Integer> q = range(0, n).concat(range(0, n / 3)).drop(n / 7);
+            ImmutableQueue<Integer> r = q.reverse();
+            List<Integer> expected = new ArrayList<Integer>();
+            for (Iterator<Integer> it = q.descendingIterator(); it.hasNext(); ) {
+                expected.add(it.next());
+            }
+            Assert.assertEquals(expected, Arrays.asList(r.toArray(new Integer[0])));
+            Assert.assertEquals(q.size(), r.size());
+            Assert.assertEquals(q, r.reverse());
+            if (!r.isEmpty()) {
+                Assert.assertEquals(q.peekLeft(), r.peekRight());
+                Assert.assertEquals(q.get(q.size() / 2), r.get(r.size() - 1 - q.size() / 2));
+            }
+        }
+    }
+
+    @Test
+    public void ToArrayForwards () {
+        ImmutableQueue<Integer> q = new ImmutableQueue<Integer>();
+        Integer[] a = new Integer[1000000];
+        Object[] b;
+        for (int i = 0; i < a.length; i += 1) {
+            a[i]=i;
+            q = q.push(i);
+        }
+        Assert.assertEquals(a.length, q.length);
+        b = q.toArray();
+        Assert.assertEquals(a.length, b.length);
+        for (int i = 0; i < a.length; i += 1) {
+            Assert.assertEquals(a[i], b[i]);
+        }
+
+    }
+
+    @Test
+    public void MapKeepsOrderAndSize () {
+        ImmutableQueue<Integer> q = new ImmutableQueue<Integer>();
+        for (int i = 0; i < 1000; i += 1) {
+            q = i % 3 == 0 ? q.pushRight(i) : q.pushLeft(i);
+            ImmutableQueue<String> m = q.map(String::valueOf);
+            Assert.assertEquals(q.size(), m.size());
+            if (i % 97 == 0) {
+                Assert.assertEquals(q.stream().map(String::valueOf).collect(Collectors.toList()),
+                    Arrays.asList(m.toArray(new String[0])));
+            }
+        }
+        ImmutableQueue<String> m = q.map(String::valueOf);
+        Assert.assertEquals(String.valueOf(q.peekLeft()), m.peekLeft());
+        Assert.assertEquals(String.valueOf(q.get(500)), m.get(500));
+        Assert.assertEquals(String.valueOf(q.popRight().peekRight()), m.popRight().peekRight());
+    }
+
+    @Test
+    public void MapAppliesFunctionInIterationOrder () {
+        ImmutableQueue<Integer> q = new ImmutableQueue<Integer>().concat(ImmutableQueue.of(1, 2, 3)).pushRight(0).pushLeft(4);
+        List<Integer> seen = new ArrayList<Integer>();
+        q.map(seen::add);
+        Assert.assertEquals(q.stream().collect(Collectors.toList()), seen);
+    }
+
+    @Test
+    public void MapOfEmptyIsEmpty () {
+        Assert.assertTrue(new ImmutableQueue<Integer>().map(String::valueOf).isEmpty());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void MapRejectsNullFunction () {
+        ImmutableQueue.of(1).map(null);
+    }
+
+    @Test
+    public void ParallelMapMatchesMap () {
+        ImmutableQueue<Integer> q = new ImmutableQueue<Integer>();
+        for (int i = 0; i < 200000; i += 1) {
+            q = q.push(i);
+        }
+        q = q.concat(q.take(5000)).popRight();
+        ImmutableQueue<Long> expected = q.map(x -> (long) x * x);
+        ImmutableQueue<Long> actual = q.parallelMap(x -> (long) x * x);
+        Assert.assertEquals(expected, actual);
+        Assert.assertArrayEquals(expected.toArray(), actual.toArray());
+        Assert.assertEquals(ImmutableQueue.of(2, 4), ImmutableQueue.of(1, 2).parallelMap(x -> x * 2));
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.accaliadeelementia.immutable;
+
+import org.junit.Test;
+import org.junit.Assert;
+
+import java.util.*;
+
+public class ImmutableSetTest {
+    static final ImmutableSet<Integer> Empty = ImmutableSet.empty();
+
+    @Test
+    public void EmptySetIsSizeZero () {
+        Assert.assertEquals(0, Empty.size());
+        Assert.assertTrue(Empty.isEmpty());
+        Assert.assertFalse(Empty.contains(1));
+    }
+
+    @Test
+    public void AddingAPresentElementReturnsSameSet () {
+        ImmutableSet<Integer> s = ImmutableSet.of(1, 2, 3);
+        Assert.assertSame(s, s.add(2));
+        Assert.assertSame(s, s.remove(4));
+        Assert.assertEquals(3, s.size());
+    }
+
+    @Test
+    public void RemovingLastElementGivesEmpty () {
+        Assert.assertSame(Empty, ImmutableSet.of(1).remove(1));
+    }
+
+    @Test
+    public void RandomUpdatesMatchHashSet () {
+        Random rnd = new Random(5);
+        Set<Integer> expected = new HashSet<Integer>();
+        ImmutableSet<Integer> s = Empty;
+        for (int i = 0; i < 10000; i += 1) {
+            int e = rnd.nextInt(2000);
+            if (rnd.nextBoolean()) {
+                expected.add(e);
+                s = s.add(e);
+            } else {
+                expected.remove(e);
+                s = s.remove(e);
+            }
+        }
+        Assert.assertEquals(expected.size(), s.size());
+        Assert.assertEquals(expected, new HashSet<Object>(Arrays.asList(s.toArray())));
+        Assert.assertEquals(expected.hashCode(), s.hashCode());
+        for (int e = 0; e < 2000; e += 1) {
+            Assert.assertEquals(expected.contains(e), s.contains(e));
+        }
+    }
+
+    @Test
+    public void EqualityIgnoresInsertionOrder () {
+        ImmutableSet<Integer> a = ImmutableSet.of(1, 2, 3, 4);
+        ImmutableSet<Integer> b = ImmutableSet.copyOf(Arrays.asList(4, 3, 2, 1, 1));
+        Assert.assertEquals(a, b);
+        Assert.assertEquals(a.hashCode(), b.hashCode());
+        Assert.assertNotEquals(a, b.remove(1));
+    }
+}
@@ -0,0 +1,128 @@
+package com.github.accaliadeelementia.immutable;
+
+import org.junit.Test;
+import org.junit.Assert;
+
+import java.util.*;
+
+public class ImmutableSortedMapTest {
+    static final ImmutableSortedMap<Integer, String> Empty = ImmutableSortedMap.empty();
+
+    private static void assertMatches(TreeMap<Integer, String> expected, ImmutableSortedMap<Integer, String> actual) {
+        Assert.assertEquals(expected.size(), actual.size());
+        List<Map.Entry<Integer, String>> entries = new ArrayList<Map.Entry<Integer, String>>();
+        for (Map.Entry<Integer, String> e: actual) {
+            entries.add(e);
+        }
+        Assert.assertEquals(new ArrayList<Map.Entry<Integer, String>>(expected.entrySet()), entries);
+        Assert.assertEquals(expected.hashCode(), actual.hashCode());
+        Assert.assertEquals(expected.firstEntry(), actual.firstEntry());
+        Assert.assertEquals(expected.lastEntry(), actual.lastEntry());
+    }
+
+    @Test
+    public void EmptyMapIsSizeZero () {
+        Assert.assertEquals(0, Empty.size());
+        Assert.assertTrue(Empty.isEmpty());
+        Assert.assertNull(Empty.get(1));
+        Assert.assertNull(Empty.firstEntry());
+        Assert.assertFalse(Empty.iterator().hasNext());
+    }
+
+    @Test
+    public void PutAndGet () {
+        ImmutableSortedMap<Integer, String> m = Empty.put(2, "two").put(1, "one").put(3, "three");
+        Assert.assertEquals("one", m.get(1));
+        Assert.assertEquals("three", m.get(3));
+        Assert.assertTrue(m.containsKey(2));
+        Assert.assertFalse(m.containsKey(4));
+        Assert.assertEquals("none", m.getOrDefault(4, "none"));
+        Assert.assertEquals(3, m.size());
+        Assert.assertEquals(0, Empty.size());
+    }
+
+    @Test
+    public void PutSameValueReturnsSameMap () {
+        String one = "one";
+        ImmutableSortedMap<Integer, String> m = Empty.put(1, one);
+        Assert.assertSame(m, m.put(1, one));
+        Assert.assertEquals("uno", m.put(1, "uno").get(1));
+        Assert.assertEquals(1, m.put(1, "uno").size());
+    }
+
+    @Test
+    public void RemoveMissingKeyReturnsSameMap () {
+        ImmutableSortedMap<Integer, String> m = Empty.put(1, "one");
+        Assert.assertSame(m, m.remove(2));
+        Assert.assertTrue(m.remove(1).isEmpty());
+    }
+
+    @Test
+    public void ComparatorOrdersKeys () {
+        ImmutableSortedMap<Integer, String> m = ImmutableSortedMap.<Integer, String>empty(Collections.<Integer>reverseOrder())
+            .put(1, "one").put(3, "three").put(2, "two");
+        Assert.assertEquals(Integer.valueOf(3), m.firstEntry().getKey());
+        Assert.assertEquals(Integer.valueOf(1), m.lastEntry().getKey());
+        Assert.assertSame(Collections.reverseOrder(), m.comparator());
+    }
+
+    @Test
+    public void CeilingAndFloor () {
+        ImmutableSortedMap<Integer, String> m = Empty.put(10, "a").put(20, "b").put(30, "c");
+        Assert.assertEquals(Integer.valueOf(20), m.ceilingEntry(11).getKey());
+        Assert.assertEquals(Integer.valueOf(20), m.ceilingEntry(20).getKey());
+        Assert.assertNull(m.ceilingEntry(31));
+        Assert.assertEquals(Integer.valueOf(10), m.floorEntry(19).getKey());
+        Assert.assertNull(m.floorEntry(9));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void NaturalOrderingRejectsNullKeys () {
+        Empty.put(null, "null");
+    }
+
+    @Test
+    public void RandomOperationsMatchTreeMap () {
+        Random r = new Random(99);
+        TreeMap<Integer, String> expected = new TreeMap<Integer, String>();
+        ImmutableSortedMap<Integer, String> actual = Empty;
+        List<ImmutableSortedMap<Integer, String>> versions = new ArrayList<ImmutableSortedMap<Integer, String>>();
+        List<TreeMap<Integer, String>> snapshots = new ArrayList<TreeMap<Integer, String>>();
+        for (int i = 0; i < 5000; i += 1) {
+            int k = r.nextInt(500);
+            if (r.nextInt(3) == 0) {
+                expected.remove(k);
+                actual = actual.remove(k);
+            } else {
+                expected.put(k, "v" + i);
+                actual = actual.put(k, "v" + i);
+            }
+            Assert.assertEquals(expected.size(), actual.size());
+            Assert.assertEquals(expected.get(k), actual.get(k));
+            if (i % 500 == 0) {
+                versions.add(actual);
+                snapshots.add(new TreeMap<Integer, String>(expected));
+            }
+        }
+        assertMatches(expected, actual);
+        for (int i = 0; i < versions.size(); i += 1) {
+            assertMatches(snapshots.get(i), versions.get(i));
+        }
+        while (!expected.isEmpty()) {
+            Integer k = expected.firstKey();
+            expected.remove(k);
+            actual = actual.remove(k);
+        }
+        Assert.assertTrue(actual.isEmpty());
+    }
+
+    @Test
+    public void EqualMapsHaveEqualHashes () {
+        ImmutableSortedMap<Integer, String> a = Empty.put(1, "one").put(2, "two");
+        ImmutableSortedMap<Integer, String> b = Empty.put(2, "two").put(1, "one");
+        Assert.assertEquals(a, b);
+        Assert.assertEquals(a.hashCode(), b.hashCode());
+        Assert.assertNotEquals(a, b.put(2, "deux"));
+        Assert.assertNotEquals(a, b.remove(2));
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.accaliadeelementia.immutable;
+
+import org.junit.Test;
+import org.junit.Assert;
+
+import java.util.*;
+
+public class ImmutableSortedSetTest {
+    static final ImmutableSortedSet<Integer> Empty = ImmutableSortedSet.empty();
+
+    @Test
+    public void EmptySetIsSizeZero () {
+        Assert.assertEquals(0, Empty.size());
+        Assert.assertTrue(Empty.isEmpty());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void EmptySetHasNoFirst () {
+        Empty.first();
+    }
+
+    @Test
+    public void AddKeepsOrder () {
+        ImmutableSortedSet<Integer> s = ImmutableSortedSet.of(5, 1, 3, 1);
+        Assert.assertArrayEquals(new Object[] {1, 3, 5}, s.toArray());
+        Assert.assertEquals(Integer.valueOf(1), s.first());
+        Assert.assertEquals(Integer.valueOf(5), s.last());
+        Assert.assertSame(s, s.add(3));
+        Assert.assertTrue(s.contains(3));
+        Assert.assertFalse(s.remove(3).contains(3));
+    }
+
+    @Test
+    public void RandomOperationsMatchTreeSet () {
+        Random r = new Random(5);
+        TreeSet<Integer> expected = new TreeSet<Integer>(Collections.<Integer>reverseOrder());
+        ImmutableSortedSet<Integer> actual = ImmutableSortedSet.empty(Collections.<Integer>reverseOrder());
+        for (int i = 0; i < 3000; i += 1) {
+            int e = r.nextInt(300);
+            if (r.nextBoolean()) {
+                expected.remove(e);
+                actual = actual.remove(e);
+            } else {
+                expected.add(e);
+                actual = actual.add(e);
+            }
+        }
+        Assert.assertArrayEquals(expected.toArray(), actual.toArray());
+        Assert.assertEquals(expected.hashCode(), actual.hashCode());
+    }
+
+    @Test
+    public void EqualSetsHaveEqualHashes () {
+        ImmutableSortedSet<Integer> a = ImmutableSortedSet.of(1, 2, 3);
+        ImmutableSortedSet<Integer> b = ImmutableSortedSet.of(3, 2, 1);
+        Assert.assertEquals(a, b);
+        Assert.assertEquals(a.hashCode(), b.hashCode());
+        Assert.assertEquals(new HashSet<Integer>(Arrays.asList(1, 2, 3)).hashCode(), a.hashCode());
+        Assert.assertNotEquals(a, b.remove(2));
+    }
+}
@@ -0,0 +1,294 @@
+package com.github.accaliadeelementia.immutable;
+
+import org.junit.Test;
+import org.junit.Assert;
+
+import java.io.*;
+import java.util.*;
+import java.util.stream.Collectors;
+
+public class ImmutableStackTest {
+    private static class A {}
+    private static class B extends A {}
+
+    static final A[] arrA = new A[] { 
+        new A(), new A(), new A(), new A(), new A(), 
+        new A(), new A(), new A(), new A(), new A()}; 
+    static final A dasA = new A();
+    static final ImmutableStack<A> Empty = new ImmutableStack<A>();
+    static final ImmutableStack<A> OneStack = new ImmutableStack<A>(dasA);
+    static ImmutableStack<A> dasStack;
+
+    @Test
+    public void EmptyStackIsSizeZero () {
+        Assert.assertEquals(0, Empty.size());
+    }
+
+    @Test(expected = EmptyStackException.class)
+    public void EmptyStackCannotPeek () {
+        Empty.peek();
+    }
+
+    @Test(expected = EmptyStackException.class)
+    public void EmptyStackCannotPop () {
+        Empty.pop();
+    }
+
+    @Test
+    public void EmptyStackIsEmpty () {
+        Assert.assertTrue(Empty.isEmpty());
+    }
+
+    @Test
+    public void OneStackIsSizeOne () {
+        Assert.assertEquals(1, OneStack.size());
+    }
+
+    @Test
+    public void OneStackCanPeek () {
+        Assert.assertSame(dasA, OneStack.peek());
+    }
+
+    @Test
+    public void OneStackPopsToEmptyStack () {
+        dasStack = OneStack.pop();
+        Assert.assertTrue(dasStack.isEmpty());
+    }
+
+    @Test
+    public void OneStackStackIsNotEmpty () {
+        Assert.assertTrue(!OneStack.isEmpty());
+    }
+
+    @Test
+    public void PushDoesNotChangeBaseStack () {
+        dasStack = Empty;
+        dasStack = dasStack.push(new A());
+        Assert.assertNotSame(dasStack, Empty);
+    }
+
+    @Test
+    public void PushIncrementsSize () {
+        dasStack = Empty;
+        dasStack = dasStack.push(new A());
+        Assert.assertEquals(1, dasStack.size());
+    }
+
+    @Test
+    public void PushMakesNotEmptyStack () {
+        dasStack = Empty;
+        dasStack = dasStack.push(new A());
+        Assert.assertTrue(!dasStack.isEmpty());
+    }
+    
+    @Test
+    public void ConstructorIsCovariant () {
+        B dasB = new B();
+        dasStack = new ImmutableStack<A>(dasB);
+        Assert.assertSame(dasB, dasStack.peek());
+    }
+    
+    @Test
+    public void IteratorNotHasNextOnEmpty () {
+        Iterator<A> itr = Empty.iterator();
+        Assert.assertTrue(!itr.hasNext());
+    }
+
+    @Test(expected = EmptyStackException.class)
+    public void IteratorNextThrowsErrorOnEmpty () {
+        Iterator<A> itr = Empty.iterator();
+        itr.next();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void IteratorThrowsErrorForRemove() {
+        Iterator<A> itr = OneStack.iterator();
+        itr.remove();
+    }
+
+    @Test
+    public void IteratorHasNextForOneStack() {
+        Iterator<A> itr = OneStack.iterator();
+        Assert.assertTrue(itr.hasNext());
+    }
+    @Test
+    public void IteratorNextWorksForOneStack() {
+        Iterator<A> itr = OneStack.iterator();
+        Assert.assertSame(dasA, itr.next());
+    }
+    @Test(expected = UnsupportedOperationException.class)
+    public void IteratorRemoveFailsForOneStack() {
+        Iterator<A> itr = OneStack.iterator();
+        itr.remove();
+    }
+
+    @Test 
+    public void IterableConstructorCreatesCorrectLength () {
+        dasStack = new ImmutableStack<A>(Arrays.asList(arrA));
+        Assert.assertEquals(arrA.length, dasStack.size());
+    }
+
+    @Test
+    public void IterableConstructorCreatesCorrectorder () {
+        dasStack = new ImmutableStack<A>(Arrays.asList(arrA));
+        int i = arrA.length - 1;
+        for (A a: dasStack) {
+            Assert.assertSame(arrA[i], a);
+            i -= 1;
+        }
+    }
+
+    @Test
+    public void ToArrayObjectWorksMakesInputReversedArray(){
+        dasStack = new ImmutableStack<A>(Arrays.asList(arrA));
+        Object[] dasArr = dasStack.toArray();
+        for(int i = arrA.length - 1, j = 0; i >= 0; i -= 1, j += 1) {
+            Assert.assertSame(arrA[i], dasArr[j]);
+        }
+        
+    }
+
+    @Test
+    public void IterableConstructorAcceptsEmptyIterable () {
+        dasStack = new ImmutableStack<A>(new ArrayList<A>());
+        Assert.assertTrue(dasStack.isEmpty());
+    }
+
+    @Test
+    public void OfMatchesIterableConstructor () {
+        dasStack = ImmutableStack.of(arrA);
+        Assert.assertEquals(arrA.length, dasStack.size());
+        Assert.assertArrayEquals(new ImmutableStack<A>(Arrays.asList(arrA)).toArray(), dasStack.toArray());
+    }
+
+    @Test
+    public void CopyOfMatchesIterableConstructor () {
+        dasStack = ImmutableStack.copyOf(new LinkedList<A>(Arrays.asList(arrA)));
+        Assert.assertEquals(arrA.length, dasStack.size());
+        Assert.assertArrayEquals(new ImmutableStack<A>(Arrays.asList(arrA)).toArray(), dasStack.toArray());
+    }
+
+    @Test
+    public void PushAllKeepsOrderOnTop () {
+        ImmutableStack<A> bottom = ImmutableStack.of(arrA[0], arrA[1]);
+        ImmutableStack<B> top = ImmutableStack.of(new B(), new B(), new B());
+        dasStack = bottom.pushAll(top);
+        Assert.assertEquals(5, dasStack.size());
+        Object[] expected = new Object[] {
+            top.peek(), top.pop().peek(), top.pop().pop().peek(), arrA[1], arrA[0]};
+        Assert.assertArrayEquals(expected, dasStack.toArray());
+        Assert.assertSame(bottom, dasStack.pop().pop().pop());
+    }
+
+    @Test
+    public void PushAllOntoEmptySharesStack () {
+        ImmutableStack<A> s = ImmutableStack.of(arrA);
+        Assert.assertSame(s, Empty.pushAll(s));
+        Assert.assertSame(s, s.pushAll(Empty));
+    }
+
+    @Test
+    public void SpliteratorIsSized () {
+        Spliterator<A> s = ImmutableStack.of(arrA).spliterator();
+        Assert.assertTrue(s.hasCharacteristics(Spliterator.SIZED | Spliterator.IMMUTABLE | Spliterator.ORDERED));
+        Assert.assertEquals(arrA.length, s.getExactSizeIfKnown());
+    }
+
+    @Test
+    public void ParallelStreamKeepsOrder () {
+        List<Integer> l = new ArrayList<Integer>();
+        for (int i = 0; i < 100000; i += 1) {
+            l.add(i);
+        }
+        ImmutableStack<Integer> s = ImmutableStack.copyOf(l);
+        List<Integer> out = s.parallelStream().collect(Collectors.toList());
+        Assert.assertEquals(100000, out.size());
+        for (int i = 0; i < out.size(); i += 1) {
+            Assert.assertEquals(99999 - i, (int)out.get(i));
+        }
+        Assert.assertEquals(s.stream().count(), s.parallelStream().filter(i -> true).count());
+    }
+
+    @Test
+    public void EqualStacksHaveEqualHashes () {
+        ImmutableStack<Integer> a = ImmutableStack.of(1, 2, 3);
+        ImmutableStack<Integer> b = ImmutableStack.<Integer>empty().push(1).push(2).push(3);
+        Assert.assertEquals(a, b);
+        Assert.assertEquals(a.hashCode(), b.hashCode());
+        Assert.assertEquals(new ImmutableStack<Integer>(), ImmutableStack.empty());
+        Assert.assertEquals(new ImmutableStack<Integer>(3).hashCode(), ImmutableStack.of(3).hashCode());
+    }
+
+    @Test
+    public void StacksWithDifferentElementsAreNotEqual () {
+        ImmutableStack<Integer> a = ImmutableStack.of(1, 2, 3);
+        Assert.assertNotEquals(a, ImmutableStack.of(1, 2));
+        Assert.assertNotEquals(a, ImmutableStack.of(3, 2, 1));
+        Assert.assertNotEquals(a, a.pop().push(4));
+        Assert.assertNotEquals(a, Arrays.asList(3, 2, 1));
+        Assert.assertEquals(ImmutableStack.of(1, null), ImmutableStack.of(1, null));
+    }
+
+    @Test
+    public void StacksSharingATailAreEqual () {
+        ImmutableStack<Integer> base = ImmutableStack.of(1, 2, 3);
+        Assert.assertEquals(base.push(4), base.push(4));
+        Set<ImmutableStack<Integer>> set = new HashSet<ImmutableStack<Integer>>();
+        set.add(base.push(4));
+        Assert.assertTrue(set.contains(ImmutableStack.of(1, 2, 3, 4)));
+    }
+
+    @Test
+    public void SerializationKeepsValues () throws Exception {
+        List<Integer> l = new ArrayList<Integer>();
+        for (int i = 0; i < 100000; i += 1) {
+            l.add(i);
+        }
+        ImmutableStack<Integer> s = ImmutableStack.copyOf(l);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(s);
+        out.close();
+        Object read = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+        Assert.assertEquals(s, read);
+    }
+
+    @Test
+    public void ToArrayVariantsAreTopFirst () {
+        ImmutableStack<Integer> s = ImmutableStack.of(1, 2, 3);
+        Assert.assertArrayEquals(new Integer[] {3, 2, 1}, s.toArray(Integer[]::new));
+        Assert.assertArrayEquals(new Integer[] {3, 2, 1}, s.toArray(new Integer[0]));
+        Integer[] a = {9, 9, 9, 9, 9};
+        Assert.assertSame(a, s.toArray(a));
+        Assert.assertArrayEquals(new Integer[] {3, 2, 1, null, 9}, a);
+    }
+
+    @Test
+    public void CopyIntoWritesAtOffset () {
+        Integer[] a = new Integer[5];
+        Assert.assertEquals(4, ImmutableStack.of(1, 2, 3).copyInto(a, 1));
+        Assert.assertArrayEquals(new Integer[] {null, 3, 2, 1, null}, a);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void CopyIntoRejectsShortArrays () {
+        ImmutableStack.of(1, 2, 3).copyInto(new Integer[5], 3);
+    }
+
+    @Test
+    public void MapKeepsOrder () {
+        ImmutableStack<Integer> s = ImmutableStack.of(1, 2, 3);
+        ImmutableStack<String> m = s.map(String::valueOf);
+        Assert.assertArrayEquals(new Object[] {"3", "2", "1"}, m.toArray());
+        Assert.assertEquals(ImmutableStack.of("1", "2", "3"), m);
+        Assert.assertEquals(ImmutableStack.of("1", "2", "3").hashCode(), m.hashCode());
+        Assert.assertTrue(ImmutableStack.<Integer>empty().map(String::valueOf).isEmpty());
+    }
+
+    @Test
+    public void MapAppliesFunctionTopFirst () {
+        List<Integer> seen = new ArrayList<Integer>();
+        ImmutableStack.of(1, 2, 3).map(seen::add);
+        Assert.assertEquals(Arrays.asList(3, 2, 1), seen);
+    }
+}
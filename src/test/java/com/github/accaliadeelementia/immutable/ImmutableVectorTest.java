@@ -0,0 +1,225 @@
+package com.github.accaliadeelementia.immutable;
+
+import org.junit.Test;
+import org.junit.Assert;
+
+import java.util.*;
+
+public class ImmutableVectorTest {
+    private static class A {}
+    private static class B extends A {}
+
+    static final A dasA = new A();
+    static final ImmutableVector<A> Empty = ImmutableVector.empty();
+    static final ImmutableVector<A> OneVector = Empty.append(dasA);
+
+    private static ImmutableVector<Integer> range(int from, int to) {
+        ImmutableVector<Integer> v = ImmutableVector.empty();
+        for (int i = from; i < to; i += 1) {
+            v = v.append(i);
+        }
+        return v;
+    }
+
+    private static List<Integer> list(int from, int to) {
+        List<Integer> l = new ArrayList<Integer>();
+        for (int i = from; i < to; i += 1) {
+            l.add(i);
+        }
+        return l;
+    }
+
+    private static void assertMatches(List<Integer> expected, ImmutableVector<Integer> actual) {
+        Assert.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i += 1) {
+            Assert.assertEquals(expected.get(i), actual.get(i));
+        }
+        Assert.assertArrayEquals(expected.toArray(), actual.toArray());
+        List<Integer> iterated = new ArrayList<Integer>();
+        for (Integer e: actual) {
+            iterated.add(e);
+        }
+        Assert.assertEquals(expected, iterated);
+    }
+
+    @Test
+    public void EmptyVectorIsSizeZero () {
+        Assert.assertEquals(0, Empty.size());
+        Assert.assertTrue(Empty.isEmpty());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void EmptyVectorCannotGet () {
+        Empty.get(0);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void GetRejectsNegativeIndex () {
+        OneVector.get(-1);
+    }
+
+    @Test
+    public void OneVectorCanGet () {
+        Assert.assertSame(dasA, OneVector.get(0));
+        Assert.assertEquals(1, OneVector.size());
+    }
+
+    @Test
+    public void AppendIsCovariant () {
+        B dasB = new B();
+        Assert.assertSame(dasB, Empty.append(dasB).get(0));
+    }
+
+    @Test
+    public void AppendManyLevels () {
+        assertMatches(list(0, 40000), range(0, 40000));
+    }
+
+    @Test
+    public void AppendingTwiceOntoOneVersionKeepsBoth () {
+        ImmutableVector<Integer> base = ImmutableVector.of(1, 2, 3);
+        ImmutableVector<Integer> a = base.append(4);
+        ImmutableVector<Integer> b = base.append(5);
+        Assert.assertArrayEquals(new Object[] {1, 2, 3, 4}, a.toArray());
+        Assert.assertArrayEquals(new Object[] {1, 2, 3, 5}, b.toArray());
+        Assert.assertArrayEquals(new Object[] {1, 2, 3}, base.toArray());
+    }
+
+    @Test
+    public void SetLeavesOriginalAlone () {
+        ImmutableVector<Integer> v = range(0, 1000);
+        ImmutableVector<Integer> changed = v.set(500, -1).set(999, -2);
+        List<Integer> expected = list(0, 1000);
+        assertMatches(expected, v);
+        expected.set(500, -1);
+        expected.set(999, -2);
+        assertMatches(expected, changed);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void SetRejectsIndexPastEnd () {
+        OneVector.set(1, dasA);
+    }
+
+    @Test
+    public void TakeAndDrop () {
+        ImmutableVector<Integer> v = range(0, 2000);
+        for (int n: new int[] {0, 1, 31, 32, 33, 1023, 1024, 1025, 1990, 1999, 2000, 2500}) {
+            int k = Math.min(n, 2000);
+            assertMatches(list(0, k), v.take(n));
+            assertMatches(list(k, 2000), v.drop(n));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void TakeRejectsNegativeCount () {
+        OneVector.take(-1);
+    }
+
+    @Test
+    public void SliceMatchesSubList () {
+        ImmutableVector<Integer> v = range(0, 5000);
+        List<Integer> l = list(0, 5000);
+        Random r = new Random(42);
+        for (int i = 0; i < 200; i += 1) {
+            int from = r.nextInt(5001);
+            int to = from + r.nextInt(5001 - from);
+            assertMatches(l.subList(from, to), v.slice(from, to));
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void SliceRejectsReversedRange () {
+        range(0, 10).slice(5, 4);
+    }
+
+    @Test
+    public void ConcatMatchesList () {
+        ImmutableVector<Integer> v = range(0, 100).concat(range(100, 3000));
+        assertMatches(list(0, 3000), v);
+        assertMatches(list(0, 3100), v.concat(range(3000, 3100)));
+        assertMatches(list(0, 3001), v.append(3000));
+    }
+
+    @Test
+    public void ConcatWithEmpty () {
+        ImmutableVector<Integer> v = range(0, 100);
+        Assert.assertSame(v, v.concat(ImmutableVector.<Integer>empty()));
+        Assert.assertSame(v, ImmutableVector.<Integer>empty().concat(v));
+    }
+
+    @Test
+    public void RepeatedSmallConcatsStayIndexable () {
+        ImmutableVector<Integer> v = ImmutableVector.empty();
+        List<Integer> l = new ArrayList<Integer>();
+        Random r = new Random(7);
+        for (int i = 0; i < 500; i += 1) {
+            int n = r.nextInt(40);
+            v = v.concat(range(l.size(), l.size() + n));
+            l.addAll(list(l.size(), l.size() + n));
+        }
+        assertMatches(l, v);
+    }
+
+    @Test
+    public void RandomOperationsMatchList () {
+        Random r = new Random(1234);
+        ImmutableVector<Integer> v = ImmutableVector.empty();
+        List<Integer> l = new ArrayList<Integer>();
+        for (int step = 0; step < 2000; step += 1) {
+            int op = r.nextInt(6);
+            if (op == 0 && !l.isEmpty()) {
+                int from = r.nextInt(l.size() + 1);
+                int to = from + r.nextInt(l.size() + 1 - from);
+                v = v.slice(from, to);
+                l = new ArrayList<Integer>(l.subList(from, to));
+            } else if (op == 1) {
+                ImmutableVector<Integer> w = v.slice(0, r.nextInt(v.size() + 1));
+                List<Integer> m = new ArrayList<Integer>(l.subList(0, w.size()));
+                v = v.concat(w);
+                l.addAll(m);
+            } else if (op == 2 && !l.isEmpty()) {
+                int i = r.nextInt(l.size());
+                v = v.set(i, step);
+                l.set(i, step);
+            } else {
+                int n = r.nextInt(100);
+                for (int i = 0; i < n; i += 1) {
+                    v = v.append(step);
+                    l.add(step);
+                }
+            }
+            if (l.size() > 50000) {
+                v = v.drop(40000);
+                l = new ArrayList<Integer>(l.subList(40000, l.size()));
+            }
+            Assert.assertEquals(l.size(), v.size());
+            if (!l.isEmpty()) {
+                int i = r.nextInt(l.size());
+                Assert.assertEquals(l.get(i), v.get(i));
+            }
+        }
+        assertMatches(l, v);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void IteratorNextThrowsErrorOnEmpty () {
+        Empty.iterator().next();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void IteratorThrowsErrorForRemove() {
+        OneVector.iterator().remove();
+    }
+
+    @Test
+    public void EqualVectorsHaveEqualHashes () {
+        ImmutableVector<Integer> a = range(0, 100);
+        ImmutableVector<Integer> b = range(0, 40).concat(range(40, 100));
+        Assert.assertEquals(a, b);
+        Assert.assertEquals(a.hashCode(), b.hashCode());
+        Assert.assertEquals(list(0, 100).hashCode(), a.hashCode());
+        Assert.assertNotEquals(a, a.set(3, -3));
+        Assert.assertNotEquals(a, a.take(99));
+    }
+}
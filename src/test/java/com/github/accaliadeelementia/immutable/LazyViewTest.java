@@ -0,0 +1,141 @@
+package com.github.accaliadeelementia.immutable;
+
+import org.junit.Test;
+import org.junit.Assert;
+
+import java.util.*;
+import java.util.function.Function;
+
+public class LazyViewTest {
+
+    private static ImmutableQueue<Integer> queue(int n) {
+        ImmutableQueue<Integer> q = ImmutableQueue.empty();
+        for (int i = 0; i < n; i += 1) {
+            q = q.add(i);
+        }
+        return q;
+    }
+
+    private static List<Integer> list(Iterable<Integer> c) {
+        List<Integer> l = new ArrayList<Integer>();
+        for (Integer e: c) {
+            l.add(e);
+        }
+        return l;
+    }
+
+    @Test
+    public void MapOfQueueKeepsOrder () {
+        for (int n: new int[] {0, 1, 2, 5, 9, 33, 100, 1000}) {
+            ImmutableQueue<Integer> q = queue(n);
+            ImmutableQueue<Integer> mapped = q.lazy().map(x -> x * 2).toQueue();
+            Assert.assertEquals(n, mapped.size());
+            List<Integer> expected = new ArrayList<Integer>();
+            for (Integer e: q) {
+                expected.add(e * 2);
+            }
+            Assert.assertEquals(expected, list(mapped));
+            Assert.assertArrayEquals(expected.toArray(), mapped.toArray());
+        }
+    }
+
+    @Test
+    public void MapOfMixedQueueCanBeUpdated () {
+        ImmutableQueue<Integer> q = queue(50).concat(queue(70)).pushRight(-1).popLeft();
+        ImmutableQueue<String> mapped = q.lazy().map(String::valueOf).toQueue();
+        List<String> expected = new ArrayList<String>();
+        for (Integer e: q) {
+            expected.add(String.valueOf(e));
+        }
+        Assert.assertEquals(expected, Arrays.asList(mapped.toArray(new String[0])));
+        Assert.assertEquals(expected.get(0), mapped.peekRight());
+        Assert.assertEquals(expected.get(expected.size() - 1), mapped.peekLeft());
+        Assert.assertEquals(expected.size() - 1, mapped.popRight().size());
+        Assert.assertEquals(expected.get(60), mapped.get(60));
+    }
+
+    @Test
+    public void MapsAreAppliedOncePerValue () {
+        final int[] calls = {0};
+        Function<Integer, Integer> counting = x -> {
+            calls[0] += 1;
+            return x + 1;
+        };
+        ImmutableQueue<Integer> q = queue(100);
+        q.lazy().map(counting).map(counting).toQueue();
+        Assert.assertEquals(200, calls[0]);
+    }
+
+    @Test
+    public void NothingIsComputedBeforeATerminal () {
+        final int[] calls = {0};
+        LazyView<Integer> v = queue(100).lazy().map(x -> {
+            calls[0] += 1;
+            return x;
+        }).filter(x -> x % 2 == 0);
+        Assert.assertEquals(0, calls[0]);
+        Assert.assertEquals(Integer.valueOf(0), v.iterator().next());
+        Assert.assertEquals(1, calls[0]);
+    }
+
+    @Test
+    public void TakeStopsEarlierStages () {
+        final int[] calls = {0};
+        List<Integer> taken = list(queue(1000).lazy().map(x -> {
+            calls[0] += 1;
+            return x;
+        }).take(3).toQueue());
+        Assert.assertEquals(Arrays.asList(0, 1, 2), taken);
+        Assert.assertEquals(3, calls[0]);
+    }
+
+    @Test
+    public void PipelineMatchesStream () {
+        ImmutableQueue<Integer> q = queue(200);
+        List<Integer> expected = new ArrayList<Integer>();
+        q.stream().filter(x -> x % 3 == 0).flatMap(x -> Arrays.asList(x, -x).stream())
+            .skip(4).limit(50).forEach(expected::add);
+        LazyView<Integer> v = q.lazy().filter(x -> x % 3 == 0).flatMap(x -> Arrays.asList(x, -x)).drop(4).take(50);
+        Assert.assertEquals(expected, list(v.toQueue()));
+        Assert.assertEquals(expected, list(v.toStack()));
+        Assert.assertEquals(expected, list(v.toVector()));
+        Assert.assertEquals(expected, list(v));
+    }
+
+    @Test
+    public void ToStackKeepsIterationOrder () {
+        ImmutableStack<Integer> s = ImmutableStack.of(1, 2, 3);
+        Assert.assertSame(s, s.lazy().toStack());
+        Assert.assertEquals(Arrays.asList(30, 20, 10), list(s.lazy().map(x -> x * 10).toStack()));
+    }
+
+    @Test
+    public void UnmappedQueueIsReturnedAsIs () {
+        ImmutableQueue<Integer> q = queue(10);
+        Assert.assertSame(q, q.lazy().toQueue());
+    }
+
+    @Test
+    public void FoldCombinesInOrder () {
+        String s = queue(5).lazy().map(String::valueOf).fold("", (a, b) -> a + b);
+        Assert.assertEquals("01234", s);
+        Assert.assertEquals(Integer.valueOf(7), ImmutableQueue.<Integer>empty().lazy().fold(7, Integer::sum));
+    }
+
+    @Test
+    public void ViewsOfOtherCollections () {
+        ImmutableVector<Integer> v = ImmutableVector.of(4, 5, 6);
+        Assert.assertEquals(Arrays.asList(5, 6, 7), list(v.lazy().map(x -> x + 1).toVector()));
+        Assert.assertEquals(Arrays.asList(1, 2), list(ImmutableSortedSet.of(3, 1, 2).lazy().take(2).toQueue()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void TakeRejectsNegativeCount () {
+        queue(3).lazy().take(-1);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void IteratorNextThrowsErrorWhenDone () {
+        queue(3).lazy().filter(x -> x > 5).iterator().next();
+    }
+}
@@ -0,0 +1,202 @@
+package com.github.accaliadeelementia.immutable;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.Assert;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+public class MappedImmutableQueueTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MappedQueueStore<Integer> store;
+
+    @Before
+    public void open () throws IOException {
+        // Small segments, so records regularly hit a segment's end
+        store = new MappedQueueStore<Integer>(folder.newFolder(), ElementCodec.INTEGER, 30);
+    }
+
+    @After
+    public void close () throws IOException {
+        store.close();
+    }
+
+    private MappedImmutableQueue<Integer> range(int from, int to) {
+        MappedImmutableQueue<Integer> q = store.empty();
+        for (int i = from; i < to; i += 1) {
+            q = q.pushRight(i);
+        }
+        return q;
+    }
+
+    private static void assertDrains (MappedImmutableQueue<Integer> q, int from, int to) {
+        Assert.assertEquals(to - from, q.size());
+        int expected = from;
+        for (int actual: q) {
+            Assert.assertEquals(expected, actual);
+            expected += 1;
+        }
+        for (int i = from; i < to; i += 1) {
+            Assert.assertEquals(i, (int)q.peekLeft());
+            q = q.popLeft();
+        }
+        Assert.assertTrue(q.isEmpty());
+    }
+
+    @Test
+    public void EmptyQueueIsSizeZero () {
+        Assert.assertEquals(0, store.empty().size());
+        Assert.assertTrue(store.empty().isEmpty());
+    }
+
+    @Test(expected = EmptyQueueException.class)
+    public void EmptyQueueCannotPeekLeft () {
+        store.empty().peekLeft();
+    }
+
+    @Test(expected = EmptyQueueException.class)
+    public void EmptyQueueCannotPopLeft () {
+        store.empty().popLeft();
+    }
+
+    @Test
+    public void PopsInPushOrderAcrossSegments () {
+        assertDrains(range(0, 1000), 0, 1000);
+        Assert.assertTrue(store.usedBytes() >= 8000);
+    }
+
+    @Test
+    public void OnePopsToEmpty () {
+        Assert.assertSame(store.empty(), store.empty().pushRight(1).popLeft());
+    }
+
+    @Test
+    public void PoppedVersionsStayReadable () {
+        MappedImmutableQueue<Integer> q = range(0, 100);
+        MappedImmutableQueue<Integer> popped = q;
+        for (int i = 0; i < 50; i += 1) {
+            popped = popped.popLeft();
+        }
+        popped = popped.pushRight(100);
+        assertDrains(q, 0, 100);
+        assertDrains(popped, 50, 101);
+    }
+
+    @Test
+    public void PushingOntoOlderVersionsBranches () {
+        MappedImmutableQueue<Integer> base = range(0, 10);
+        MappedImmutableQueue<Integer> a = base.pushRight(10);
+        MappedImmutableQueue<Integer> b = base.pushRight(-1);
+        MappedImmutableQueue<Integer> c = a.popLeft().pushRight(11);
+        assertDrains(base, 0, 10);
+        assertDrains(a, 0, 11);
+        assertDrains(c, 1, 12);
+        Assert.assertEquals(-1, (int)b.popLeft().popLeft().popLeft().popLeft().popLeft()
+            .popLeft().popLeft().popLeft().popLeft().popLeft().peekLeft());
+        Assert.assertEquals(11, b.size());
+    }
+
+    @Test
+    public void BranchPushWritesOnlyTheNewRecord () {
+        MappedImmutableQueue<Integer> base = range(0, 1000);
+        base.pushRight(1000);
+        long used = store.usedBytes();
+        MappedImmutableQueue<Integer> branch = base.pushRight(-1);
+        // One 8 byte record, maybe after padding to the next segment
+        Assert.assertTrue(store.usedBytes() - used < 16);
+        branch = branch.pushRight(-2).pushRight(-3);
+        Assert.assertEquals(1003, branch.size());
+        for (int i = 0; i < 1000; i += 1) {
+            Assert.assertEquals(i, (int)branch.peekLeft());
+            branch = branch.popLeft();
+        }
+        Assert.assertEquals(-1, (int)branch.peekLeft());
+        Assert.assertEquals(-2, (int)branch.popLeft().peekLeft());
+        Assert.assertEquals(-3, (int)branch.popLeft().popLeft().peekLeft());
+    }
+
+    @Test
+    public void BranchesOfBranchesDrainInOrder () {
+        MappedImmutableQueue<Integer> q = range(0, 3);
+        q.pushRight(-1);
+        for (int i = 3; i < 20; i += 1) {
+            // Each push starts a run after another version took the slot
+            q.pushRight(-i);
+            q = q.pushRight(i);
+        }
+        assertDrains(q, 0, 20);
+        assertDrains(q.popLeft().popLeft().popLeft().popLeft(), 4, 20);
+        Assert.assertEquals(range(0, 20), q);
+    }
+
+    @Test
+    public void NewStoreDeletesOldSegments () throws IOException {
+        File dir = folder.newFolder();
+        File old = new File(dir, "segment-00000007.log");
+        File other = new File(dir, "notes.txt");
+        Assert.assertTrue(old.createNewFile());
+        Assert.assertTrue(other.createNewFile());
+        MappedQueueStore<Integer> s = new MappedQueueStore<Integer>(dir, ElementCodec.INTEGER, 30);
+        try {
+            Assert.assertFalse(old.exists());
+            Assert.assertTrue(other.exists());
+            Assert.assertEquals(0, s.usedBytes());
+        } finally {
+            s.close();
+        }
+    }
+
+    @Test
+    public void EqualQueuesHaveEqualHashes () {
+        MappedImmutableQueue<Integer> a = range(0, 20);
+        MappedImmutableQueue<Integer> b = range(0, 20);
+        Assert.assertEquals(a, b);
+        Assert.assertEquals(a.hashCode(), b.hashCode());
+        Assert.assertNotEquals(a, b.popLeft().pushRight(20));
+    }
+
+    @Test
+    public void StringsOfManySizesRoundTrip () throws IOException {
+        MappedQueueStore<String> strings = new MappedQueueStore<String>(folder.newFolder(), ElementCodec.STRING, 64);
+        try {
+            List<String> expected = new ArrayList<String>();
+            MappedImmutableQueue<String> q = strings.empty();
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 200; i += 1) {
+                sb.setLength(0);
+                for (int j = 0; j < i % 50; j += 1) {
+                    sb.append((char) ('a' + j % 26));
+                }
+                expected.add(sb.toString());
+                q = q.pushRight(sb.toString());
+            }
+            Assert.assertEquals(expected, q.stream().collect(java.util.stream.Collectors.toList()));
+        } finally {
+            strings.close();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void RecordsLargerThanASegmentAreRejected () throws IOException {
+        MappedQueueStore<String> strings = new MappedQueueStore<String>(folder.newFolder(), ElementCodec.STRING, 16);
+        try {
+            strings.empty().pushRight("this does not fit");
+        } finally {
+            strings.close();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void ClosedStoreCannotBeRead () throws IOException {
+        MappedImmutableQueue<Integer> q = range(0, 10);
+        store.close();
+        q.peekLeft();
+    }
+}